@@ -2,6 +2,7 @@ package com.example.uwhapp;
 
 import java.net.URI;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 
 import javax.sql.DataSource;
@@ -10,12 +11,18 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import com.example.uwhapp.config.ReadWriteRoutingDataSource;
 import com.example.uwhapp.model.Event;
+import com.example.uwhapp.model.RecurrenceRule;
 import com.example.uwhapp.model.Rsvp;
 import com.example.uwhapp.model.User;
 import com.example.uwhapp.repository.EventRepository;
+import com.example.uwhapp.repository.RecurrenceRuleRepository;
 import com.example.uwhapp.repository.RsvpRepository;
 import com.example.uwhapp.repository.UserRepository;
 import com.example.uwhapp.service.AuthService;
@@ -45,9 +52,12 @@ public class UwhAppApplication {
     /**
      * Provide a DataSource bean programmatically so we bypass problematic placeholder
      * resolution that may leave ${DATABASE_URL} unresolved or in non-jdbc form.
+     *
+     * Reads in read-only transactions go to an optional replica (uwh.datasource.replica.url,
+     * or UWH_DATASOURCE_REPLICA_URL in the environment); see ReadWriteRoutingDataSource.
      */
-    @Bean
-    public DataSource dataSource() {
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource routingDataSource(Environment env) {
         String jdbcUrl = null;
         String username = null;
         String password = null;
@@ -102,13 +112,42 @@ public class UwhAppApplication {
         if (username != null) cfg.setUsername(username);
         if (password != null) cfg.setPassword(password);
 
-        cfg.setMaximumPoolSize(5);
+        cfg.setMaximumPoolSize(env.getProperty("uwh.datasource.primary.pool-size", Integer.class, 5));
         cfg.setMinimumIdle(1);
         cfg.setIdleTimeout(10_000);
         cfg.setConnectionTimeout(10_000);
         cfg.setPoolName("uwh-hikari");
+        HikariDataSource primary = new HikariDataSource(cfg);
+
+        HikariDataSource replica = null;
+        String replicaUrl = env.getProperty("uwh.datasource.replica.url");
+        if (replicaUrl != null && !replicaUrl.isBlank()) {
+            HikariConfig rcfg = new HikariConfig();
+            rcfg.setJdbcUrl(replicaUrl);
+            rcfg.setUsername(env.getProperty("uwh.datasource.replica.username", cfg.getUsername()));
+            rcfg.setPassword(env.getProperty("uwh.datasource.replica.password", cfg.getPassword()));
+            rcfg.setMaximumPoolSize(env.getProperty("uwh.datasource.replica.pool-size", Integer.class, 5));
+            rcfg.setMinimumIdle(1);
+            rcfg.setIdleTimeout(10_000);
+            // fail fast so a dead replica falls back to the primary instead of stalling reads
+            rcfg.setConnectionTimeout(2_000);
+            rcfg.setInitializationFailTimeout(-1);
+            rcfg.setReadOnly(true);
+            rcfg.setPoolName("uwh-hikari-replica");
+            replica = new HikariDataSource(rcfg);
+            System.out.println("Read replica configured: " + (replicaUrl.startsWith("jdbc:h2:") ? replicaUrl : "[REDACTED FOR SECURITY]"));
+        }
+
+        return new ReadWriteRoutingDataSource(primary, replica,
+                env.getProperty("uwh.datasource.replica.max-lag-seconds", Long.class, 10L),
+                env.getProperty("uwh.datasource.bulkhead-wait-ms", Long.class, 5_000L));
+    }
 
-        return new HikariDataSource(cfg);
+    // connections are fetched on first statement, after the transaction's read-only flag is set
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
     }
 
     /**
@@ -120,6 +159,7 @@ public class UwhAppApplication {
     CommandLineRunner seedData(UserRepository userRepo,
                                EventRepository eventRepo,
                                RsvpRepository rsvpRepo,
+                               RecurrenceRuleRepository ruleRepo,
                                AuthService authService) {
         return args -> {
             try {
@@ -148,6 +188,13 @@ public class UwhAppApplication {
                     e.setCreatedBy(1L);
                     eventRepo.save(e);
                 }
+                if (ruleRepo.count() == 0) {
+                    // the two weekly sessions that used to be hard-coded in ScheduledEventCreator
+                    ruleRepo.save(new RecurrenceRule("UWH Session (Thursday)", "Local Pool",
+                            "FREQ=WEEKLY;BYDAY=TH;BYHOUR=19;BYMINUTE=30", LocalDate.now()));
+                    ruleRepo.save(new RecurrenceRule("UWH Session (Sunday)", "Local Pool",
+                            "FREQ=WEEKLY;BYDAY=SU;BYHOUR=16;BYMINUTE=30", LocalDate.now()));
+                }
                 if (rsvpRepo.count() == 0) {
                     Event event = eventRepo.findAll().get(0);
                     List<User> users = userRepo.findAll();
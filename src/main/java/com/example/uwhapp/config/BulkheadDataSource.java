@@ -0,0 +1,163 @@
+package com.example.uwhapp.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Semaphore in front of a connection pool. With virtual threads there is no request-thread
+ * limit any more, so thousands of requests can pile onto a five-connection pool at once;
+ * the semaphore queues them fairly and turns them away after {@code maxWaitMillis} instead
+ * of letting every one of them sit in the pool's own wait until its connection timeout.
+ *
+ * It also measures demand so the pool can be sized from Little's law rather than guessed:
+ * total connection hold time divided by wall time is the average number of connections busy.
+ * That is tracked per 10s window and the busiest window drives {@code suggestedPoolSize}.
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+
+    public record Stats(String name,
+                        int permits,
+                        int inUse,
+                        int waiting,
+                        int peakInUse,
+                        long rejected,
+                        double avgHoldMillis,
+                        double peakBusyConnections,
+                        int suggestedPoolSize) {}
+
+    /** Thrown when no permit frees up within the wait; distinct from the pool's own timeout. */
+    public static class SaturatedException extends SQLTransientConnectionException {
+        private static final long serialVersionUID = 1L;
+
+        public SaturatedException(String message) {
+            super(message);
+        }
+    }
+
+    private final String name;
+    private final int permits;
+    private final long maxWaitMillis;
+    private final Semaphore semaphore;
+
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicInteger peakInUse = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder acquires = new LongAdder();
+    private final LongAdder holdNanos = new LongAdder();
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final LongAdder windowHoldNanos = new LongAdder();
+    private volatile double peakBusy;
+
+    public BulkheadDataSource(String name, DataSource target, int permits, long maxWaitMillis) {
+        super(target);
+        this.name = name;
+        this.permits = permits;
+        this.maxWaitMillis = maxWaitMillis;
+        this.semaphore = new Semaphore(permits, true);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return guard(super.getConnection());
+        } catch (SQLException | RuntimeException ex) {
+            release(System.nanoTime());
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return guard(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException ex) {
+            release(System.nanoTime());
+            throw ex;
+        }
+    }
+
+    public Stats stats() {
+        rollWindow(System.nanoTime());
+        long n = acquires.sum();
+        double avgHoldMillis = n == 0 ? 0 : holdNanos.sum() / 1e6 / n;
+        // 50% headroom over the busiest window, and never fewer than two
+        int suggested = Math.max(2, (int) Math.ceil(peakBusy * 1.5));
+        return new Stats(name, permits, inUse.get(), semaphore.getQueueLength(), peakInUse.get(),
+                rejected.sum(), avgHoldMillis, peakBusy, suggested);
+    }
+
+    private void acquire() throws SQLException {
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException(name + ": interrupted waiting for a connection", ex);
+        }
+        if (!acquired) {
+            rejected.increment();
+            throw new SaturatedException(name + ": all " + permits + " connections busy for "
+                    + maxWaitMillis + "ms");
+        }
+        int now = inUse.incrementAndGet();
+        peakInUse.accumulateAndGet(now, Math::max);
+        acquires.increment();
+    }
+
+    private void release(long acquiredAt) {
+        long now = System.nanoTime();
+        holdNanos.add(now - acquiredAt);
+        windowHoldNanos.add(now - acquiredAt);
+        inUse.decrementAndGet();
+        semaphore.release();
+        rollWindow(now);
+    }
+
+    private void rollWindow(long now) {
+        long start = windowStart.get();
+        long elapsed = now - start;
+        if (elapsed < WINDOW_NANOS || !windowStart.compareAndSet(start, now)) return;
+        double busy = (double) windowHoldNanos.sumThenReset() / elapsed;
+        if (busy > peakBusy) peakBusy = busy;
+    }
+
+    // hands the permit back exactly once, when the caller closes the connection
+    private Connection guard(Connection target) {
+        long acquiredAt = System.nanoTime();
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        try {
+                            target.close();
+                        } finally {
+                            if (closed.compareAndSet(false, true)) release(acquiredAt);
+                        }
+                        return null;
+                    }
+                    if (method.getName().equals("isClosed") && closed.get()) return true;
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.uwhapp.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maximum SQL statement counts per endpoint ("GET /events/{eventId}/teams") and per
+ * scheduled job ("SCHEDULED checkAndSend"). Labels without an entry use defaultBudget.
+ * Overruns are only logged at runtime; QueryBudgetTest is what enforces them. Counting
+ * needs the QueryCounter inspector, so with uwh.query-count.enabled off nothing is measured.
+ */
+@Component
+@ConfigurationProperties(prefix = "uwh.query-count")
+public class QueryBudgets {
+
+    private boolean enabled = false;
+    private int defaultBudget = 20;
+    private Map<String, Integer> budgets = new HashMap<>();
+
+    public int budgetFor(String label) {
+        return budgets.getOrDefault(label, defaultBudget);
+    }
+
+    /**
+     * Run a unit of work and check its statement count against the budget. Used by the
+     * scheduled jobs, which have no request filter around them. Returns the count (0 when
+     * counting is off).
+     */
+    public int measure(String label, Runnable work) {
+        if (!enabled) {
+            work.run();
+            return 0;
+        }
+        QueryCounter.reset();
+        work.run();
+        int statements = QueryCounter.count();
+        check(label, statements);
+        return statements;
+    }
+
+    public void check(String label, int statements) {
+        int budget = budgetFor(label);
+        if (budget <= 0 || statements <= budget) return;
+        System.err.println("Query budget exceeded: " + label + " ran " + statements + " statements (budget " + budget + ")");
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public int getDefaultBudget() { return defaultBudget; }
+    public void setDefaultBudget(int defaultBudget) { this.defaultBudget = defaultBudget; }
+    public Map<String, Integer> getBudgets() { return budgets; }
+    public void setBudgets(Map<String, Integer> budgets) { this.budgets = budgets; }
+}
@@ -0,0 +1,55 @@
+package com.example.uwhapp.config;
+
+import java.io.IOException;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Per-request SQL statement counting, switched on with uwh.query-count.enabled (dev and the
+ * test suite; never in prod), together with Hibernate's statistics. Every request is measured against its QueryBudgets entry
+ * (keyed by HTTP method and matched path pattern) and overruns are logged; QueryBudgetTest
+ * asserts the same budgets and fails the build on a regression.
+ */
+@Configuration
+@ConditionalOnProperty(name = "uwh.query-count.enabled", havingValue = "true")
+public class QueryCountConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterCustomizer() {
+        return props -> {
+            props.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCounter());
+            // second-level cache hit/miss counters for GET /admin/entity-cache; they cost a little on every access
+            props.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> queryCountFilter(QueryBudgets budgets) {
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                    FilterChain chain) throws ServletException, IOException {
+                QueryCounter.reset();
+                chain.doFilter(request, response);
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                String label = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+                budgets.check(label, QueryCounter.count());
+            }
+        };
+        FilterRegistrationBean<OncePerRequestFilter> reg = new FilterRegistrationBean<>(filter);
+        reg.addUrlPatterns("/*");
+        return reg;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.uwhapp.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts SQL statements issued by Hibernate on the current thread.
+ * Registered as the session factory's StatementInspector (see QueryCountConfig), so every
+ * statement prepared through JPA passes through inspect() unchanged.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    // reset the counter for the current thread (start of a request or scheduled run)
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static int count() {
+        return COUNT.get()[0];
+    }
+}
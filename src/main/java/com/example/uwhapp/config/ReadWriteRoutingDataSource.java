@@ -0,0 +1,153 @@
+package com.example.uwhapp.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * Sends {@code @Transactional(readOnly = true)} work to the replica pool and everything else
+ * to the primary. Must sit behind a LazyConnectionDataSourceProxy so the connection is only
+ * fetched once the transaction's read-only flag is known.
+ *
+ * The replica is optional. When it is missing, unreachable, or lagging by more than
+ * {@code maxLagSeconds}, reads fall back to the primary until the next lag check succeeds.
+ */
+public final class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    public record PoolStats(String pool, int active, int idle, int total, int waiting) {}
+
+    public record Status(PoolStats primary, PoolStats replica,
+                         BulkheadDataSource.Stats primaryBulkhead, BulkheadDataSource.Stats replicaBulkhead,
+                         boolean replicaHealthy, Double replicaLagSeconds) {}
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    // one permit per pooled connection, so callers queue here rather than inside Hikari
+    private final BulkheadDataSource primaryGate;
+    private final BulkheadDataSource replicaGate;
+    private final long maxLagSeconds;
+
+    private volatile boolean replicaHealthy;
+    private volatile Double replicaLagSeconds;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, HikariDataSource replica,
+                                      long maxLagSeconds, long bulkheadWaitMillis) {
+        this.primary = primary;
+        this.replica = replica;
+        this.primaryGate = new BulkheadDataSource(primary.getPoolName(), primary,
+                primary.getMaximumPoolSize(), bulkheadWaitMillis);
+        this.replicaGate = replica == null ? null : new BulkheadDataSource(replica.getPoolName(), replica,
+                replica.getMaximumPoolSize(), bulkheadWaitMillis);
+        this.maxLagSeconds = maxLagSeconds;
+        this.replicaHealthy = replica != null;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primaryGate);
+        if (replica != null) targets.put(REPLICA, replicaGate);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primaryGate);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaHealthy && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (REPLICA.equals(key)) {
+            try {
+                return replicaGate.getConnection();
+            } catch (BulkheadDataSource.SaturatedException busy) {
+                // replica is healthy, just saturated: spill over rather than fail the read
+                return primaryGate.getConnection();
+            } catch (SQLException ex) {
+                markReplicaDown("connection failed: " + ex.getMessage());
+                return primaryGate.getConnection();
+            }
+        }
+        return primaryGate.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    /**
+     * Measures replication lag and takes the replica out of rotation while it is too far
+     * behind. Postgres standbys report the age of the last replayed transaction; anything
+     * else (a primary used as its own replica, H2 in local testing) counts as zero lag.
+     */
+    @Scheduled(fixedDelayString = "${uwh.datasource.replica.lag-check-ms:5000}")
+    public void checkReplica() {
+        if (replica == null) return;
+        try (Connection c = replica.getConnection(); Statement st = c.createStatement()) {
+            double lag = 0;
+            if (c.getMetaData().getURL().startsWith("jdbc:postgresql:")) {
+                try (ResultSet rs = st.executeQuery(
+                        "SELECT CASE WHEN pg_is_in_recovery() "
+                        + "THEN COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) "
+                        + "ELSE 0 END")) {
+                    rs.next();
+                    lag = rs.getDouble(1);
+                }
+            } else {
+                st.execute("SELECT 1");
+            }
+            replicaLagSeconds = lag;
+            if (lag > maxLagSeconds) {
+                markReplicaDown("lag " + lag + "s exceeds " + maxLagSeconds + "s");
+            } else if (!replicaHealthy) {
+                System.out.println("Read replica back in rotation (lag " + lag + "s)");
+                replicaHealthy = true;
+            }
+        } catch (SQLException ex) {
+            replicaLagSeconds = null;
+            markReplicaDown("lag check failed: " + ex.getMessage());
+        }
+    }
+
+    public Status status() {
+        return new Status(stats(primary), replica == null ? null : stats(replica),
+                primaryGate.stats(), replicaGate == null ? null : replicaGate.stats(),
+                replicaHealthy, replicaLagSeconds);
+    }
+
+    public void close() {
+        if (replica != null) replica.close();
+        primary.close();
+    }
+
+    private void markReplicaDown(String reason) {
+        if (replicaHealthy) {
+            System.err.println("Read replica out of rotation, reads go to primary: " + reason);
+        }
+        replicaHealthy = false;
+    }
+
+    private static PoolStats stats(HikariDataSource ds) {
+        HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+        if (pool == null) return new PoolStats(ds.getPoolName(), 0, 0, 0, 0);
+        return new PoolStats(ds.getPoolName(), pool.getActiveConnections(), pool.getIdleConnections(),
+                pool.getTotalConnections(), pool.getThreadsAwaitingConnection());
+    }
+}
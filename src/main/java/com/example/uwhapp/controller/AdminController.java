@@ -1,9 +1,12 @@
 package com.example.uwhapp.controller;
 
+import java.io.InputStream;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -21,44 +24,88 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.example.uwhapp.config.ReadWriteRoutingDataSource;
+import com.example.uwhapp.dto.ErrorDto;
+import com.example.uwhapp.dto.JobLeasesDto;
+import com.example.uwhapp.dto.RecurrenceRuleDto;
+import com.example.uwhapp.dto.RsvpDto;
+import com.example.uwhapp.dto.ScheduleExceptionDto;
+import com.example.uwhapp.dto.UserDto;
 import com.example.uwhapp.model.Event;
-import com.example.uwhapp.model.Rsvp;
+import com.example.uwhapp.model.RecurrenceRule;
+import com.example.uwhapp.model.ScheduleException;
 import com.example.uwhapp.model.User;
-import com.example.uwhapp.repository.EventRepository;
-import com.example.uwhapp.repository.RsvpRepository;
+import com.example.uwhapp.repository.RecurrenceRuleRepository;
+import com.example.uwhapp.repository.ScheduleExceptionRepository;
 import com.example.uwhapp.repository.UserRepository;
+import com.example.uwhapp.service.AuthPrincipal;
 import com.example.uwhapp.service.AuthService;
+import com.example.uwhapp.service.EntityCacheStats;
+import com.example.uwhapp.service.EventService;
+import com.example.uwhapp.service.EventVersions;
+import com.example.uwhapp.service.JobLeases;
+import com.example.uwhapp.service.RRule;
+import com.example.uwhapp.service.RecurrenceMaterializer;
+import com.example.uwhapp.service.RsvpImport;
+import com.example.uwhapp.service.RsvpService;
 import com.example.uwhapp.service.TeamService;
+import com.example.uwhapp.service.Workloads;
 
 @RestController
 @RequestMapping("/admin")
 public class AdminController {
 
     private final UserRepository userRepo;
-    private final EventRepository eventRepo;
-    private final RsvpRepository rsvpRepo;
+    private final EventService eventService;
     private final AuthService authService;
     private final TeamService teamService;
+    private final RsvpService rsvpService;
+    private final EventVersions eventVersions;
+    private final EntityCacheStats entityCacheStats;
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final Workloads workloads;
+    private final JobLeases jobLeases;
+    private final RecurrenceRuleRepository ruleRepo;
+    private final ScheduleExceptionRepository exceptionRepo;
+    private final RecurrenceMaterializer materializer;
+    private final RsvpImport rsvpImport;
 
     public AdminController(UserRepository userRepo,
-                           EventRepository eventRepo,
-                           RsvpRepository rsvpRepo,
-                           AuthService authService, TeamService teamService) {
+                           EventService eventService,
+                           AuthService authService, TeamService teamService,
+                           RsvpService rsvpService, EventVersions eventVersions,
+                           EntityCacheStats entityCacheStats,
+                           ReadWriteRoutingDataSource routingDataSource,
+                           Workloads workloads, JobLeases jobLeases,
+                           RecurrenceRuleRepository ruleRepo,
+                           ScheduleExceptionRepository exceptionRepo,
+                           RecurrenceMaterializer materializer,
+                           RsvpImport rsvpImport) {
         this.userRepo = userRepo;
-        this.eventRepo = eventRepo;
-        this.rsvpRepo = rsvpRepo;
+        this.eventService = eventService;
         this.authService = authService;
         this.teamService = teamService;
+        this.rsvpService = rsvpService;
+        this.eventVersions = eventVersions;
+        this.entityCacheStats = entityCacheStats;
+        this.routingDataSource = routingDataSource;
+        this.workloads = workloads;
+        this.jobLeases = jobLeases;
+        this.ruleRepo = ruleRepo;
+        this.exceptionRepo = exceptionRepo;
+        this.materializer = materializer;
+        this.rsvpImport = rsvpImport;
     }
 
     // helper - require admin from token, throws 403 if not admin
-    private User requireAdmin(String token) {
-        User u = authService.findByToken(token).orElseThrow(() ->
+    private AuthPrincipal requireAdmin(String token) {
+        AuthPrincipal u = authService.findByToken(token).orElseThrow(() ->
                 new ResponseStatusException(HttpStatus.UNAUTHORIZED, "invalid token"));
-        if (!Boolean.TRUE.equals(u.getIsAdmin())) {
+        if (!u.admin()) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "admin only");
         }
         return u;
@@ -68,15 +115,10 @@ public class AdminController {
     @GetMapping("/users")
     public ResponseEntity<?> listUsers(@RequestHeader("X-Auth-Token") String token) {
         requireAdmin(token);
-        List<Map<String,Object>> out = userRepo.findAll().stream().sorted(Comparator.comparing(User::getName, String.CASE_INSENSITIVE_ORDER)).map(u -> {
-            Map<String,Object> m = new HashMap<>();
-            m.put("id", u.getId());
-            m.put("name", u.getName());
-            m.put("username", u.getUsername());
-            m.put("skill", u.getSkill());
-            m.put("isAdmin", Boolean.TRUE.equals(u.getIsAdmin()));
-            return m;
-        }).collect(Collectors.toList());
+        List<UserDto> out = userRepo.findAll().stream()
+                .sorted(Comparator.comparing(User::getName, String.CASE_INSENSITIVE_ORDER))
+                .map(UserDto::of)
+                .collect(Collectors.toList());
         return ResponseEntity.ok(out);
     }
 
@@ -84,14 +126,147 @@ public class AdminController {
     @DeleteMapping("/users/{id}")
     public ResponseEntity<?> deleteUser(@RequestHeader("X-Auth-Token") String token, @PathVariable Long id) {
         requireAdmin(token);
-        if (!userRepo.existsById(id)) return ResponseEntity.status(404).body(Map.of("error","not found"));
+        if (!userRepo.existsById(id)) return ResponseEntity.status(404).body(new ErrorDto("not found"));
         // delete RSVPs first
-        List<Rsvp> rsvps = rsvpRepo.findByUserId(id);
-        rsvpRepo.deleteAll(rsvps);
+        rsvpService.deleteForUser(id);
         userRepo.deleteById(id);
+        authService.evictUser(id);
         return ResponseEntity.noContent().build();
     }
 
+    // Promote/demote a user (payload: { "isAdmin": true })
+    @PutMapping("/users/{id}/admin")
+    public ResponseEntity<?> updateAdmin(@RequestHeader("X-Auth-Token") String token,
+                                         @PathVariable Long id,
+                                         @RequestBody Map<String,Object> body) {
+        requireAdmin(token);
+        if (!body.containsKey("isAdmin")) {
+            return ResponseEntity.badRequest().body(new ErrorDto("isAdmin required"));
+        }
+        boolean isAdmin = Boolean.parseBoolean(Objects.toString(body.get("isAdmin")));
+        User u = userRepo.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        u.setIsAdmin(isAdmin);
+        userRepo.save(u);
+        // the admin flag is read from the user, not the token: refresh the cached principal
+        // everywhere rather than logging the user out
+        authService.evictUser(id);
+        return ResponseEntity.ok(UserDto.of(u));
+    }
+
+    // Log a user out everywhere (invalidates all their session tokens)
+    @PostMapping("/users/{id}/revoke-tokens")
+    public ResponseEntity<?> revokeTokens(@RequestHeader("X-Auth-Token") String token, @PathVariable Long id) {
+        requireAdmin(token);
+        if (!userRepo.existsById(id)) return ResponseEntity.status(404).body(new ErrorDto("not found"));
+        authService.revokeTokens(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Token cache hit rate / evictions
+    @GetMapping("/auth-cache")
+    public ResponseEntity<?> authCacheStats(@RequestHeader("X-Auth-Token") String token) {
+        requireAdmin(token);
+        return ResponseEntity.ok(authService.cacheStats());
+    }
+
+    // Second-level cache hit rates (User/Event regions and the query cache)
+    @GetMapping("/entity-cache")
+    public ResponseEntity<?> entityCacheStats(@RequestHeader("X-Auth-Token") String token) {
+        requireAdmin(token);
+        return ResponseEntity.ok(entityCacheStats.snapshot());
+    }
+
+    // Drop every cached entity, e.g. after editing rows directly in the database
+    @DeleteMapping("/entity-cache")
+    public ResponseEntity<?> evictEntityCache(@RequestHeader("X-Auth-Token") String token) {
+        requireAdmin(token);
+        entityCacheStats.evictAll();
+        eventVersions.bumpAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    // Primary/replica pool usage and replica lag
+    @GetMapping("/datasource")
+    public ResponseEntity<?> datasourceStatus(@RequestHeader("X-Auth-Token") String token) {
+        requireAdmin(token);
+        return ResponseEntity.ok(routingDataSource.status());
+    }
+
+    // Background executors: running, queued and rejected tasks per subsystem
+    @GetMapping("/workloads")
+    public ResponseEntity<?> workloadStats(@RequestHeader("X-Auth-Token") String token) {
+        requireAdmin(token);
+        return ResponseEntity.ok(workloads.stats());
+    }
+
+    // Which node holds each scheduled job's lease, and until when
+    @GetMapping("/job-leases")
+    public ResponseEntity<?> jobLeases(@RequestHeader("X-Auth-Token") String token) {
+        requireAdmin(token);
+        return ResponseEntity.ok(JobLeasesDto.of(jobLeases.nodeId(), jobLeases.list()));
+    }
+
+    // Recurring sessions that the daily job turns into events
+    @GetMapping("/recurrence-rules")
+    public ResponseEntity<?> listRecurrenceRules(@RequestHeader("X-Auth-Token") String token) {
+        requireAdmin(token);
+        return ResponseEntity.ok(ruleRepo.findAll().stream().map(RecurrenceRuleDto::of).collect(Collectors.toList()));
+    }
+
+    // Add a recurring session
+    // payload: { "title": "...", "location": "...", "rrule": "FREQ=WEEKLY;BYDAY=TH;BYHOUR=19;BYMINUTE=30",
+    //            "zone": "Pacific/Auckland", "startsOn": "2026-02-01" }
+    @PostMapping("/recurrence-rules")
+    public ResponseEntity<?> createRecurrenceRule(@RequestHeader("X-Auth-Token") String token,
+                                                  @RequestBody Map<String, Object> body) {
+        requireAdmin(token);
+        String title = Objects.toString(body.get("title"), null);
+        String rrule = Objects.toString(body.get("rrule"), null);
+        if (title == null || title.isBlank()) return ResponseEntity.badRequest().body(new ErrorDto("title required"));
+        RecurrenceRule r;
+        try {
+            RRule.parse(rrule);
+            String startsOn = Objects.toString(body.get("startsOn"), null);
+            r = new RecurrenceRule(title, Objects.toString(body.getOrDefault("location", ""), ""), rrule,
+                    startsOn == null ? LocalDate.now() : LocalDate.parse(startsOn));
+            if (body.get("zone") != null) r.setZone(ZoneId.of(body.get("zone").toString()).getId());
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(new ErrorDto(ex.getMessage()));
+        }
+        return ResponseEntity.ok(RecurrenceRuleDto.of(ruleRepo.save(r)));
+    }
+
+    // Cancel, move or relocate occurrences on one date, for one rule or (no ruleId) all of them
+    // payload: { "ruleId": 1, "onDate": "2026-04-25", "newStartTime": "18:00", "newLocation": "...", "reason": "..." }
+    // with neither newStartTime nor newLocation the occurrence is cancelled
+    @PostMapping("/schedule-exceptions")
+    public ResponseEntity<?> createScheduleException(@RequestHeader("X-Auth-Token") String token,
+                                                     @RequestBody Map<String, Object> body) {
+        requireAdmin(token);
+        ScheduleException ex = new ScheduleException();
+        try {
+            if (body.get("ruleId") != null) ex.setRuleId(Long.valueOf(body.get("ruleId").toString()));
+            ex.setOnDate(LocalDate.parse(Objects.toString(body.get("onDate"), "")));
+            if (body.get("newStartTime") != null) ex.setNewStartTime(LocalTime.parse(body.get("newStartTime").toString()));
+        } catch (RuntimeException bad) {
+            return ResponseEntity.badRequest().body(new ErrorDto("onDate must be yyyy-MM-dd, newStartTime HH:mm, ruleId a number"));
+        }
+        ex.setNewLocation(Objects.toString(body.get("newLocation"), null));
+        ex.setReason(Objects.toString(body.get("reason"), null));
+        return ResponseEntity.ok(ScheduleExceptionDto.of(exceptionRepo.save(ex)));
+    }
+
+    // Materialise recurring events now, e.g. after adding a rule; ?days= overrides the horizon.
+    // Exceptions only shape occurrences not yet materialised; edit or delete existing events directly.
+    @PostMapping("/recurrence-rules/materialize")
+    public ResponseEntity<?> materializeNow(@RequestHeader("X-Auth-Token") String token,
+                                            @RequestParam(value = "days", required = false) Integer days) {
+        requireAdmin(token);
+        RecurrenceMaterializer.Result r = days == null ? materializer.materialize()
+                : materializer.materialize(Math.max(1, Math.min(days, 366)));
+        return ResponseEntity.ok(r);
+    }
+
     // Update a user's skill (payload: { "skill": 42 })
     @PutMapping("/users/{id}/skill")
     public ResponseEntity<?> updateSkill(@RequestHeader("X-Auth-Token") String token,
@@ -103,12 +278,43 @@ public class AdminController {
             Object s = body.get("skill");
             skill = (s instanceof Number) ? ((Number) s).intValue() : Integer.parseInt(s.toString());
         } else {
-            return ResponseEntity.badRequest().body(Map.of("error","skill required"));
+            return ResponseEntity.badRequest().body(new ErrorDto("skill required"));
         }
         User u = userRepo.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
         u.setSkill(skill);
         userRepo.save(u);
-        return ResponseEntity.ok(Map.of("id", u.getId(), "skill", u.getSkill()));
+        eventVersions.bumpAll();
+        return ResponseEntity.ok(UserDto.of(u));
+    }
+
+    // Update a user's balancing attributes; only the keys present are changed, null clears
+    // payload: { "position": "forward" | "back", "experience": 3, "gender": "f" }
+    @PutMapping("/users/{id}/attributes")
+    public ResponseEntity<?> updateAttributes(@RequestHeader("X-Auth-Token") String token,
+                                              @PathVariable Long id,
+                                              @RequestBody Map<String, Object> body) {
+        requireAdmin(token);
+        User u = userRepo.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (body.containsKey("position")) {
+            String position = body.get("position") == null ? null : body.get("position").toString().toLowerCase();
+            if (position != null && !position.equals("forward") && !position.equals("back")) {
+                return ResponseEntity.badRequest().body(new ErrorDto("position must be forward or back"));
+            }
+            u.setPosition(position);
+        }
+        if (body.containsKey("experience")) {
+            Object e = body.get("experience");
+            try {
+                u.setExperience(e == null ? null : (e instanceof Number) ? ((Number) e).intValue() : Integer.parseInt(e.toString()));
+            } catch (NumberFormatException ex) {
+                return ResponseEntity.badRequest().body(new ErrorDto("experience must be a whole number of years"));
+            }
+        }
+        if (body.containsKey("gender")) {
+            u.setGender(body.get("gender") == null ? null : body.get("gender").toString().toLowerCase());
+        }
+        userRepo.save(u);
+        return ResponseEntity.ok(UserDto.of(u));
     }
 
     // Create an event (admin)
@@ -118,7 +324,7 @@ public class AdminController {
         requireAdmin(token);
         String title = Objects.toString(body.getOrDefault("title",""), null);
         String startTimeStr = Objects.toString(body.getOrDefault("startTime",""), null);
-        if (title == null || title.isBlank()) return ResponseEntity.badRequest().body(Map.of("error","title required"));
+        if (title == null || title.isBlank()) return ResponseEntity.badRequest().body(new ErrorDto("title required"));
         Instant start;
         if (startTimeStr == null || startTimeStr.isBlank()) start = Instant.now().plusSeconds(3600);
         else start = Instant.parse(startTimeStr);
@@ -126,25 +332,43 @@ public class AdminController {
         e.setTitle(title);
         e.setLocation(Objects.toString(body.getOrDefault("location",""), ""));
         e.setStartTime(start);
-        Event saved = eventRepo.save(e);
-        return ResponseEntity.ok(saved);
+        Event saved = eventService.create(e);
+        return ResponseEntity.ok(eventService.withRsvpCounts(saved));
     }
 
     // List RSVPs for an event
     @GetMapping("/events/{eventId}/rsvps")
     public ResponseEntity<?> listRsvps(@RequestHeader("X-Auth-Token") String token, @PathVariable Long eventId) {
         requireAdmin(token);
-        List<Rsvp> rsvps = rsvpRepo.findByEventId(eventId);
+        List<RsvpDto> rsvps = rsvpService.findForEvent(eventId).stream().map(RsvpDto::of).collect(Collectors.toList());
         return ResponseEntity.ok(rsvps);
     }
+
+    // Record many RSVPs / attendance at once: a JSON array of {"userId", "status"} or CSV
+    // (Content-Type text/csv) of userId,status lines. Bad rows are listed, the rest are saved.
+    @PostMapping("/events/{eventId}/rsvps:batch")
+    public ResponseEntity<?> importRsvps(@RequestHeader("X-Auth-Token") String token,
+                                         @PathVariable Long eventId,
+                                         @RequestHeader(value = "Content-Type", required = false) String contentType,
+                                         InputStream body) {
+        requireAdmin(token);
+        if (eventService.findById(eventId).isEmpty()) return ResponseEntity.status(404).body(new ErrorDto("not found"));
+        boolean csv = contentType != null && contentType.toLowerCase().contains("csv");
+        try {
+            return ResponseEntity.ok(rsvpImport.importRsvps(eventId, body, csv));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(new ErrorDto(ex.getMessage()));
+        }
+    }
+
     // Admin update event (used by your front-end edit button)
     @PutMapping("/events/{eventId}")
     public ResponseEntity<?> adminUpdateEvent(@PathVariable("eventId") Long eventId,
             @RequestBody Map<String, Object> body) {
         try {
-            Optional<Event> oe = eventRepo.findById(eventId);
+            Optional<Event> oe = eventService.findById(eventId);
             if (oe.isEmpty()) {
-                return ResponseEntity.status(404).body(Map.of("error", "event not found"));
+                return ResponseEntity.status(404).body(new ErrorDto("event not found"));
             }
             Event e = oe.get();
             if (body.containsKey("title")) {
@@ -160,14 +384,14 @@ public class AdminController {
                         e.setStartTime(Instant.parse(s));
                     } catch (Exception ex) {
                         // ignore malformed startTime and return bad request
-                        return ResponseEntity.badRequest().body(Map.of("error", "startTime must be an ISO instant, e.g. 2026-01-23T18:00:00Z"));
+                        return ResponseEntity.badRequest().body(new ErrorDto("startTime must be an ISO instant, e.g. 2026-01-23T18:00:00Z"));
                     }
                 }
             }
-            Event saved = eventRepo.save(e);
-            return ResponseEntity.ok(saved);
+            Event saved = eventService.save(e);
+            return ResponseEntity.ok(eventService.withRsvpCounts(saved));
         } catch (Exception e) {
-            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
+            return ResponseEntity.status(500).body(new ErrorDto(e.getMessage()));
         }
     }
 
@@ -178,12 +402,12 @@ public class AdminController {
             // remove saved teams & members first
             teamService.deleteTeamsForEvent(eventId);
             // then delete event
-            eventRepo.deleteById(eventId);
+            eventService.deleteById(eventId);
             return ResponseEntity.noContent().build();
         } catch (EmptyResultDataAccessException ex) {
-            return ResponseEntity.status(404).body(Map.of("error", "event not found"));
+            return ResponseEntity.status(404).body(new ErrorDto("event not found"));
         } catch (Exception e) {
-            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
+            return ResponseEntity.status(500).body(new ErrorDto(e.getMessage()));
         }
     }
 
@@ -198,7 +422,7 @@ public class AdminController {
             delta = (body.get("delta") instanceof Number) ? ((Number) body.get("delta")).intValue() :
                     Integer.parseInt(body.get("delta").toString());
         } else {
-            return ResponseEntity.badRequest().body(Map.of("error", "delta required"));
+            return ResponseEntity.badRequest().body(new ErrorDto("delta required"));
         }
         teamService.adjustSkillForTeam(eventId, teamIndex, delta);
         return ResponseEntity.ok(Map.of("ok", true));
@@ -227,7 +451,6 @@ public class AdminController {
 
 
     // other admin endpoints you can add later:
-    // - promote/demote admin flag
     // - export users CSV
     // - force-generate teams for an event, resend notifications
 }
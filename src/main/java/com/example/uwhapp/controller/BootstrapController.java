@@ -0,0 +1,84 @@
+package com.example.uwhapp.controller;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import com.example.uwhapp.dto.BootstrapDto;
+import com.example.uwhapp.dto.MeDto;
+import com.example.uwhapp.model.Event;
+import com.example.uwhapp.service.AuthPrincipal;
+import com.example.uwhapp.service.AuthService;
+import com.example.uwhapp.service.EventService;
+import com.example.uwhapp.service.EventVersions;
+import com.example.uwhapp.service.RsvpService;
+import com.example.uwhapp.service.TeamService;
+
+/**
+ * Everything the PWA needs for first paint in one round trip: current user, upcoming events
+ * with RSVP counts, the caller's own RSVPs, saved teams for the next event and the VAPID key.
+ * At most four queries (own RSVPs, then teams/members/users for the next event); the user and
+ * the event list come from memory. ETag'd per user and per event/list version.
+ */
+@RestController
+public class BootstrapController {
+
+    private final AuthService authService;
+    private final EventService eventService;
+    private final RsvpService rsvpService;
+    private final TeamService teamService;
+    private final EventVersions eventVersions;
+    private final String vapidPublicKey;
+
+    public BootstrapController(AuthService authService,
+                               EventService eventService,
+                               RsvpService rsvpService,
+                               TeamService teamService,
+                               EventVersions eventVersions,
+                               @Value("${vapid.public.key:}") String vapidPublicKey) {
+        this.authService = authService;
+        this.eventService = eventService;
+        this.rsvpService = rsvpService;
+        this.teamService = teamService;
+        this.eventVersions = eventVersions;
+        this.vapidPublicKey = vapidPublicKey;
+    }
+
+    @GetMapping("/bootstrap")
+    public ResponseEntity<?> bootstrap(@RequestHeader(value = "X-Auth-Token", required = false) String token,
+                                       WebRequest webRequest) {
+        Optional<AuthPrincipal> user = authService.findByToken(token);
+        List<Event> upcoming = eventService.list(null, null, 50, null).events();
+        Long nextEventId = upcoming.isEmpty() ? null : upcoming.get(0).getId();
+
+        String etag = "\"bootstrap-" + user.map(u -> u.id() + "-" + u.admin()).orElse("anon")
+                + "-" + eventVersions.listTag(eventService.upcomingMarker()).replace("\"", "")
+                + (nextEventId == null ? "" : "-" + eventVersions.eventTag("teams", nextEventId).replace("\"", ""))
+                + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        Map<Long, String> myRsvps = user.isEmpty() ? Collections.emptyMap()
+                : rsvpService.statusesForUser(user.get().id(),
+                        upcoming.stream().map(Event::getId).collect(Collectors.toList()));
+        BootstrapDto out = new BootstrapDto(
+                user.map(MeDto::of).orElse(null),
+                upcoming.stream().map(eventService::withRsvpCounts).collect(Collectors.toList()),
+                myRsvps,
+                nextEventId == null ? null
+                        : new BootstrapDto.NextEventTeams(nextEventId, teamService.getSavedTeams(nextEventId)),
+                vapidPublicKey);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(out);
+    }
+}
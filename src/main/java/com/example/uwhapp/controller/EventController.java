@@ -1,31 +1,48 @@
 package com.example.uwhapp.controller;
 
+import java.net.URI;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.example.uwhapp.dto.ErrorDto;
+import com.example.uwhapp.dto.EventDto;
 import com.example.uwhapp.dto.GenerateTeamsRequest;
+import com.example.uwhapp.dto.GenerationJobDto;
+import com.example.uwhapp.dto.MemberDto;
+import com.example.uwhapp.dto.RsvpDto;
 import com.example.uwhapp.dto.RsvpRequest;
+import com.example.uwhapp.dto.TeamDto;
 import com.example.uwhapp.model.Event;
 import com.example.uwhapp.model.Rsvp;
 import com.example.uwhapp.model.User;
-import com.example.uwhapp.repository.EventRepository;
 import com.example.uwhapp.repository.UserRepository;
+import com.example.uwhapp.service.EventService;
+import com.example.uwhapp.service.EventStreamHub;
+import com.example.uwhapp.service.EventVersions;
+import com.example.uwhapp.service.GenerationOptions;
 import com.example.uwhapp.service.RsvpService;
 import com.example.uwhapp.service.ScheduledEventCreator;
+import com.example.uwhapp.service.TeamGenerationJobs;
 import com.example.uwhapp.service.TeamService;
 
 @RestController
@@ -35,26 +52,70 @@ public class EventController {
     private final RsvpService rsvpService;
     private final TeamService teamService;
     private final UserRepository userRepository;
-    private final EventRepository eventRepository;
+    private final EventService eventService;
     private final ScheduledEventCreator scheduledEventCreator;
+    private final EventVersions eventVersions;
+    private final EventStreamHub eventStreamHub;
+    private final TeamGenerationJobs generationJobs;
 
     public EventController(RsvpService rsvpService,
             TeamService teamService,
             UserRepository userRepository,
-            EventRepository eventRepository,
-            ScheduledEventCreator scheduledEventCreator) {
+            EventService eventService,
+            ScheduledEventCreator scheduledEventCreator,
+            EventVersions eventVersions,
+            EventStreamHub eventStreamHub,
+            TeamGenerationJobs generationJobs) {
         this.rsvpService = rsvpService;
         this.teamService = teamService;
         this.userRepository = userRepository;
-        this.eventRepository = eventRepository;
+        this.eventService = eventService;
         this.scheduledEventCreator = scheduledEventCreator;
+        this.eventVersions = eventVersions;
+        this.eventStreamHub = eventStreamHub;
+        this.generationJobs = generationJobs;
     }
 
-    // GET /events  -> list events
+    // GET /events  -> upcoming events, or a window with ?from=&to= (ISO instants)
+    // keyset-paginated on (startTime, id): pass the X-Next-Cursor header back as ?cursor=
     @GetMapping
-    public ResponseEntity<?> listEvents() {
-        List<Event> events = eventRepository.findAll();
-        return ResponseEntity.ok(events);
+    public ResponseEntity<?> listEvents(@RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "limit", defaultValue = "50") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            WebRequest webRequest) {
+        String variant = from + "|" + to + "|" + limit + "|" + cursor;
+        if (from == null && to == null && cursor == null) variant += "|" + eventService.upcomingMarker();
+        String etag = eventVersions.listTag(variant);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        EventService.EventPage page;
+        try {
+            page = eventService.list(
+                    from == null || from.isBlank() ? null : Instant.parse(from),
+                    to == null || to.isBlank() ? null : Instant.parse(to),
+                    Math.max(1, Math.min(limit, 200)),
+                    cursor == null || cursor.isBlank() ? null : cursor);
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException ex) {
+            return ResponseEntity.badRequest().body(new ErrorDto("from/to must be ISO instants and cursor must come from X-Next-Cursor"));
+        }
+        List<EventDto> out = page.events().stream().map(eventService::withRsvpCounts).collect(Collectors.toList());
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        if (page.nextCursor() != null) ok.header("X-Next-Cursor", page.nextCursor());
+        return ok.body(out);
+    }
+
+    // GET /events/{eventId}/summary -> yes/no/maybe counts from the in-memory read model
+    @GetMapping("/{eventId}/summary")
+    public ResponseEntity<?> summary(@PathVariable("eventId") Long eventId) {
+        return ResponseEntity.ok(rsvpService.summary(eventId));
+    }
+
+    // GET /events/{eventId}/stream -> server-sent events: rsvp, rsvps, teams, generation, skills, event, deleted
+    @GetMapping(value = "/{eventId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable("eventId") Long eventId) {
+        return eventStreamHub.subscribe(eventId);
     }
 
     // POST /events/create-recurring -> manual trigger to create Thu/Sun events
@@ -62,13 +123,9 @@ public class EventController {
     public ResponseEntity<?> createRecurringNow() {
         try {
             scheduledEventCreator.createEventNow();
-            Map<String, Object> resp = new HashMap<>();
-            resp.put("status", "created");
-            return ResponseEntity.ok(resp);
+            return ResponseEntity.ok(Map.of("status", "created"));
         } catch (Exception e) {
-            Map<String, Object> err = new HashMap<>();
-            err.put("error", e.getMessage());
-            return ResponseEntity.status(500).body(err);
+            return ResponseEntity.status(500).body(new ErrorDto(e.getMessage()));
         }
     }
 
@@ -97,9 +154,7 @@ public class EventController {
             }
 
             if (title == null) {
-                Map<String, Object> err = new HashMap<>();
-                err.put("error", "title (or name) is required");
-                return ResponseEntity.badRequest().body(err);
+                return ResponseEntity.badRequest().body(new ErrorDto("title (or name) is required"));
             }
 
             Instant startInstant;
@@ -110,9 +165,7 @@ public class EventController {
                 try {
                     startInstant = Instant.parse(startTimeStr);
                 } catch (Exception ex) {
-                    Map<String, Object> err = new HashMap<>();
-                    err.put("error", "startTime must be an ISO instant, e.g. 2026-01-23T18:00:00Z");
-                    return ResponseEntity.badRequest().body(err);
+                    return ResponseEntity.badRequest().body(new ErrorDto("startTime must be an ISO instant, e.g. 2026-01-23T18:00:00Z"));
                 }
             }
 
@@ -134,12 +187,10 @@ public class EventController {
                     /* leave createdBy null */ }
             }
 
-            Event saved = eventRepository.save(e);
-            return ResponseEntity.ok(saved);
+            Event saved = eventService.create(e);
+            return ResponseEntity.ok(eventService.withRsvpCounts(saved));
         } catch (Exception e) {
-            Map<String, Object> err = new HashMap<>();
-            err.put("error", e.getMessage());
-            return ResponseEntity.status(500).body(err);
+            return ResponseEntity.status(500).body(new ErrorDto(e.getMessage()));
         }
     }
 
@@ -152,8 +203,13 @@ public class EventController {
         if (request == null || request.getUserId() == null || request.getStatus() == null) {
             return ResponseEntity.badRequest().body("userId and status are required in body");
         }
-        Rsvp saved = rsvpService.upsert(eventId, request.getUserId(), request.getStatus().toLowerCase());
-        return ResponseEntity.ok(saved);
+        String status = request.getStatus().trim().toLowerCase(Locale.ROOT);
+        // checked before anything is acknowledged: with write-behind on, a bad row would only fail at flush
+        if (!RsvpService.isValidStatus(status)) {
+            return ResponseEntity.badRequest().body(new ErrorDto("status must be yes, no or maybe"));
+        }
+        Rsvp saved = rsvpService.upsert(eventId, request.getUserId(), status);
+        return ResponseEntity.ok(RsvpDto.of(saved));
     }
 
     // POST /events/{eventId}/generate-teams
@@ -162,50 +218,91 @@ public class EventController {
             @PathVariable("eventId") Long eventId,
             @RequestBody GenerateTeamsRequest request) {
         String method = (request != null && request.getMethod() != null) ? request.getMethod().toLowerCase() : "random";
+        if (request != null && request.getTeams() != null && request.getTeams() < 1) {
+            return ResponseEntity.badRequest().body(new ErrorDto("teams must be at least 1"));
+        }
+        GenerationOptions options = request == null ? GenerationOptions.NONE
+                : new GenerationOptions(request.getTogether(), request.getApart(), request.getSeed(),
+                        request.getDraws() == null ? 1 : request.getDraws(), request.getTiers(), request.getTeams(), null);
 
-        List<List<User>> teams = teamService.generateAndSaveTeams(eventId, method);
+        if (request != null && Boolean.TRUE.equals(request.getAsync())) {
+            TeamGenerationJobs.Job job;
+            try {
+                job = generationJobs.submit(eventId, method, options);
+            } catch (RejectedExecutionException ex) {
+                return ResponseEntity.status(503).body(new ErrorDto("team generation is busy, try again shortly"));
+            }
+            return ResponseEntity.accepted()
+                    .location(URI.create("/events/" + eventId + "/generation-jobs/" + job.getId()))
+                    .body(GenerationJobDto.of(job));
+        }
 
-        List<Map<String, Object>> out = new ArrayList<>();
-        for (int i = 0; i < teams.size(); i++) {
-            List<User> members = teams.get(i);
-            List<Map<String, Object>> memberDtos = members.stream().map(u -> {
-                Map<String, Object> m = new HashMap<>();
-                m.put("id", u.getId());
-                m.put("name", u.getName());
-                m.put("skill", u.getSkill());
-                return m;
-            }).collect(Collectors.toList());
+        TeamService.GeneratedTeams generated;
+        try {
+            generated = teamService.generateAndSaveTeams(eventId, method, options);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(new ErrorDto(ex.getMessage()));
+        }
 
-            Map<String, Object> teamMap = new HashMap<>();
-            teamMap.put("teamIndex", i + 1);
-            teamMap.put("members", memberDtos);
-            out.add(teamMap);
+        List<List<User>> teams = generated.teams();
+        List<TeamDto> out = new ArrayList<>(teams.size());
+        for (int i = 0; i < teams.size(); i++) {
+            out.add(new TeamDto(i + 1, teams.get(i).stream().map(MemberDto::of).collect(Collectors.toList()),
+                    generated.seed()));
         }
 
         return ResponseEntity.ok(out);
     }
 
-    // GET /events/{eventId}/attendees  -> returns the User objects for RSVP = "yes"
+    // GET /events/{eventId}/generation-jobs/{jobId}  -> state and progress; teams once DONE
+    @GetMapping("/{eventId}/generation-jobs/{jobId}")
+    public ResponseEntity<?> generationJob(@PathVariable("eventId") Long eventId, @PathVariable("jobId") String jobId) {
+        TeamGenerationJobs.Job job = generationJobs.get(jobId);
+        if (job == null || !job.getEventId().equals(eventId)) {
+            return ResponseEntity.status(404).body(new ErrorDto("no such generation job"));
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(GenerationJobDto.of(job));
+    }
+
+    // POST /events/{eventId}/generation-jobs/{jobId}/cancel
+    @PostMapping("/{eventId}/generation-jobs/{jobId}/cancel")
+    public ResponseEntity<?> cancelGenerationJob(@PathVariable("eventId") Long eventId,
+            @PathVariable("jobId") String jobId) {
+        TeamGenerationJobs.Job job = generationJobs.get(jobId);
+        if (job == null || !job.getEventId().equals(eventId)) {
+            return ResponseEntity.status(404).body(new ErrorDto("no such generation job"));
+        }
+        if (!generationJobs.cancel(jobId)) {
+            return ResponseEntity.status(409).body(new ErrorDto("job already " + job.getState()));
+        }
+        return ResponseEntity.ok(GenerationJobDto.of(job));
+    }
+
+    // GET /events/{eventId}/attendees  -> id/name/skill of everyone with RSVP = "yes"
     @GetMapping("/{eventId}/attendees")
-    public ResponseEntity<?> attendees(@PathVariable("eventId") Long eventId) {
+    public ResponseEntity<?> attendees(@PathVariable("eventId") Long eventId, WebRequest webRequest) {
+        if (webRequest.checkNotModified(eventVersions.eventTag("attendees", eventId))) {
+            return null;
+        }
         List<Rsvp> yes = rsvpService.findYesForEvent(eventId);
         List<Long> ids = yes.stream().map(Rsvp::getUserId).collect(Collectors.toList());
         if (ids.isEmpty()) {
-            return ResponseEntity.ok(Collections.emptyList());
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(Collections.emptyList());
         }
-        List<User> users = userRepository.findAllById(ids);
-        return ResponseEntity.ok(users);
+        List<MemberDto> users = userRepository.findAllById(ids).stream().map(MemberDto::of).collect(Collectors.toList());
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(users);
     }
 
     @GetMapping("/{eventId}/teams")
-    public ResponseEntity<?> getSavedTeams(@PathVariable("eventId") Long eventId) {
+    public ResponseEntity<?> getSavedTeams(@PathVariable("eventId") Long eventId, WebRequest webRequest) {
+        if (webRequest.checkNotModified(eventVersions.eventTag("teams", eventId))) {
+            return null;
+        }
         try {
-            List<Map<String, Object>> teams = teamService.getSavedTeams(eventId);
-            return ResponseEntity.ok(teams);
+            List<TeamDto> teams = teamService.getSavedTeams(eventId);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(teams);
         } catch (Exception e) {
-            Map<String, Object> err = new HashMap<>();
-            err.put("error", e.getMessage());
-            return ResponseEntity.status(500).body(err);
+            return ResponseEntity.status(500).body(new ErrorDto(e.getMessage()));
         }
     }
 
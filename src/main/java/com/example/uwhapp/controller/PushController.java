@@ -5,8 +5,8 @@ import org.springframework.web.bind.annotation.*;
 
 import com.example.uwhapp.dto.PushSubscription;
 import com.example.uwhapp.model.Subscription;
-import com.example.uwhapp.model.User;
 import com.example.uwhapp.repository.SubscriptionRepository;
+import com.example.uwhapp.service.AuthPrincipal;
 import com.example.uwhapp.service.AuthService;
 
 import java.util.Map;
@@ -39,8 +39,8 @@ public class PushController {
                                        @RequestBody PushSubscription sub) {
         Long userId = null;
         if (token != null) {
-            Optional<User> ou = authService.findByToken(token);
-            if (ou.isPresent()) userId = ou.get().getId();
+            Optional<AuthPrincipal> ou = authService.findByToken(token);
+            if (ou.isPresent()) userId = ou.get().id();
         }
 
         // deduplicate by endpoint
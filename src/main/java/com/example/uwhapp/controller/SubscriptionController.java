@@ -12,8 +12,8 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.example.uwhapp.dto.PushSubscription;
 import com.example.uwhapp.model.Subscription;
-import com.example.uwhapp.model.User;
 import com.example.uwhapp.repository.SubscriptionRepository;
+import com.example.uwhapp.service.AuthPrincipal;
 import com.example.uwhapp.service.AuthService;
 
 @RestController
@@ -35,8 +35,8 @@ public class SubscriptionController {
 
         Long userId = null;
         if (token != null) {
-            Optional<User> ou = authService.findByToken(token);
-            if (ou.isPresent()) userId = ou.get().getId();
+            Optional<AuthPrincipal> ou = authService.findByToken(token);
+            if (ou.isPresent()) userId = ou.get().id();
         }
 
         // reuse existing subscription row if endpoint already exists
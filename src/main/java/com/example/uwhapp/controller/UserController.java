@@ -1,6 +1,5 @@
 package com.example.uwhapp.controller;
 
-import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.http.ResponseEntity;
@@ -10,6 +9,10 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.uwhapp.dto.ErrorDto;
+import com.example.uwhapp.dto.LoginResponse;
+import com.example.uwhapp.dto.MeDto;
+import com.example.uwhapp.dto.UserDto;
 import com.example.uwhapp.model.User;
 import com.example.uwhapp.repository.UserRepository;
 import com.example.uwhapp.service.AuthService;
@@ -31,7 +34,7 @@ public class UserController {
         String password = body.get("password");
         if (name == null || username == null || password == null) return ResponseEntity.badRequest().body("name,username,password required");
         User u = authService.register(name, username, password);
-        return ResponseEntity.ok(u);
+        return ResponseEntity.ok(UserDto.of(u));
     }
 
     @PostMapping("/auth/login")
@@ -42,29 +45,17 @@ public class UserController {
         try {
             String token = authService.login(username, password);
             User u = userRepository.findByUsername(username).get();
-            return ResponseEntity.ok(Map.of("token", token, "user", Map.of("id", u.getId(), "name", u.getName(), "username", u.getUsername())));
+            return ResponseEntity.ok(new LoginResponse(token, MeDto.of(u)));
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.status(401).body(ex.getMessage());
         }
     }
 
     @GetMapping("/auth/me")
-public ResponseEntity<Map<String,Object>> me(@RequestHeader(value = "X-Auth-Token", required = false) String token) {
-    return authService.findByToken(token)
-            .map(u -> {
-                Map<String,Object> m = new HashMap<>();
-                m.put("id", u.getId());
-                m.put("name", u.getName());
-                m.put("username", u.getUsername().toLowerCase());
-                m.put("isAdmin", Boolean.TRUE.equals(u.getIsAdmin()));
-                return ResponseEntity.ok(m);
-            })
-            .orElseGet(() -> {
-                Map<String,Object> err = new HashMap<>();
-                err.put("error", "invalid token");
-                return ResponseEntity.status(401).body(err);
-            });
-}
-
+    public ResponseEntity<?> me(@RequestHeader(value = "X-Auth-Token", required = false) String token) {
+        return authService.findByToken(token)
+                .<ResponseEntity<?>>map(u -> ResponseEntity.ok(MeDto.of(u)))
+                .orElseGet(() -> ResponseEntity.status(401).body(new ErrorDto("invalid token")));
+    }
 
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.example.uwhapp.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public record BootstrapDto(MeDto user,
+                           List<EventDto> events,
+                           Map<Long, String> myRsvps,
+                           NextEventTeams nextEventTeams,
+                           String vapidPublicKey) {
+
+    public record NextEventTeams(Long eventId, List<TeamDto> teams) {}
+}
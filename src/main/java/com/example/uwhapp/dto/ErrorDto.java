@@ -0,0 +1,4 @@
+package com.example.uwhapp.dto;
+
+public record ErrorDto(String error) {
+}
@@ -0,0 +1,23 @@
+package com.example.uwhapp.dto;
+
+import java.time.Instant;
+
+import com.example.uwhapp.model.Event;
+
+public record EventDto(Long id,
+                       String title,
+                       String location,
+                       Instant startTime,
+                       Long createdBy,
+                       Instant createdAt,
+                       RsvpCountsDto rsvpCounts) {
+
+    public record RsvpCountsDto(int yes, int no, int maybe) {
+        public static final RsvpCountsDto NONE = new RsvpCountsDto(0, 0, 0);
+    }
+
+    public static EventDto of(Event e, RsvpCountsDto counts) {
+        return new EventDto(e.getId(), e.getTitle(), e.getLocation(), e.getStartTime(),
+                e.getCreatedBy(), e.getCreatedAt(), counts);
+    }
+}
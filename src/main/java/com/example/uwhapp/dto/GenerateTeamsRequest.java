@@ -1,8 +1,22 @@
 package com.example.uwhapp.dto;
 
+import java.util.List;
+
 public class GenerateTeamsRequest {
     private Integer teamSize = 5;
     private String method = "random"; // "random" or "balanced"
+    // hard constraints, as groups of user ids: [[3, 7]] keeps 3 and 7 together / apart
+    private List<List<Long>> together;
+    private List<List<Long>> apart;
+    // reuse a seed from an earlier generation to reproduce it; draws > 1 keeps the best of N random shuffles
+    private Long seed;
+    private Integer draws;
+    // number of teams to make; defaults to uwh.teams.default-count (large-roster-count for big rosters)
+    private Integer teams;
+    // "tiered" only: number of skill tiers (defaults to pairs of teams)
+    private Integer tiers;
+    // true: queue the generation and answer 202 with a job to poll (see TeamGenerationJobs)
+    private Boolean async;
 
     public GenerateTeamsRequest() {}
 
@@ -10,4 +24,18 @@ public class GenerateTeamsRequest {
     public void setTeamSize(Integer teamSize) { this.teamSize = teamSize; }
     public String getMethod() { return method; }
     public void setMethod(String method) { this.method = method; }
+    public List<List<Long>> getTogether() { return together; }
+    public void setTogether(List<List<Long>> together) { this.together = together; }
+    public List<List<Long>> getApart() { return apart; }
+    public void setApart(List<List<Long>> apart) { this.apart = apart; }
+    public Long getSeed() { return seed; }
+    public void setSeed(Long seed) { this.seed = seed; }
+    public Integer getDraws() { return draws; }
+    public void setDraws(Integer draws) { this.draws = draws; }
+    public Integer getTeams() { return teams; }
+    public void setTeams(Integer teams) { this.teams = teams; }
+    public Integer getTiers() { return tiers; }
+    public void setTiers(Integer tiers) { this.tiers = tiers; }
+    public Boolean getAsync() { return async; }
+    public void setAsync(Boolean async) { this.async = async; }
 }
@@ -0,0 +1,18 @@
+package com.example.uwhapp.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.example.uwhapp.service.TeamGenerationJobs;
+
+// teams is set once the job is DONE; bestScore is in the generator's own units (lower is better)
+public record GenerationJobDto(String id, Long eventId, String method, String state, double progress, Long bestScore,
+                              String error, Long seed, Instant submittedAt, Instant startedAt, Instant finishedAt,
+                              List<TeamDto> teams) {
+
+    public static GenerationJobDto of(TeamGenerationJobs.Job j) {
+        return new GenerationJobDto(j.getId(), j.getEventId(), j.getMethod(), j.getState().name(), j.getProgress(),
+                j.getBestScore(), j.getError(), j.getSeed(), j.getSubmittedAt(), j.getStartedAt(), j.getFinishedAt(),
+                j.getResult());
+    }
+}
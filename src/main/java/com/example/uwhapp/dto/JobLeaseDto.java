@@ -0,0 +1,12 @@
+package com.example.uwhapp.dto;
+
+import java.time.Instant;
+
+import com.example.uwhapp.model.JobLease;
+
+public record JobLeaseDto(String name, String owner, Instant expiresAt, Instant acquiredAt) {
+
+    public static JobLeaseDto of(JobLease l) {
+        return new JobLeaseDto(l.getName(), l.getOwner(), l.getExpiresAt(), l.getAcquiredAt());
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.uwhapp.dto;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.example.uwhapp.model.JobLease;
+
+// GET /admin/job-leases: the answering node's id and every scheduled job's lease
+public record JobLeasesDto(String node, List<JobLeaseDto> leases) {
+
+    public static JobLeasesDto of(String node, List<JobLease> leases) {
+        return new JobLeasesDto(node, leases.stream().map(JobLeaseDto::of).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.uwhapp.dto;
+
+public record LoginResponse(String token, MeDto user) {
+}
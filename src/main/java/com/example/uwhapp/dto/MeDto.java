@@ -0,0 +1,23 @@
+package com.example.uwhapp.dto;
+
+import java.util.Locale;
+
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.service.AuthPrincipal;
+
+/** The signed-in user, as returned by /auth/me, /auth/login and /bootstrap. */
+public record MeDto(Long id, String name, String username, boolean isAdmin) {
+
+    public static MeDto of(AuthPrincipal p) {
+        return new MeDto(p.id(), p.name(), lower(p.username()), p.admin());
+    }
+
+    // same shape as the principal, so login and /auth/me agree on the username's case
+    public static MeDto of(User u) {
+        return of(AuthPrincipal.of(u));
+    }
+
+    private static String lower(String username) {
+        return username == null ? null : username.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.uwhapp.dto;
+
+import com.example.uwhapp.model.User;
+
+/** A player as shown on a team sheet or attendee list. */
+public record MemberDto(Long id, String name, Integer skill) {
+
+    public static MemberDto of(User u) {
+        return new MemberDto(u.getId(), u.getName(), u.getSkill());
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.uwhapp.dto;
+
+import java.time.LocalDate;
+
+import com.example.uwhapp.model.RecurrenceRule;
+
+public record RecurrenceRuleDto(Long id, String title, String location, String rrule, String zone,
+                                LocalDate startsOn, boolean active) {
+
+    public static RecurrenceRuleDto of(RecurrenceRule r) {
+        return new RecurrenceRuleDto(r.getId(), r.getTitle(), r.getLocation(), r.getRrule(), r.getZone(),
+                r.getStartsOn(), Boolean.TRUE.equals(r.getActive()));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.uwhapp.dto;
+
+import java.util.List;
+
+import com.example.uwhapp.service.RsvpCounts;
+
+// rows read, RSVPs written (after dropping bad rows and repeated users), the event's counts afterwards
+public record RsvpBatchResultDto(int rows, int applied, RsvpCounts.Summary counts, List<RowError> errors) {
+
+    // row is the array position (JSON) or line number (CSV), counting from 1
+    public record RowError(int row, String error) {}
+}
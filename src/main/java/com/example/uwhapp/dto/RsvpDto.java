@@ -0,0 +1,12 @@
+package com.example.uwhapp.dto;
+
+import java.time.Instant;
+
+import com.example.uwhapp.model.Rsvp;
+
+public record RsvpDto(Long id, Long eventId, Long userId, String status, Instant respondedAt) {
+
+    public static RsvpDto of(Rsvp r) {
+        return new RsvpDto(r.getId(), r.getEventId(), r.getUserId(), r.getStatus(), r.getRespondedAt());
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.uwhapp.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.example.uwhapp.model.ScheduleException;
+
+public record ScheduleExceptionDto(Long id, Long ruleId, LocalDate onDate, LocalTime newStartTime,
+                                   String newLocation, String reason, boolean cancels) {
+
+    public static ScheduleExceptionDto of(ScheduleException e) {
+        return new ScheduleExceptionDto(e.getId(), e.getRuleId(), e.getOnDate(), e.getNewStartTime(),
+                e.getNewLocation(), e.getReason(), e.cancels());
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.uwhapp.dto;
+
+import com.example.uwhapp.model.User;
+
+/** Admin view of a user; never carries the password hash or session token. */
+public record UserDto(Long id, String name, String username, Integer skill, boolean isAdmin,
+                      String position, Integer experience, String gender) {
+
+    public static UserDto of(User u) {
+        return new UserDto(u.getId(), u.getName(), u.getUsername(), u.getSkill(), Boolean.TRUE.equals(u.getIsAdmin()),
+                u.getPosition(), u.getExperience(), u.getGender());
+    }
+}
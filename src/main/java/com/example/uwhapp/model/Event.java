@@ -1,10 +1,19 @@
 package com.example.uwhapp.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.persistence.*;
 import java.time.Instant;
+import java.time.LocalDate;
 
 @Entity
-@Table(name = "events")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "events")
+@Table(name = "events",
+        indexes = @Index(name = "idx_events_start_id", columnList = "start_time, id"),
+        uniqueConstraints = @UniqueConstraint(name = "uq_events_rule_occurrence",
+                columnNames = {"recurrence_rule_id", "occurrence_date"}))
 public class Event {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -13,6 +22,11 @@ public class Event {
     private Instant startTime;
     private Long createdBy;
     private Instant createdAt = Instant.now();
+    // set on events materialised from a RecurrenceRule: the rule and the local date it fell on
+    @Column(name = "recurrence_rule_id")
+    private Long recurrenceRuleId;
+    @Column(name = "occurrence_date")
+    private LocalDate occurrenceDate;
 
     public Event() {}
 
@@ -29,4 +43,8 @@ public class Event {
     public void setCreatedBy(Long createdBy) { this.createdBy = createdBy; }
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Long getRecurrenceRuleId() { return recurrenceRuleId; }
+    public void setRecurrenceRuleId(Long recurrenceRuleId) { this.recurrenceRuleId = recurrenceRuleId; }
+    public LocalDate getOccurrenceDate() { return occurrenceDate; }
+    public void setOccurrenceDate(LocalDate occurrenceDate) { this.occurrenceDate = occurrenceDate; }
 }
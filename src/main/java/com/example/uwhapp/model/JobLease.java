@@ -0,0 +1,32 @@
+package com.example.uwhapp.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Cluster-wide lease on a scheduled job. Whichever node claims the row runs the job; the
+ * others skip it until the lease expires, which also hands it over if the holder dies.
+ * Rows are only written through JobLeaseRepository.tryClaim.
+ */
+@Entity
+@Table(name = "job_leases")
+public class JobLease {
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    private String owner;
+
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+
+    @Column(name = "acquired_at")
+    private Instant acquiredAt;
+
+    public JobLease() {}
+
+    public String getName() { return name; }
+    public String getOwner() { return owner; }
+    public Instant getExpiresAt() { return expiresAt; }
+    public Instant getAcquiredAt() { return acquiredAt; }
+}
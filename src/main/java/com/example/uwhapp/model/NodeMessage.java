@@ -0,0 +1,48 @@
+package com.example.uwhapp.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * One change another node has to mirror in its in-memory state (RSVP counts, ETag versions,
+ * event-stream deltas). Written in batches and read in id order by NodeFanout; rows are
+ * pruned after a few minutes.
+ */
+@Entity
+@Table(name = "node_messages")
+public class NodeMessage {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // JobLeases node id of the sender
+    private String origin;
+
+    @Column(name = "event_id")
+    private Long eventId;
+
+    private String kind;
+
+    // JSON object
+    @Column(columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "created_at")
+    private Instant createdAt = Instant.now();
+
+    public NodeMessage() {}
+
+    public NodeMessage(String origin, Long eventId, String kind, String payload) {
+        this.origin = origin;
+        this.eventId = eventId;
+        this.kind = kind;
+        this.payload = payload;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getOrigin() { return origin; }
+    public Long getEventId() { return eventId; }
+    public String getKind() { return kind; }
+    public String getPayload() { return payload; }
+    public Instant getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,51 @@
+package com.example.uwhapp.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A recurring session, e.g. every Thursday at 19:30 at the local pool. {@code rrule} is an
+ * iCalendar RRULE subset (see service.RRule); times are wall-clock in {@code zone}, so a
+ * 19:30 session stays at 19:30 across daylight-saving changes.
+ */
+@Entity
+@Table(name = "recurrence_rules")
+public class RecurrenceRule {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String title;
+    private String location;
+    private String rrule;
+    private String zone = "Pacific/Auckland";
+    // first date the rule may produce an occurrence on
+    @Column(name = "starts_on")
+    private LocalDate startsOn;
+    private Boolean active = true;
+    private Instant createdAt = Instant.now();
+
+    public RecurrenceRule() {}
+
+    public RecurrenceRule(String title, String location, String rrule, LocalDate startsOn) {
+        this.title = title;
+        this.location = location;
+        this.rrule = rrule;
+        this.startsOn = startsOn;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+    public String getRrule() { return rrule; }
+    public void setRrule(String rrule) { this.rrule = rrule; }
+    public String getZone() { return zone; }
+    public void setZone(String zone) { this.zone = zone; }
+    public LocalDate getStartsOn() { return startsOn; }
+    public void setStartsOn(LocalDate startsOn) { this.startsOn = startsOn; }
+    public Boolean getActive() { return active; }
+    public void setActive(Boolean active) { this.active = active; }
+    public Instant getCreatedAt() { return createdAt; }
+}
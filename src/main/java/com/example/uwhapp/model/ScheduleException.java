@@ -0,0 +1,45 @@
+package com.example.uwhapp.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A change to what the recurrence rules would produce on one date. With no rule it is a
+ * holiday and cancels every rule's occurrence that day. With neither a new time nor a new
+ * location it cancels the occurrence; otherwise the occurrence is moved or relocated.
+ */
+@Entity
+@Table(name = "schedule_exceptions", indexes = @Index(name = "idx_schedule_exceptions_date", columnList = "on_date"))
+public class ScheduleException {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    // null = applies to every rule
+    @Column(name = "rule_id")
+    private Long ruleId;
+    @Column(name = "on_date")
+    private LocalDate onDate;
+    @Column(name = "new_start_time")
+    private LocalTime newStartTime;
+    @Column(name = "new_location")
+    private String newLocation;
+    private String reason;
+
+    public ScheduleException() {}
+
+    public Long getId() { return id; }
+    public Long getRuleId() { return ruleId; }
+    public void setRuleId(Long ruleId) { this.ruleId = ruleId; }
+    public LocalDate getOnDate() { return onDate; }
+    public void setOnDate(LocalDate onDate) { this.onDate = onDate; }
+    public LocalTime getNewStartTime() { return newStartTime; }
+    public void setNewStartTime(LocalTime newStartTime) { this.newStartTime = newStartTime; }
+    public String getNewLocation() { return newLocation; }
+    public void setNewLocation(String newLocation) { this.newLocation = newLocation; }
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public boolean cancels() {
+        return newStartTime == null && (newLocation == null || newLocation.isBlank());
+    }
+}
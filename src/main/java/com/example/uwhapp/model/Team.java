@@ -16,6 +16,10 @@ public class Team {
 
     private Instant createdAt = Instant.now();
 
+    // seed of the generation that produced this team, and the draws for best-of-N random
+    private Long seed;
+    private Integer draws;
+
     public Team() {}
 
     public Team(Long eventId, Integer teamIndex) {
@@ -32,4 +36,8 @@ public class Team {
     public void setTeamIndex(Integer teamIndex) { this.teamIndex = teamIndex; }
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+    public Long getSeed() { return seed; }
+    public void setSeed(Long seed) { this.seed = seed; }
+    public Integer getDraws() { return draws; }
+    public void setDraws(Integer draws) { this.draws = draws; }
 }
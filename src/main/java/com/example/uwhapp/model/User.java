@@ -2,15 +2,22 @@ package com.example.uwhapp.model;
 
 import java.time.Instant;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_token", columnList = "token"))
 public class User {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -23,6 +30,13 @@ public class User {
     private Instant createdAt = Instant.now();
     @Column(name = "is_admin")
     private Boolean isAdmin = false;
+    // bumped to revoke every signed session token issued to this user
+    @Column(name = "token_version")
+    private Integer tokenVersion = 0;
+    // balancing attributes for the "multi-balanced" generator; all optional
+    private String position;      // "forward" or "back"
+    private Integer experience;   // years playing
+    private String gender;
 
     public User() {}
 
@@ -51,4 +65,12 @@ public class User {
     public void setPasswordHash(String passwordHash) { this.passwordHash = passwordHash; }
     public String getToken() { return token; }
     public void setToken(String token) { this.token = token; }
+    public Integer getTokenVersion() { return tokenVersion; }
+    public void setTokenVersion(Integer tokenVersion) { this.tokenVersion = tokenVersion; }
+    public String getPosition() { return position; }
+    public void setPosition(String position) { this.position = position; }
+    public Integer getExperience() { return experience; }
+    public void setExperience(Integer experience) { this.experience = experience; }
+    public String getGender() { return gender; }
+    public void setGender(String gender) { this.gender = gender; }
 }
@@ -1,11 +1,43 @@
 package com.example.uwhapp.repository;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.example.uwhapp.model.Event;
 
-public interface EventRepository extends JpaRepository<Event, Long> {
+import jakarta.persistence.QueryHint;
+
+public interface EventRepository extends JpaRepository<Event, Long>, EventRepositoryCustom {
     boolean existsByTitleAndStartTime(String title, Instant startTime);
+
+    // polled every minute by the push sender; served from the query cache until the events table changes
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Event> findAll();
+
+    // events that could already stand for an occurrence in the horizon: anything starting in it
+    // (legacy cron-created events carry no rule) or materialised for a date in it, even if moved
+    @Query("select e from Event e where (e.startTime >= :from and e.startTime < :to)"
+            + " or (e.occurrenceDate >= :fromDate and e.occurrenceDate <= :toDate)")
+    List<Event> findInHorizon(@Param("from") Instant from, @Param("to") Instant to,
+                              @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    // keyset page: events strictly after (afterTime, afterId) and before "to", ordered by (startTime, id)
+    @Query("select e from Event e where (e.startTime > :afterTime or (e.startTime = :afterTime and e.id > :afterId))"
+            + " and e.startTime < :to order by e.startTime, e.id")
+    List<Event> findPageAfter(@Param("afterTime") Instant afterTime, @Param("afterId") Long afterId,
+                              @Param("to") Instant to, Pageable page);
+
+    // those of the given events that started before "before" (RsvpCounts settles their counts)
+    @Query("select e.id from Event e where e.id in :ids and e.startTime < :before")
+    List<Long> findIdsStartedBefore(@Param("ids") Collection<Long> ids, @Param("before") Instant before);
 }
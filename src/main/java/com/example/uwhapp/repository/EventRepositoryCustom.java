@@ -0,0 +1,14 @@
+package com.example.uwhapp.repository;
+
+import java.util.List;
+
+import com.example.uwhapp.model.Event;
+
+public interface EventRepositoryCustom {
+    // inserts new events as one JDBC batch; ids are not read back, and an occurrence that
+    // already exists for its (rule, date) is left alone
+    void insertAll(List<Event> events);
+
+    // blocks until no other transaction is writing this event's teams; held until commit
+    void lockTeams(Long eventId);
+}
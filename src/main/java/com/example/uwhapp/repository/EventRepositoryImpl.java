@@ -0,0 +1,107 @@
+package com.example.uwhapp.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.uwhapp.model.Event;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Batch insert for materialised recurring events. One statement per batch instead of one
+ * persist (and identity round trip) per event. Plain JDBC, like the RSVP batch upsert, so
+ * callers must evict the query cache afterwards; the entity region is unaffected since the
+ * rows are new.
+ *
+ * Also the per-event lock that serialises team writes: a transaction-scoped advisory lock
+ * on Postgres (no row is touched, so RSVP and event updates are not blocked), and a row
+ * lock on the event elsewhere.
+ */
+public class EventRepositoryImpl implements EventRepositoryCustom {
+
+    private static final String INSERT =
+            "INSERT INTO events (title, location, start_time, created_by, created_at, recurrence_rule_id, occurrence_date) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String POSTGRES_INSERT =
+            INSERT + " ON CONFLICT (recurrence_rule_id, occurrence_date) DO NOTHING";
+
+    // H2 has no ON CONFLICT; a MERGE ... USING with only a NOT MATCHED branch skips the same rows
+    // (MERGE ... KEY would overwrite them, undoing a moved occurrence)
+    private static final String H2_INSERT =
+            "MERGE INTO events t USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), "
+            + "CAST(? AS TIMESTAMP WITH TIME ZONE), CAST(? AS BIGINT), CAST(? AS TIMESTAMP WITH TIME ZONE), "
+            + "CAST(? AS BIGINT), CAST(? AS DATE))) "
+            + "s(title, location, start_time, created_by, created_at, recurrence_rule_id, occurrence_date) "
+            + "ON t.recurrence_rule_id = s.recurrence_rule_id AND t.occurrence_date = s.occurrence_date "
+            + "WHEN NOT MATCHED THEN INSERT (title, location, start_time, created_by, created_at, "
+            + "recurrence_rule_id, occurrence_date) VALUES (s.title, s.location, s.start_time, s.created_by, "
+            + "s.created_at, s.recurrence_rule_id, s.occurrence_date)";
+
+    // first key of the two-key advisory lock, so event ids cannot collide with other lock users
+    private static final int TEAM_LOCK_SPACE = 0x7465616d; // "team"
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private volatile Boolean postgres;
+
+    @Override
+    @Transactional
+    public void insertAll(List<Event> events) {
+        if (events.isEmpty()) return;
+        String sql = isPostgres() ? POSTGRES_INSERT : H2_INSERT;
+        em.unwrap(Session.class).doWork(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (Event e : events) {
+                    ps.setString(1, e.getTitle());
+                    ps.setString(2, e.getLocation());
+                    ps.setObject(3, e.getStartTime().atOffset(ZoneOffset.UTC));
+                    if (e.getCreatedBy() == null) ps.setNull(4, Types.BIGINT);
+                    else ps.setLong(4, e.getCreatedBy());
+                    ps.setObject(5, e.getCreatedAt().atOffset(ZoneOffset.UTC));
+                    if (e.getRecurrenceRuleId() == null) ps.setNull(6, Types.BIGINT);
+                    else ps.setLong(6, e.getRecurrenceRuleId());
+                    ps.setObject(7, e.getOccurrenceDate());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public void lockTeams(Long eventId) {
+        String sql = isPostgres() ? "SELECT pg_advisory_xact_lock(?, ?)" : "SELECT id FROM events WHERE id = ? FOR UPDATE";
+        em.unwrap(Session.class).doWork(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                if (isPostgres()) {
+                    ps.setInt(1, TEAM_LOCK_SPACE);
+                    ps.setInt(2, (int) (eventId ^ (eventId >>> 32)));
+                } else {
+                    ps.setLong(1, eventId);
+                }
+                ps.executeQuery().close();
+            }
+        });
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            Dialect dialect = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect();
+            postgres = dialect instanceof PostgreSQLDialect;
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.uwhapp.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.uwhapp.model.JobLease;
+
+public interface JobLeaseRepository extends JpaRepository<JobLease, String>, JobLeaseRepositoryCustom {
+}
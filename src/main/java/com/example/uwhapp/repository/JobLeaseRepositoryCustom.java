@@ -0,0 +1,8 @@
+package com.example.uwhapp.repository;
+
+import java.time.Instant;
+
+public interface JobLeaseRepositoryCustom {
+    // insert the lease, or take it over if it has expired (or we already hold it); true if we now hold it
+    boolean tryClaim(String name, String owner, Instant now, Instant expiresAt);
+}
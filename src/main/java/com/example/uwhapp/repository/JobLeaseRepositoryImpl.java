@@ -0,0 +1,74 @@
+package com.example.uwhapp.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Lease claim as one conditional upsert, so two nodes firing the same cron cannot both win:
+ * the row is inserted if absent, or overwritten only when expired or already ours. The
+ * update count says whether we got it. Plain JDBC, like the RSVP batch upsert, so Hibernate
+ * does not treat it as a bulk statement and flush the second-level cache.
+ */
+public class JobLeaseRepositoryImpl implements JobLeaseRepositoryCustom {
+
+    private static final String POSTGRES_CLAIM =
+            "INSERT INTO job_leases (name, owner, expires_at, acquired_at) VALUES (?, ?, ?, ?) "
+            + "ON CONFLICT (name) DO UPDATE SET owner = EXCLUDED.owner, expires_at = EXCLUDED.expires_at, "
+            + "acquired_at = EXCLUDED.acquired_at "
+            + "WHERE job_leases.expires_at <= ? OR job_leases.owner = EXCLUDED.owner";
+
+    // H2 has no ON CONFLICT ... WHERE; a conditional MERGE ... USING does the same
+    private static final String H2_CLAIM =
+            "MERGE INTO job_leases t USING (VALUES (CAST(? AS VARCHAR(100)), CAST(? AS VARCHAR(255)), "
+            + "CAST(? AS TIMESTAMP WITH TIME ZONE), CAST(? AS TIMESTAMP WITH TIME ZONE))) "
+            + "s(name, owner, expires_at, acquired_at) ON t.name = s.name "
+            + "WHEN MATCHED AND (t.expires_at <= ? OR t.owner = s.owner) THEN "
+            + "UPDATE SET owner = s.owner, expires_at = s.expires_at, acquired_at = s.acquired_at "
+            + "WHEN NOT MATCHED THEN INSERT (name, owner, expires_at, acquired_at) "
+            + "VALUES (s.name, s.owner, s.expires_at, s.acquired_at)";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private volatile Boolean postgres;
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean tryClaim(String name, String owner, Instant now, Instant expiresAt) {
+        String sql = isPostgres() ? POSTGRES_CLAIM : H2_CLAIM;
+        return em.unwrap(Session.class).doReturningWork(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, name);
+                ps.setString(2, owner);
+                ps.setObject(3, expiresAt.atOffset(ZoneOffset.UTC));
+                ps.setObject(4, now.atOffset(ZoneOffset.UTC));
+                ps.setObject(5, now.atOffset(ZoneOffset.UTC));
+                return ps.executeUpdate() == 1;
+            } catch (SQLIntegrityConstraintViolationException raced) {
+                // H2: another node inserted the first row between our MERGE's lookup and insert
+                return false;
+            }
+        });
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            Dialect dialect = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect();
+            postgres = dialect instanceof PostgreSQLDialect;
+        }
+        return postgres;
+    }
+}
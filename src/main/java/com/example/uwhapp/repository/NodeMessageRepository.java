@@ -0,0 +1,15 @@
+package com.example.uwhapp.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import com.example.uwhapp.model.NodeMessage;
+
+public interface NodeMessageRepository extends JpaRepository<NodeMessage, Long>, NodeMessageRepositoryCustom {
+    List<NodeMessage> findTop500ByIdGreaterThanOrderByIdAsc(Long id);
+
+    @Query("select coalesce(max(m.id), 0) from NodeMessage m")
+    Long maxId();
+}
@@ -0,0 +1,13 @@
+package com.example.uwhapp.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.example.uwhapp.model.NodeMessage;
+
+public interface NodeMessageRepositoryCustom {
+    // one JDBC batch insert; ids are not read back
+    void insertAll(List<NodeMessage> messages);
+
+    int deleteOlderThan(Instant cutoff);
+}
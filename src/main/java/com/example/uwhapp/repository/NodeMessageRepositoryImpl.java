@@ -0,0 +1,63 @@
+package com.example.uwhapp.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.uwhapp.model.NodeMessage;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Plain JDBC for the node message writes, like the RSVP batch upsert: a batch of rows in one
+ * round trip, and no native or bulk statement for Hibernate to answer by evicting the
+ * second-level cache.
+ */
+public class NodeMessageRepositoryImpl implements NodeMessageRepositoryCustom {
+
+    private static final String INSERT =
+            "INSERT INTO node_messages (origin, event_id, kind, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String DELETE_OLDER = "DELETE FROM node_messages WHERE created_at < ?";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void insertAll(List<NodeMessage> messages) {
+        if (messages.isEmpty()) return;
+        em.unwrap(Session.class).doWork(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(INSERT)) {
+                for (NodeMessage m : messages) {
+                    ps.setString(1, m.getOrigin());
+                    if (m.getEventId() == null) ps.setNull(2, Types.BIGINT);
+                    else ps.setLong(2, m.getEventId());
+                    ps.setString(3, m.getKind());
+                    ps.setString(4, m.getPayload());
+                    ps.setObject(5, m.getCreatedAt().atOffset(ZoneOffset.UTC));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public int deleteOlderThan(Instant cutoff) {
+        return em.unwrap(Session.class).doReturningWork(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(DELETE_OLDER)) {
+                ps.setObject(1, cutoff.atOffset(ZoneOffset.UTC));
+                return ps.executeUpdate();
+            }
+        });
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.uwhapp.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.uwhapp.model.RecurrenceRule;
+
+public interface RecurrenceRuleRepository extends JpaRepository<RecurrenceRule, Long> {
+    List<RecurrenceRule> findByActiveTrue();
+}
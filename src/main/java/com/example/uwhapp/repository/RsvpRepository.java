@@ -1,16 +1,33 @@
 package com.example.uwhapp.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.uwhapp.model.Rsvp;
 
-public interface RsvpRepository extends JpaRepository<Rsvp, Long> {
+public interface RsvpRepository extends JpaRepository<Rsvp, Long>, RsvpRepositoryCustom {
     List<Rsvp> findByEventIdAndStatus(Long eventId, String status);
     Optional<Rsvp> findByEventIdAndUserId(Long eventId, Long userId);
     List<Rsvp> findByUserId(Long userId);
     List<Rsvp> findByEventId(Long eventId);
+    List<Rsvp> findByUserIdAndEventIdIn(Long userId, Collection<Long> eventIds);
+
+    // (eventId, userId, status) for events starting at or after "since": RsvpCounts keeps each
+    // user's status for these
+    @Query("select r.eventId, r.userId, r.status from Rsvp r"
+            + " where r.eventId in (select e.id from Event e where e.startTime >= :since)")
+    List<Object[]> findStatusesForEventsSince(@Param("since") Instant since);
+
+    // (eventId, status, count) for events starting before "before": RsvpCounts keeps only the totals
+    @Query("select r.eventId, r.status, count(r) from Rsvp r"
+            + " where r.eventId in (select e.id from Event e where e.startTime < :before)"
+            + " group by r.eventId, r.status")
+    List<Object[]> countStatusesForEventsBefore(@Param("before") Instant before);
 
 }
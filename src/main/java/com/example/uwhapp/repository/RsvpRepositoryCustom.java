@@ -0,0 +1,14 @@
+package com.example.uwhapp.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.example.uwhapp.model.Rsvp;
+
+public interface RsvpRepositoryCustom {
+    // insert-or-update on (event_id, user_id) in one statement, returning the stored row
+    Rsvp upsert(Long eventId, Long userId, String status, Instant respondedAt);
+
+    // same upsert for many rows as one JDBC batch; rows are not read back
+    void upsertAll(List<Rsvp> rsvps);
+}
@@ -0,0 +1,90 @@
+package com.example.uwhapp.repository;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.uwhapp.model.Rsvp;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Native single-statement RSVP upsert. Two concurrent RSVPs for the same (event, user)
+ * can no longer race a find-then-save into the unique constraint: the database resolves
+ * the conflict and the last writer wins.
+ */
+public class RsvpRepositoryImpl implements RsvpRepositoryCustom {
+
+    private static final String POSTGRES_UPSERT =
+            "INSERT INTO rsvps (event_id, user_id, status, responded_at) VALUES (:eventId, :userId, :status, :respondedAt) "
+            + "ON CONFLICT (event_id, user_id) DO UPDATE SET status = EXCLUDED.status, responded_at = EXCLUDED.responded_at "
+            + "RETURNING *";
+
+    // H2 has no ON CONFLICT; MERGE ... KEY is its equivalent, wrapped in FINAL TABLE to get the row back
+    private static final String H2_UPSERT =
+            "SELECT * FROM FINAL TABLE (MERGE INTO rsvps (event_id, user_id, status, responded_at) KEY (event_id, user_id) "
+            + "VALUES (:eventId, :userId, :status, :respondedAt))";
+
+    private static final String POSTGRES_BATCH_UPSERT =
+            "INSERT INTO rsvps (event_id, user_id, status, responded_at) VALUES (?, ?, ?, ?) "
+            + "ON CONFLICT (event_id, user_id) DO UPDATE SET status = EXCLUDED.status, responded_at = EXCLUDED.responded_at";
+
+    private static final String H2_BATCH_UPSERT =
+            "MERGE INTO rsvps (event_id, user_id, status, responded_at) KEY (event_id, user_id) VALUES (?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private volatile Boolean postgres;
+
+    @Override
+    @Transactional
+    public Rsvp upsert(Long eventId, Long userId, String status, Instant respondedAt) {
+        return (Rsvp) em.createNativeQuery(upsertSql(), Rsvp.class)
+                .setParameter("eventId", eventId)
+                .setParameter("userId", userId)
+                .setParameter("status", status)
+                .setParameter("respondedAt", respondedAt)
+                .getSingleResult();
+    }
+
+    @Override
+    @Transactional
+    public void upsertAll(List<Rsvp> rsvps) {
+        if (rsvps.isEmpty()) return;
+        String sql = isPostgres() ? POSTGRES_BATCH_UPSERT : H2_BATCH_UPSERT;
+        em.unwrap(Session.class).doWork(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (Rsvp r : rsvps) {
+                    ps.setLong(1, r.getEventId());
+                    ps.setLong(2, r.getUserId());
+                    ps.setString(3, r.getStatus());
+                    ps.setObject(4, r.getRespondedAt().atOffset(ZoneOffset.UTC));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+
+    private String upsertSql() {
+        return isPostgres() ? POSTGRES_UPSERT : H2_UPSERT;
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            Dialect dialect = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect();
+            postgres = dialect instanceof PostgreSQLDialect;
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.uwhapp.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.uwhapp.model.ScheduleException;
+
+public interface ScheduleExceptionRepository extends JpaRepository<ScheduleException, Long> {
+    List<ScheduleException> findByOnDateBetween(LocalDate from, LocalDate to);
+}
@@ -2,10 +2,22 @@ package com.example.uwhapp.repository;
 
 import com.example.uwhapp.model.TeamMember;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface TeamMemberRepository extends JpaRepository<TeamMember, Long> {
     List<TeamMember> findByTeamId(Long teamId);
     List<TeamMember> findByTeamIdIn(List<Long> teamIds);
+
+    // one DELETE for every member of these teams
+    @Modifying
+    @Query("delete from TeamMember tm where tm.teamId in :teamIds")
+    int deleteByTeamIds(@Param("teamIds") List<Long> teamIds);
+
+    // (teamId, userId) for every saved team member; used to rebuild TeammateHistory on boot
+    @Query("select tm.teamId, tm.userId from TeamMember tm")
+    List<Object[]> findAllTeamUserIds();
 }
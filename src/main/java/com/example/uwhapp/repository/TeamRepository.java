@@ -2,9 +2,17 @@ package com.example.uwhapp.repository;
 
 import com.example.uwhapp.model.Team;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
-public interface TeamRepository extends JpaRepository<Team, Long> {
+public interface TeamRepository extends JpaRepository<Team, Long>, TeamRepositoryCustom {
     List<Team> findByEventIdOrderByTeamIndex(Long eventId);
+
+    // one DELETE for all of the event's teams (members go first, see TeamMemberRepository)
+    @Modifying
+    @Query("delete from Team t where t.eventId = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
 }
@@ -0,0 +1,8 @@
+package com.example.uwhapp.repository;
+
+import java.util.List;
+
+public interface TeamRepositoryCustom {
+    // inserts an event's teams (index 1..n, in list order) and their members as two JDBC batches
+    void insertAll(Long eventId, Long seed, Integer draws, List<List<Long>> memberIds);
+}
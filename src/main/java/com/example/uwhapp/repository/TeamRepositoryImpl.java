@@ -0,0 +1,76 @@
+package com.example.uwhapp.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Batch insert for generated teams. Identity ids rule out Hibernate's own insert batching, so
+ * a roster of any size is written as one batch of teams, one read of their new ids and one
+ * batch of team_members, instead of a statement per member. Plain JDBC, like the RSVP batch
+ * upsert: the rows are not in the persistence context afterwards.
+ */
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private static final String INSERT_TEAM =
+            "INSERT INTO teams (event_id, team_index, created_at, seed, draws) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SELECT_IDS = "SELECT id, team_index FROM teams WHERE event_id = ?";
+
+    private static final String INSERT_MEMBER = "INSERT INTO team_members (team_id, user_id) VALUES (?, ?)";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    @Transactional
+    public void insertAll(Long eventId, Long seed, Integer draws, List<List<Long>> memberIds) {
+        if (memberIds.isEmpty()) return;
+        Instant now = Instant.now();
+        em.unwrap(Session.class).doWork(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_TEAM)) {
+                for (int i = 0; i < memberIds.size(); i++) {
+                    ps.setLong(1, eventId);
+                    ps.setInt(2, i + 1);
+                    ps.setObject(3, now.atOffset(ZoneOffset.UTC));
+                    if (seed == null) ps.setNull(4, Types.BIGINT);
+                    else ps.setLong(4, seed);
+                    if (draws == null) ps.setNull(5, Types.INTEGER);
+                    else ps.setInt(5, draws);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            // the caller holds the event's team lock and removed its old teams, so these are the new ones
+            Map<Integer, Long> idByIndex = new HashMap<>();
+            try (PreparedStatement ps = conn.prepareStatement(SELECT_IDS)) {
+                ps.setLong(1, eventId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) idByIndex.put(rs.getInt(2), rs.getLong(1));
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_MEMBER)) {
+                for (int i = 0; i < memberIds.size(); i++) {
+                    long teamId = idByIndex.get(i + 1);
+                    for (Long userId : memberIds.get(i)) {
+                        ps.setLong(1, teamId);
+                        ps.setLong(2, userId);
+                        ps.addBatch();
+                    }
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+}
@@ -1,12 +1,32 @@
 package com.example.uwhapp.repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.example.uwhapp.model.User;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+import jakarta.persistence.QueryHint;
+
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
+
     Optional<User> findByToken(String token);
+
+    // scalar read straight from the table: never answered from the users L2 region (or the
+    // persistence context), so a revocation made through another node is seen at once
+    @Query("select coalesce(u.tokenVersion, 0) from User u where u.id = :id")
+    Optional<Integer> findTokenVersion(@Param("id") Long id);
+
+    // one UPDATE for the whole team; Hibernate evicts the cached users region for bulk statements
+    @Modifying
+    @Query("update User u set u.skill = coalesce(u.skill, 0) + :delta where u.id in :ids")
+    int adjustSkill(@Param("ids") Collection<Long> ids, @Param("delta") int delta);
 }
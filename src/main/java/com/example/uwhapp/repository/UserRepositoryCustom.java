@@ -0,0 +1,10 @@
+package com.example.uwhapp.repository;
+
+import java.util.List;
+
+import com.example.uwhapp.model.User;
+
+public interface UserRepositoryCustom {
+    // replaces the derived "where id in (...)" query so cached users are served from the second-level cache
+    List<User> findAllById(Iterable<Long> ids);
+}
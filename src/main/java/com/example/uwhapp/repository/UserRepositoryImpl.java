@@ -0,0 +1,43 @@
+package com.example.uwhapp.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+
+import com.example.uwhapp.model.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Roster loads go through Hibernate's multi-load, which checks the persistence context and
+ * the second-level cache before issuing a single IN query for whatever is left. With a warm
+ * cache, rendering attendees or generating teams reads no user rows at all.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<User> findAllById(Iterable<Long> ids) {
+        List<Long> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        if (idList.isEmpty()) return new ArrayList<>();
+        List<User> loaded = em.unwrap(Session.class)
+                .byMultipleIds(User.class)
+                // cache checks are off unless a cache mode is set explicitly
+                .with(CacheMode.NORMAL)
+                .enableSessionCheck(true)
+                .multiLoad(idList);
+        // multiLoad keeps a null slot for ids that no longer exist; findAllById just omits them
+        List<User> out = new ArrayList<>(loaded.size());
+        for (User u : loaded) {
+            if (u != null) out.add(u);
+        }
+        return out;
+    }
+}
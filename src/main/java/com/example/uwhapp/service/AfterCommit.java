@@ -0,0 +1,36 @@
+package com.example.uwhapp.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs a side effect once the surrounding transaction commits, or immediately when there is
+ * none. Used for in-memory notifications (versions, stream deltas) that must not run ahead
+ * of the data they describe.
+ */
+final class AfterCommit {
+
+    // set while this thread runs afterCommit callbacks: the transaction is committed, but its
+    // synchronizations are still active and one registered now would never be called
+    private static final ThreadLocal<Boolean> COMMITTED = new ThreadLocal<>();
+
+    private AfterCommit() {}
+
+    static void run(Runnable r) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || COMMITTED.get() != null) {
+            r.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                COMMITTED.set(Boolean.TRUE);
+                try {
+                    r.run();
+                } finally {
+                    COMMITTED.remove();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.uwhapp.service;
+
+import com.example.uwhapp.model.User;
+
+/**
+ * Immutable view of an authenticated user, cached per token by AuthService.
+ */
+public record AuthPrincipal(Long id, String name, String username, boolean admin) {
+
+    public static AuthPrincipal of(User u) {
+        return new AuthPrincipal(u.getId(), u.getName(), u.getUsername(), Boolean.TRUE.equals(u.getIsAdmin()));
+    }
+}
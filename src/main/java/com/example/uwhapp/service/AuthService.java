@@ -2,10 +2,17 @@ package com.example.uwhapp.service;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.uwhapp.model.User;
 import com.example.uwhapp.repository.UserRepository;
@@ -13,9 +20,50 @@ import com.example.uwhapp.repository.UserRepository;
 @Service
 public class AuthService {
     private final UserRepository userRepo;
+    private final SessionTokens sessionTokens;
+    private final NodeFanout fanout;
+    // end of the rollover: legacy UUID tokens are refused from then on (null: still accepted)
+    private final Instant legacyTokensUntil;
 
-    public AuthService(UserRepository userRepo) {
+    // token -> principal; bounded and TTL'd so a revoked token can't live forever in memory
+    private final Map<String, CachedPrincipal> tokenCache = new ConcurrentHashMap<>();
+    private final long cacheTtlMillis;
+    private final int cacheMaxSize;
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder cacheEvictions = new LongAdder();
+
+    private record CachedPrincipal(AuthPrincipal principal, long expiresAt) {}
+
+    // userId -> current token version (and display fields) for verifying signed tokens without a query.
+    // TTL'd like the token cache so a version bump on another replica is picked up eventually.
+    private final Map<Long, CachedUser> userCache = new ConcurrentHashMap<>();
+
+    private record CachedUser(AuthPrincipal principal, int tokenVersion, long expiresAt) {}
+
+    // a plain read-write transaction pins lookups to the primary, so a revocation is never
+    // undone by reading a token version from a lagging read replica. The version is read with
+    // a scalar query rather than findById: the users L2 region is local to each node, and a
+    // cached entity there would hide a revocation committed through another node.
+    private final TransactionTemplate primaryReads;
+
+    public AuthService(UserRepository userRepo,
+                       SessionTokens sessionTokens,
+                       PlatformTransactionManager txManager,
+                       NodeFanout fanout,
+                       @Value("${auth.cache.ttl-seconds:300}") long cacheTtlSeconds,
+                       @Value("${auth.cache.max-size:1000}") int cacheMaxSize,
+                       @Value("${auth.legacy-tokens.accepted-until:}") String legacyTokensUntil) {
         this.userRepo = userRepo;
+        this.sessionTokens = sessionTokens;
+        this.fanout = fanout;
+        this.primaryReads = new TransactionTemplate(txManager);
+        this.cacheTtlMillis = cacheTtlSeconds * 1000;
+        this.cacheMaxSize = cacheMaxSize;
+        this.legacyTokensUntil = legacyTokensUntil == null || legacyTokensUntil.isBlank() ? null
+                : Instant.parse(legacyTokensUntil.trim());
+
+        fanout.on("auth-user", (eventId, data) -> evictLocal(((Number) data.get("userId")).longValue()));
     }
 
     // Hash password using SHA-256 (demo only; use BCrypt in real apps). [Inference]
@@ -50,14 +98,124 @@ public class AuthService {
         if (!u.getPasswordHash().equals(hash(plainPassword))) {
             throw new IllegalArgumentException("Invalid credentials");
         }
-        String token = UUID.randomUUID().toString();
-        u.setToken(token);
-        userRepo.save(u);
-        return token;
+        // a legacy UUID token the user still has is left alone: other devices may be using it,
+        // and it keeps working until the rollover ends (auth.legacy-tokens.accepted-until)
+        int version = primaryReads.execute(s -> userRepo.findTokenVersion(u.getId())).orElse(versionOf(u));
+        userCache.put(u.getId(), new CachedUser(AuthPrincipal.of(u), version, System.currentTimeMillis() + cacheTtlMillis));
+        return sessionTokens.issue(u.getId(), Boolean.TRUE.equals(u.getIsAdmin()), version);
     }
 
-    public Optional<User> findByToken(String token) {
+    public Optional<AuthPrincipal> findByToken(String token) {
         if (token == null) return Optional.empty();
-        return userRepo.findByToken(token);
+        if (SessionTokens.isSigned(token)) return findBySignedToken(token);
+        // legacy UUID tokens stored in users.token, kept working during rollover
+        if (legacyTokensUntil != null && !Instant.now().isBefore(legacyTokensUntil)) {
+            evict(token);
+            return Optional.empty();
+        }
+        CachedPrincipal cached = tokenCache.get(token);
+        if (cached != null) {
+            if (cached.expiresAt() > System.currentTimeMillis()) {
+                cacheHits.increment();
+                return Optional.of(cached.principal());
+            }
+            evict(token);
+        }
+        cacheMisses.increment();
+        Optional<AuthPrincipal> p = userRepo.findByToken(token).map(AuthPrincipal::of);
+        p.ifPresent(principal -> cache(token, principal));
+        return p;
+    }
+
+    private Optional<AuthPrincipal> findBySignedToken(String token) {
+        Optional<SessionTokens.Claims> oc = sessionTokens.verify(token);
+        if (oc.isEmpty()) return Optional.empty();
+        SessionTokens.Claims c = oc.get();
+
+        CachedUser cu = userCache.get(c.userId());
+        if (cu != null && cu.expiresAt() > System.currentTimeMillis()) {
+            cacheHits.increment();
+        } else {
+            cacheMisses.increment();
+            // display fields may come from the L2 cache; the version is always read from the table
+            Optional<User> ou = userRepo.findById(c.userId());
+            Optional<Integer> version = primaryReads.execute(s -> userRepo.findTokenVersion(c.userId()));
+            if (ou.isEmpty() || version.isEmpty()) {
+                userCache.remove(c.userId());
+                return Optional.empty();
+            }
+            cu = new CachedUser(AuthPrincipal.of(ou.get()), version.get(),
+                    System.currentTimeMillis() + cacheTtlMillis);
+            userCache.put(c.userId(), cu);
+        }
+        if (cu.tokenVersion() != c.version()) return Optional.empty();
+        // the admin flag comes from the user's row, not the claim, so promoting or demoting
+        // someone takes effect once evictUser runs, without reissuing their tokens
+        return Optional.of(cu.principal());
+    }
+
+    /**
+     * Invalidate every session token issued to a user by bumping users.token_version,
+     * and clear the legacy UUID token too.
+     */
+    @Transactional
+    public void revokeTokens(Long userId) {
+        userRepo.findById(userId).ifPresent(u -> {
+            u.setTokenVersion(versionOf(u) + 1);
+            u.setToken(null);
+            userRepo.save(u);
+        });
+        evictUser(userId);
+    }
+
+    private static int versionOf(User u) {
+        return u.getTokenVersion() == null ? 0 : u.getTokenVersion();
+    }
+
+    /**
+     * Drop every cached token for a user, on this node and (through NodeFanout, once the
+     * current transaction commits) on the others. Call after deleting the user or changing
+     * anything the principal carries (name, admin flag).
+     */
+    public void evictUser(Long userId) {
+        evictLocal(userId);
+        AfterCommit.run(() -> fanout.send(null, "auth-user", Map.of("userId", userId)));
+    }
+
+    private void evictLocal(long userId) {
+        if (userCache.remove(userId) != null) cacheEvictions.increment();
+        tokenCache.forEach((token, cp) -> {
+            if (cp.principal().id().equals(userId)) evict(token);
+        });
+    }
+
+    public Map<String, Object> cacheStats() {
+        long hits = cacheHits.sum();
+        long misses = cacheMisses.sum();
+        return Map.of(
+                "size", tokenCache.size(),
+                "users", userCache.size(),
+                "hits", hits,
+                "misses", misses,
+                "hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses),
+                "evictions", cacheEvictions.sum());
+    }
+
+    private void cache(String token, AuthPrincipal principal) {
+        if (tokenCache.size() >= cacheMaxSize) {
+            long now = System.currentTimeMillis();
+            tokenCache.forEach((t, cp) -> {
+                if (cp.expiresAt() <= now) evict(t);
+            });
+            // still full of live entries: drop an arbitrary one rather than grow unbounded
+            if (tokenCache.size() >= cacheMaxSize) {
+                tokenCache.keySet().stream().findAny().ifPresent(this::evict);
+            }
+        }
+        tokenCache.put(token, new CachedPrincipal(principal, System.currentTimeMillis() + cacheTtlMillis));
+    }
+
+    private void evict(String token) {
+        if (tokenCache.remove(token) != null) cacheEvictions.increment();
     }
 }
@@ -0,0 +1,73 @@
+package com.example.uwhapp.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed concurrency plus a bounded queue for one kind of background work. Tasks run on
+ * virtual threads, but never more than {@code concurrency} at once, and each task holds at
+ * most one database connection, so the limit is also that workload's share of the pool.
+ * A full queue rejects new work instead of letting it back up into other subsystems.
+ */
+public class BoundedExecutor implements Executor {
+
+    public record Stats(String name, int concurrency, int active, int queued, int queueCapacity,
+                        int peakQueued, long completed, long rejected) {}
+
+    private final String name;
+    private final int concurrency;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor pool;
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicInteger peakQueued = new AtomicInteger();
+
+    public BoundedExecutor(String name, int concurrency, int queueCapacity) {
+        this.name = name;
+        this.concurrency = concurrency;
+        this.queueCapacity = queueCapacity;
+        this.pool = new ThreadPoolExecutor(concurrency, concurrency, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofVirtual().name(name + "-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        try {
+            pool.execute(task);
+            peakQueued.accumulateAndGet(pool.getQueue().size(), Math::max);
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new RejectedExecutionException(name + " saturated: " + concurrency + " running, "
+                    + queueCapacity + " queued", ex);
+        }
+    }
+
+    public int concurrency() {
+        return concurrency;
+    }
+
+    public Stats stats() {
+        return new Stats(name, concurrency, pool.getActiveCount(), pool.getQueue().size(), queueCapacity,
+                peakQueued.get(), pool.getCompletedTaskCount(), rejected.sum());
+    }
+
+    public void shutdown(long waitSeconds) {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(waitSeconds, TimeUnit.SECONDS)) {
+                System.err.println(name + ": " + pool.getQueue().size() + " queued tasks dropped at shutdown");
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.uwhapp.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import com.example.uwhapp.model.Event;
+import com.example.uwhapp.model.User;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Keeps the second-level cache honest across nodes. The users and events regions (and the
+ * query cache) live in each node's memory, so a row changed through one node would otherwise
+ * be served stale by the others until the entry expires. Every committed insert, update or
+ * delete of a User or Event is sent through NodeFanout, and the other nodes evict that entity
+ * and their cached query results; writes Hibernate does not see as entity changes (bulk
+ * updates, plain JDBC inserts) are reported with {@link #evicted}.
+ *
+ * Another node's write can therefore be served from here for about as long as NodeFanout takes
+ * to deliver it (a second or so), not for the life of the cache entry.
+ */
+@Component
+public class EntityCacheFanout implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    // region name (from the @Cache annotations) -> entity
+    private static final Map<String, Class<?>> REGIONS = Map.of("users", User.class, "events", Event.class);
+
+    private final transient Cache cache;
+    private final transient NodeFanout fanout;
+    private final transient Map<Class<?>, String> regionOf = new HashMap<>();
+
+    public EntityCacheFanout(EntityManagerFactory emf, NodeFanout fanout) {
+        SessionFactoryImplementor sf = emf.unwrap(SessionFactoryImplementor.class);
+        this.cache = sf.getCache();
+        this.fanout = fanout;
+        REGIONS.forEach((region, type) -> regionOf.put(type, region));
+
+        EventListenerRegistry listeners = sf.getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        listeners.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        listeners.appendListeners(EventType.POST_COMMIT_DELETE, this);
+
+        fanout.on("l2-evict", (eventId, data) -> {
+            Class<?> type = REGIONS.get((String) data.get("region"));
+            if (type == null) return;
+            @SuppressWarnings("unchecked")
+            List<Number> ids = (List<Number>) data.get("ids");
+            if (ids == null) {
+                cache.evictEntityData(type);
+            } else {
+                ids.forEach(id -> cache.evictEntityData(type, id.longValue()));
+            }
+            cache.evictDefaultQueryRegion();
+        });
+        fanout.on("l2-evict-queries", (eventId, data) -> cache.evictDefaultQueryRegion());
+        fanout.on("l2-evict-all", (eventId, data) -> cache.evictAllRegions());
+    }
+
+    /**
+     * Tell the other nodes that these rows changed behind Hibernate's back (a bulk update);
+     * ids == null means the whole region. Sent once the current transaction commits.
+     */
+    public void evicted(Class<?> type, Collection<Long> ids) {
+        String region = regionOf.get(type);
+        if (region == null) return;
+        Map<String, Object> data = new HashMap<>();
+        data.put("region", region);
+        if (ids != null) data.put("ids", List.copyOf(ids));
+        AfterCommit.run(() -> fanout.send(null, "l2-evict", data));
+    }
+
+    // rows were inserted with plain JDBC: every node's cached query results may be missing them
+    public void evictQueries() {
+        cache.evictDefaultQueryRegion();
+        AfterCommit.run(() -> fanout.send(null, "l2-evict-queries", Map.of()));
+    }
+
+    // rows were changed outside the application altogether
+    public void evictAll() {
+        cache.evictAllRegions();
+        fanout.send(null, "l2-evict-all", Map.of());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    // runs after the commit, on the committing thread
+    private void publish(EntityPersister persister, Object id) {
+        String region = regionOf.get(persister.getMappedClass());
+        if (region == null) return;
+        fanout.send(null, "l2-evict", Map.of("region", region, "ids", List.of(id)));
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return regionOf.containsKey(persister.getMappedClass());
+    }
+
+    // nothing was committed, so there is nothing for the other nodes to drop
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {}
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {}
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {}
+}
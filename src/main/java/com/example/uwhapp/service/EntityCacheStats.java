@@ -0,0 +1,66 @@
+package com.example.uwhapp.service;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Hit/miss counters for the Hibernate second-level cache (User and Event regions plus the
+ * query cache), and a manual evict for when rows are changed outside the application.
+ * Hibernate only keeps the counters with uwh.query-count.enabled on (see QueryCountConfig);
+ * otherwise they read zero.
+ */
+@Service
+public class EntityCacheStats {
+
+    public record Region(String name, long hits, long misses, long puts) {}
+
+    public record Snapshot(List<Region> regions,
+                           long queryCacheHits,
+                           long queryCacheMisses,
+                           long queryCachePuts,
+                           long entityLoads,
+                           long statements) {}
+
+    // region names from the @Cache annotations on User and Event
+    private static final List<String> REGIONS = List.of("users", "events");
+
+    private final SessionFactory sessionFactory;
+    private final EntityCacheFanout fanout;
+
+    public EntityCacheStats(EntityManagerFactory emf, EntityCacheFanout fanout) {
+        this.sessionFactory = emf.unwrap(SessionFactory.class);
+        this.fanout = fanout;
+    }
+
+    public Snapshot snapshot() {
+        Statistics s = sessionFactory.getStatistics();
+        List<Region> regions = REGIONS.stream().map(name -> region(s, name)).toList();
+        return new Snapshot(regions,
+                s.getQueryCacheHitCount(),
+                s.getQueryCacheMissCount(),
+                s.getQueryCachePutCount(),
+                s.getEntityLoadCount(),
+                s.getPrepareStatementCount());
+    }
+
+    // on every node (see EntityCacheFanout)
+    public void evictAll() {
+        fanout.evictAll();
+    }
+
+    // cached query results only, on every node; for rows written with plain JDBC, which Hibernate never sees
+    public void evictQueries() {
+        fanout.evictQueries();
+    }
+
+    private static Region region(Statistics s, String name) {
+        CacheRegionStatistics r = s.getDomainDataRegionStatistics(name);
+        return new Region(name, r.getHitCount(), r.getMissCount(), r.getPutCount());
+    }
+}
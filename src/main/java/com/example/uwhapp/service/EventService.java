@@ -1,24 +1,195 @@
 package com.example.uwhapp.service;
 
+import com.example.uwhapp.dto.EventDto;
 import com.example.uwhapp.model.Event;
 import com.example.uwhapp.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class EventService {
+    // upper bound used when a listing has no "to"; well inside every supported timestamp range
+    private static final Instant END_OF_TIME = Instant.parse("9999-12-31T00:00:00Z");
+
     private final EventRepository eventRepository;
+    private final RsvpCounts rsvpCounts;
+    private final EventVersions versions;
+    private final EventStreamHub streamHub;
+    private final int windowSize;
+    private final long windowTtlNanos;
+    // the window is always loaded from the primary in its own read-write transaction, never
+    // inside a caller's readOnly one, which would route it to a possibly lagging replica
+    private final TransactionTemplate primaryReads;
+
+    // next windowSize upcoming events, reloaded on every event write on this node, when it runs
+    // dry, and once it is older than the TTL (which bounds how long writes made through another
+    // node stay invisible here)
+    private volatile UpcomingWindow window;
+
+    private record UpcomingWindow(List<Event> events, boolean complete, long loadedAt) {}
+
+    private record Cursor(Instant startTime, long id) {}
 
-    public EventService(EventRepository repo) {
+    /**
+     * One page of events ordered by (startTime, id); nextCursor is null on the last page.
+     */
+    public record EventPage(List<Event> events, String nextCursor) {}
+
+    public EventService(EventRepository repo, RsvpCounts rsvpCounts, EventVersions versions,
+                        EventStreamHub streamHub,
+                        PlatformTransactionManager txManager,
+                        @Value("${events.upcoming-window:50}") int windowSize,
+                        @Value("${events.upcoming-window-ttl-seconds:30}") long windowTtlSeconds) {
         this.eventRepository = repo;
+        this.rsvpCounts = rsvpCounts;
+        this.versions = versions;
+        this.streamHub = streamHub;
+        this.windowSize = windowSize;
+        this.windowTtlNanos = windowTtlSeconds * 1_000_000_000L;
+        this.primaryReads = new TransactionTemplate(txManager);
+        // also called from after-commit callbacks and from inside readOnly transactions
+        this.primaryReads.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     public Event create(Event e) {
-        return eventRepository.save(e);
+        return save(e);
+    }
+
+    public Event save(Event e) {
+        Event saved = eventRepository.save(e);
+        refreshWindow();
+        versions.bump(saved.getId());
+        Map<String, Object> delta = new HashMap<>();
+        delta.put("id", saved.getId());
+        delta.put("title", saved.getTitle());
+        delta.put("location", saved.getLocation());
+        delta.put("startTime", saved.getStartTime());
+        streamHub.publish(saved.getId(), "event", delta);
+        return saved;
     }
 
+    public void deleteById(Long id) {
+        eventRepository.deleteById(id);
+        rsvpCounts.removeEvent(id);
+        refreshWindow();
+        versions.bump(id);
+        streamHub.publish(id, "deleted", Map.of("id", id));
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Event> findById(Long id) {
         return eventRepository.findById(id);
     }
+
+    /**
+     * Keyset-paginated listing. With no bounds and no cursor this is the "upcoming" view,
+     * served from the in-memory window whenever it can satisfy the limit. Not transactional
+     * itself: the page query runs in the repository's own readOnly transaction (replica) and
+     * a window reload in a primary one.
+     */
+    public EventPage list(Instant from, Instant to, int limit, String cursor) {
+        if (from == null && to == null && cursor == null) {
+            EventPage fromWindow = upcomingFromWindow(limit);
+            if (fromWindow != null) return fromWindow;
+            from = Instant.now();
+        }
+
+        Instant afterTime = from != null ? from : Instant.EPOCH;
+        long afterId = -1;
+        if (cursor != null) {
+            Cursor c = decodeCursor(cursor);
+            afterTime = c.startTime();
+            afterId = c.id();
+        }
+        List<Event> rows = eventRepository.findPageAfter(afterTime, afterId, to != null ? to : END_OF_TIME,
+                PageRequest.of(0, limit + 1));
+        return toPage(rows, limit);
+    }
+
+    // event fields plus its yes/no/maybe counts, as served by GET /events
+    public EventDto withRsvpCounts(Event e) {
+        RsvpCounts.Summary c = rsvpCounts.summary(e.getId());
+        return EventDto.of(e, new EventDto.RsvpCountsDto(c.yes(), c.no(), c.maybe()));
+    }
+
+    /**
+     * Id of the next event still to start, from the in-memory window. The upcoming view
+     * changes as events start even though nothing was written, so its ETag includes this.
+     */
+    public String upcomingMarker() {
+        Instant now = Instant.now();
+        for (Event e : currentWindow().events()) {
+            if (!e.getStartTime().isBefore(now)) return String.valueOf(e.getId());
+        }
+        return "none";
+    }
+
+    public void refreshWindow() {
+        List<Event> rows = primaryReads.execute(s -> eventRepository.findPageAfter(Instant.now(), -1L, END_OF_TIME,
+                PageRequest.of(0, windowSize + 1)));
+        boolean complete = rows.size() <= windowSize;
+        window = new UpcomingWindow(List.copyOf(complete ? rows : rows.subList(0, windowSize)), complete,
+                System.nanoTime());
+    }
+
+    private UpcomingWindow currentWindow() {
+        UpcomingWindow w = window;
+        if (w == null || System.nanoTime() - w.loadedAt() > windowTtlNanos) {
+            refreshWindow();
+            w = window;
+        }
+        return w;
+    }
+
+    private EventPage upcomingFromWindow(int limit) {
+        UpcomingWindow w = currentWindow();
+        Instant now = Instant.now();
+        List<Event> live = new ArrayList<>(Math.min(limit + 1, w.events().size()));
+        for (Event e : w.events()) {
+            if (e.getStartTime().isBefore(now)) continue; // started since the window was loaded
+            live.add(e);
+            if (live.size() > limit) break;
+        }
+        if (live.size() > limit || w.complete()) {
+            return toPage(live, limit);
+        }
+        // window has drained below the limit but more events exist; let the caller hit the DB
+        return null;
+    }
+
+    private static EventPage toPage(List<Event> rows, int limit) {
+        if (rows.size() <= limit) return new EventPage(rows, null);
+        List<Event> page = rows.subList(0, limit);
+        Event last = page.get(limit - 1);
+        return new EventPage(List.copyOf(page), encodeCursor(last.getStartTime(), last.getId()));
+    }
+
+    private static String encodeCursor(Instant startTime, Long id) {
+        String raw = startTime.toString() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int bar = raw.indexOf('|');
+            return new Cursor(Instant.parse(raw.substring(0, bar)), Long.parseLong(raw.substring(bar + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("invalid cursor");
+        }
+    }
 }
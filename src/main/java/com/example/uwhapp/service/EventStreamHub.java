@@ -0,0 +1,166 @@
+package com.example.uwhapp.service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fan-out of per-event deltas to server-sent-event subscribers. Subscribers are held by the
+ * node they connected to; every published delta also goes through NodeFanout, so clients
+ * connected to other nodes get it too (about a second later).
+ * Idle subscribers hold no thread (SseEmitter parks the request in async servlet mode).
+ * Each subscriber has a small bounded queue drained on a virtual thread; a subscriber whose
+ * queue fills up is too slow to keep up and is dropped (the browser's EventSource reconnects).
+ */
+@Component
+public class EventStreamHub {
+
+    private record Message(String name, String json) {}
+
+    private final class Subscriber {
+        final Long eventId;
+        final SseEmitter emitter;
+        final BlockingQueue<Message> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(Long eventId, SseEmitter emitter) {
+            this.eventId = eventId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(Message m) {
+            if (!queue.offer(m)) {
+                drop(this);
+                return;
+            }
+            if (draining.compareAndSet(false, true)) sender.execute(this::drain);
+        }
+
+        void drain() {
+            try {
+                Message m;
+                while ((m = queue.poll()) != null) {
+                    if (m.name() == null) {
+                        emitter.send(SseEmitter.event().comment(m.json()));
+                    } else {
+                        emitter.send(SseEmitter.event().name(m.name()).data(m.json(), MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                drop(this);
+            } finally {
+                draining.set(false);
+            }
+            // a publish may have raced the reset of the flag
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) sender.execute(this::drain);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final NodeFanout fanout;
+
+    public EventStreamHub(ObjectMapper objectMapper,
+                          NodeFanout fanout,
+                          @Value("${events.stream.buffer:32}") int bufferSize,
+                          @Value("${events.stream.timeout-minutes:30}") long timeoutMinutes) {
+        this.objectMapper = objectMapper;
+        this.fanout = fanout;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeoutMinutes * 60_000;
+        // deltas published on other nodes arrive already serialized
+        fanout.on("stream", (eventId, data) -> deliver(eventId, (String) data.get("type"), (String) data.get("json")));
+    }
+
+    public SseEmitter subscribe(Long eventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber sub = new Subscriber(eventId, emitter);
+        subscribers.compute(eventId, (id, subs) -> {
+            if (subs == null) subs = ConcurrentHashMap.newKeySet();
+            subs.add(sub);
+            return subs;
+        });
+        emitter.onCompletion(() -> remove(sub));
+        emitter.onTimeout(() -> remove(sub));
+        emitter.onError(e -> remove(sub));
+        sub.offer(new Message(null, "subscribed " + eventId));
+        return emitter;
+    }
+
+    /**
+     * Send a delta to everyone watching an event, on any node, once the current transaction
+     * (if any) commits.
+     */
+    public void publish(Long eventId, String type, Map<String, Object> data) {
+        AfterCommit.run(() -> {
+            String json;
+            try {
+                json = objectMapper.writeValueAsString(data);
+            } catch (JsonProcessingException e) {
+                System.err.println("Failed to serialize " + type + " delta: " + e.getMessage());
+                return;
+            }
+            deliver(eventId, type, json);
+            fanout.send(eventId, "stream", Map.of("type", type, "json", json));
+        });
+    }
+
+    // to this node's subscribers only
+    private void deliver(Long eventId, String type, String json) {
+        Set<Subscriber> subs = subscribers.get(eventId);
+        if (subs == null || subs.isEmpty()) return;
+        Message m = new Message(type, json);
+        for (Subscriber s : subs) s.offer(m);
+    }
+
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    // keeps proxies from closing idle streams and flushes out dead connections
+    @Scheduled(fixedRateString = "${events.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        Message ping = new Message(null, "ping");
+        subscribers.values().forEach(subs -> subs.forEach(s -> s.offer(ping)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(subs -> subs.forEach(s -> s.emitter.complete()));
+        sender.shutdown();
+    }
+
+    private void drop(Subscriber sub) {
+        remove(sub);
+        sub.emitter.complete();
+    }
+
+    private void remove(Subscriber sub) {
+        subscribers.computeIfPresent(sub.eventId, (id, subs) -> {
+            subs.remove(sub);
+            return subs.isEmpty() ? null : subs;
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.uwhapp.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Monotonic in-memory version counters used to build ETags without touching the database.
+ * Each event has its own counter (RSVPs, team generation, edits); the list counter moves on
+ * any event write; the global counter moves when user skills change, since that touches every
+ * roster.
+ *
+ * Counters are per process, so every tag is node-qualified: it names the node (uwh.node-id,
+ * as used for job leases) and this run of it. A tag from another node or from before a restart
+ * never matches, so it costs a full response, not a stale 304. Bumps are passed to the other
+ * nodes through NodeFanout, so a write made elsewhere moves this node's tags too, within about
+ * a second; until then this node may still answer 304 for it.
+ */
+@Component
+public class EventVersions {
+
+    // "<node>.<run>": a hash of the node id (not the id itself, which can carry a host name)
+    // plus a per-process nonce, since a configured node id stays the same across restarts
+    private final String node;
+    private final Map<Long, AtomicLong> perEvent = new ConcurrentHashMap<>();
+    private final AtomicLong list = new AtomicLong();
+    private final AtomicLong global = new AtomicLong();
+
+    private final NodeFanout fanout;
+
+    public EventVersions(JobLeases leases, NodeFanout fanout) {
+        this.node = Integer.toString(leases.nodeId().hashCode() & Integer.MAX_VALUE, 36) + "."
+                + Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+        this.fanout = fanout;
+        fanout.on("version", (eventId, data) -> bumpLocal(eventId));
+        fanout.on("versions", (eventId, data) -> bumpAllLocal());
+    }
+
+    // something about this event changed (RSVP, teams, edit); the list embeds counts so it moves too
+    public void bump(Long eventId) {
+        AfterCommit.run(() -> {
+            bumpLocal(eventId);
+            fanout.send(eventId, "version", Map.of());
+        });
+    }
+
+    // something that shows up under every event changed (skills, user deleted)
+    public void bumpAll() {
+        AfterCommit.run(() -> {
+            bumpAllLocal();
+            fanout.send(null, "versions", Map.of());
+        });
+    }
+
+    private void bumpLocal(Long eventId) {
+        perEvent.computeIfAbsent(eventId, id -> new AtomicLong()).incrementAndGet();
+        list.incrementAndGet();
+    }
+
+    private void bumpAllLocal() {
+        global.incrementAndGet();
+        list.incrementAndGet();
+    }
+
+    public String eventTag(String resource, Long eventId) {
+        AtomicLong v = perEvent.get(eventId);
+        return "\"" + resource + "-" + eventId + "-" + node + "-" + (v == null ? 0 : v.get()) + "-" + global.get() + "\"";
+    }
+
+    public String listTag(String variant) {
+        return "\"events-" + node + "-" + list.get() + "-" + global.get() + "-" + Integer.toHexString(variant.hashCode()) + "\"";
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.uwhapp.service;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-request extras for team generation. {@code together} lists groups of user ids that
+ * must share a team; {@code apart} lists groups whose members must all be on different
+ * teams. Ids of players who are not attending are ignored.
+ *
+ * {@code seed} fixes every random choice, so the same seed, method and attendees give the
+ * same teams; it is saved on the Team rows. {@code draws} &gt; 1 asks the random generator
+ * for the most balanced of that many shuffles. {@code tiers} sets the tier count for the
+ * "tiered" generator (null for its default). {@code teams} is the number of teams to make
+ * (null: TeamService picks it from the roster size). {@code progress} receives updates from
+ * generators that search for a while; it plays no part in which teams come out.
+ */
+public record GenerationOptions(List<List<Long>> together, List<List<Long>> apart, Long seed, int draws,
+                                Integer tiers, Integer teams, GenerationProgress progress) {
+
+    public static final GenerationOptions NONE = new GenerationOptions(List.of(), List.of(), null, 1, null, null, null);
+
+    public GenerationOptions {
+        together = together == null ? List.of() : together;
+        apart = apart == null ? List.of() : apart;
+        draws = Math.max(1, draws);
+        progress = progress == null ? GenerationProgress.NONE : progress;
+    }
+
+    public GenerationOptions withProgress(GenerationProgress progress) {
+        return new GenerationOptions(together, apart, seed, draws, tiers, teams, progress);
+    }
+
+    public GenerationOptions withTeams(int teams) {
+        return new GenerationOptions(together, apart, seed, draws, tiers, teams, progress);
+    }
+
+    // teams to make from this many players: as set here (at most one per player), else by team size
+    public int teamCount(int players, int teamSize) {
+        if (teams != null) return Math.max(1, Math.min(teams, players));
+        return Math.max(1, (players + teamSize - 1) / teamSize);
+    }
+
+    public boolean hasConstraints() {
+        return together.stream().anyMatch(g -> g != null && g.size() > 1)
+                || apart.stream().anyMatch(g -> g != null && g.size() > 1);
+    }
+
+    // these options with a fresh random seed, unless one was given
+    public GenerationOptions withSeed() {
+        return seed != null ? this
+                : new GenerationOptions(together, apart, ThreadLocalRandom.current().nextLong(), draws, tiers, teams, progress);
+    }
+}
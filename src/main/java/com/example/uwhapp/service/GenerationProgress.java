@@ -0,0 +1,23 @@
+package com.example.uwhapp.service;
+
+/**
+ * Callback for long-running generators: how far they are and the best score so far (lower
+ * is better; the generator defines the unit), and whether the caller has given up. Generators
+ * that search for a while should check {@link #cancelled()} and stop early.
+ */
+public interface GenerationProgress {
+
+    GenerationProgress NONE = new GenerationProgress() {
+        @Override
+        public void report(double fraction, long bestScore) {}
+
+        @Override
+        public boolean cancelled() {
+            return false;
+        }
+    };
+
+    void report(double fraction, long bestScore);
+
+    boolean cancelled();
+}
@@ -0,0 +1,61 @@
+package com.example.uwhapp.service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.uwhapp.model.JobLease;
+import com.example.uwhapp.repository.JobLeaseRepository;
+
+/**
+ * Runs a scheduled job on one node only. Every node fires the cron; the first to claim the
+ * job's lease runs it and the rest skip. The lease is not released when the job finishes:
+ * it lasts a little less than the cron period, so a node whose clock fires a moment later
+ * still sees it held, and the next tick is free for whichever node is alive.
+ */
+@Service
+public class JobLeases {
+
+    private final JobLeaseRepository repo;
+    private final String nodeId;
+    // job -> whether this node won its last claim
+    private final Map<String, Boolean> holding = new ConcurrentHashMap<>();
+
+    public JobLeases(JobLeaseRepository repo, @Value("${uwh.node-id:}") String nodeId) {
+        this.repo = repo;
+        // pid@host plus a random suffix, so a restarted node does not resume a dead one's leases
+        this.nodeId = nodeId == null || nodeId.isBlank()
+                ? ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8)
+                : nodeId;
+    }
+
+    /** Claims {@code job} for {@code ttl} and runs {@code work} if we got it; false if another node holds it. */
+    public boolean runExclusively(String job, Duration ttl, Runnable work) {
+        Instant now = Instant.now();
+        boolean claimed = repo.tryClaim(job, nodeId, now, now.plus(ttl));
+        // logged when the lease changes hands as seen from here, not on every tick
+        Boolean before = holding.put(job, claimed);
+        if (before == null || before != claimed) {
+            System.out.println(claimed ? job + ": lease taken by this node (" + nodeId + ")"
+                    : job + " skipped: lease held by another node");
+        }
+        if (!claimed) return false;
+        work.run();
+        return true;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public List<JobLease> list() {
+        return repo.findAll();
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.uwhapp.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.uwhapp.model.NodeMessage;
+import com.example.uwhapp.repository.NodeMessageRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps the per-node in-memory state (RsvpCounts, EventVersions, EventStreamHub subscribers,
+ * TeammateHistory) in step across nodes. A component that changes its own state after a
+ * commit also send()s the change; messages are queued and written to node_messages as one
+ * batch every uwh.fanout.interval-ms, and in the same pass every node reads the rows it has
+ * not seen and hands the ones from other nodes to the handler registered for their kind.
+ * Another node's change therefore shows up here within about two intervals.
+ *
+ * Rows are read in id order. An id can commit after a higher one, so a missing id holds the
+ * read position back for up to uwh.fanout.gap-wait-ms before it is taken for a rolled-back
+ * insert and skipped.
+ *
+ * Why a message log rather than, say, a shared counter table for RSVP counts: the same log
+ * carries every kind of per-node state (counts, ETag versions, SSE deltas, second-level cache
+ * evictions, teammate history), which a counter table would not cover, and a per-event
+ * counter row would be updated by every RSVP in the post-notification burst, serializing
+ * those transactions on its row lock. The polling cost is bounded: a read is one index range
+ * scan past the cursor, the table holds only uwh.fanout.retention-minutes of rows, and a node
+ * that has seen no traffic reads only every uwh.fanout.idle-interval-ms (its own sends still
+ * go out every interval and bring the read rate back up).
+ */
+@Component
+public class NodeFanout {
+
+    /** Applies another node's change to this node's state; must not send() again. */
+    public interface Handler {
+        void apply(Long eventId, Map<String, Object> data);
+    }
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD = new TypeReference<>() {};
+
+    private final NodeMessageRepository repo;
+    private final ObjectMapper objectMapper;
+    private final JobLeases jobLeases;
+    // read from the primary: a lagging replica would show rows out of order as gaps
+    private final TransactionTemplate primaryReads;
+    private final Duration retention;
+    private final long gapWaitNanos;
+    private final long idleIntervalNanos;
+
+    private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+    private final Queue<NodeMessage> outbox = new ConcurrentLinkedQueue<>();
+    // a lock rather than synchronized: the exchange blocks on JDBC and may run on a virtual thread
+    private final ReentrantLock exchangeLock = new ReentrantLock();
+
+    // every id <= cursor has been handled or given up on; guarded by exchangeLock
+    private long cursor;
+    // ids above the cursor already handled, and missing ones with the nanoTime they were first missed
+    private final Set<Long> handledAbove = new HashSet<>();
+    private final Map<Long, Long> gaps = new HashMap<>();
+    // set when the last read found nothing: no read again before idleUntil (System.nanoTime())
+    private boolean idle;
+    private long idleUntil;
+
+    public NodeFanout(NodeMessageRepository repo,
+                      ObjectMapper objectMapper,
+                      JobLeases jobLeases,
+                      PlatformTransactionManager txManager,
+                      @Value("${uwh.fanout.retention-minutes:10}") long retentionMinutes,
+                      @Value("${uwh.fanout.gap-wait-ms:5000}") long gapWaitMillis,
+                      @Value("${uwh.fanout.idle-interval-ms:2000}") long idleIntervalMillis) {
+        this.repo = repo;
+        this.objectMapper = objectMapper;
+        this.jobLeases = jobLeases;
+        this.primaryReads = new TransactionTemplate(txManager);
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.gapWaitNanos = gapWaitMillis * 1_000_000L;
+        this.idleIntervalNanos = idleIntervalMillis * 1_000_000L;
+    }
+
+    // start from the current end of the log: state built from the tables at boot already covers it
+    @PostConstruct
+    void init() {
+        Long max = primaryReads.execute(s -> repo.maxId());
+        cursor = max == null ? 0 : max;
+    }
+
+    public void on(String kind, Handler handler) {
+        handlers.put(kind, handler);
+    }
+
+    /**
+     * Queues a change for the other nodes. Call it once the change is committed (from inside an
+     * AfterCommit callback, not around one): the message is not tied to any transaction.
+     */
+    public void send(Long eventId, String kind, Map<String, Object> data) {
+        try {
+            outbox.add(new NodeMessage(jobLeases.nodeId(), eventId, kind, objectMapper.writeValueAsString(data)));
+        } catch (JsonProcessingException e) {
+            System.err.println("Failed to serialize " + kind + " node message: " + e.getMessage());
+        }
+    }
+
+    // every interval: sends whatever is queued, and reads unless the node is idle
+    @Scheduled(fixedDelayString = "${uwh.fanout.interval-ms:500}")
+    public void poll() {
+        exchangeLock.lock();
+        try {
+            if (idle && outbox.isEmpty() && System.nanoTime() - idleUntil < 0) return;
+            exchange();
+        } finally {
+            exchangeLock.unlock();
+        }
+    }
+
+    /** Sends queued messages and applies everything other nodes have written since the last read. */
+    public void exchange() {
+        exchangeLock.lock();
+        try {
+            boolean traffic = !outbox.isEmpty();
+            flush();
+            List<NodeMessage> rows;
+            do {
+                rows = primaryReads.execute(s -> repo.findTop500ByIdGreaterThanOrderByIdAsc(cursor));
+                traffic |= !rows.isEmpty();
+                for (NodeMessage m : rows) {
+                    if (handledAbove.add(m.getId()) && !jobLeases.nodeId().equals(m.getOrigin())) apply(m);
+                }
+                advance(rows);
+            } while (rows.size() == 500 && handledAbove.isEmpty());
+            // a pending gap keeps the node reading so the cursor can move on in time
+            idle = !traffic && gaps.isEmpty();
+            idleUntil = System.nanoTime() + idleIntervalNanos;
+        } catch (RuntimeException e) {
+            System.err.println("Node fan-out exchange failed: " + e.getMessage());
+        } finally {
+            exchangeLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${uwh.fanout.prune-ms:60000}")
+    public void prune() {
+        jobLeases.runExclusively("pruneNodeMessages", Duration.ofSeconds(50),
+                () -> repo.deleteOlderThan(Instant.now().minus(retention)));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        exchangeLock.lock();
+        try {
+            flush();
+        } finally {
+            exchangeLock.unlock();
+        }
+    }
+
+    private void flush() {
+        List<NodeMessage> batch = new ArrayList<>();
+        for (NodeMessage m; (m = outbox.poll()) != null; ) batch.add(m);
+        if (batch.isEmpty()) return;
+        try {
+            repo.insertAll(batch);
+        } catch (RuntimeException e) {
+            // other nodes miss these changes until their windows/TTLs catch up; not retried
+            System.err.println("Dropping " + batch.size() + " node messages: " + e.getMessage());
+        }
+    }
+
+    private void apply(NodeMessage m) {
+        Handler h = handlers.get(m.getKind());
+        if (h == null) return;
+        try {
+            h.apply(m.getEventId(), objectMapper.readValue(m.getPayload(), PAYLOAD));
+        } catch (JsonProcessingException | RuntimeException e) {
+            System.err.println("Failed to apply " + m.getKind() + " node message " + m.getId() + ": " + e.getMessage());
+        }
+    }
+
+    // move the cursor over handled ids, and over missing ones that have waited long enough
+    private void advance(List<NodeMessage> rows) {
+        long now = System.nanoTime();
+        long highest = rows.isEmpty() ? cursor : rows.get(rows.size() - 1).getId();
+        for (long id = cursor + 1; id < highest; id++) {
+            if (!handledAbove.contains(id)) gaps.putIfAbsent(id, now);
+        }
+        while (true) {
+            long next = cursor + 1;
+            if (handledAbove.remove(next)) {
+                cursor = next;
+            } else if (gaps.containsKey(next) && now - gaps.get(next) >= gapWaitNanos) {
+                gaps.remove(next);
+                cursor = next;
+            } else {
+                break;
+            }
+        }
+        // a gap that filled in was handled above and is no longer missing
+        gaps.keySet().removeIf(id -> id <= cursor);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.uwhapp.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The subset of RFC 5545 RRULE the club needs: FREQ=DAILY|WEEKLY, INTERVAL, BYDAY (plain
+ * weekdays), BYHOUR, BYMINUTE and UNTIL (a date). Example:
+ * {@code FREQ=WEEKLY;BYDAY=TH;BYHOUR=19;BYMINUTE=30}.
+ *
+ * Occurrences are local dates plus a local time; turning them into instants (and dealing
+ * with daylight saving) is left to the caller, who knows the zone.
+ */
+public record RRule(boolean weekly, int interval, Set<DayOfWeek> byDay, LocalTime time, LocalDate until) {
+
+    public static RRule parse(String rule) {
+        if (rule == null || rule.isBlank()) throw new IllegalArgumentException("rrule required");
+        String freq = null;
+        int interval = 1;
+        Set<DayOfWeek> byDay = EnumSet.noneOf(DayOfWeek.class);
+        int hour = 0;
+        int minute = 0;
+        LocalDate until = null;
+        for (String part : rule.trim().toUpperCase(Locale.ROOT).replaceFirst("^RRULE:", "").split(";")) {
+            String[] kv = part.split("=", 2);
+            if (kv.length != 2) throw new IllegalArgumentException("bad rrule part: " + part);
+            switch (kv[0]) {
+                case "FREQ" -> freq = kv[1];
+                case "INTERVAL" -> interval = Integer.parseInt(kv[1]);
+                case "BYDAY" -> {
+                    for (String d : kv[1].split(",")) byDay.add(day(d));
+                }
+                case "BYHOUR" -> hour = Integer.parseInt(kv[1]);
+                case "BYMINUTE" -> minute = Integer.parseInt(kv[1]);
+                case "UNTIL" -> until = LocalDate.parse(kv[1].substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE);
+                case "WKST" -> { /* weeks start Monday either way */ }
+                default -> throw new IllegalArgumentException("unsupported rrule part: " + kv[0]);
+            }
+        }
+        if (!"WEEKLY".equals(freq) && !"DAILY".equals(freq)) {
+            throw new IllegalArgumentException("FREQ must be DAILY or WEEKLY");
+        }
+        if (interval < 1) throw new IllegalArgumentException("INTERVAL must be positive");
+        return new RRule("WEEKLY".equals(freq), interval, byDay, LocalTime.of(hour, minute), until);
+    }
+
+    /**
+     * Local dates in [from, to] on which the rule fires, counting intervals from {@code anchor}
+     * (the rule's first possible date).
+     */
+    public List<LocalDate> dates(LocalDate anchor, LocalDate from, LocalDate to) {
+        List<LocalDate> out = new ArrayList<>();
+        LocalDate start = from.isBefore(anchor) ? anchor : from;
+        LocalDate end = until != null && until.isBefore(to) ? until : to;
+        Set<DayOfWeek> days = byDay.isEmpty() && weekly ? EnumSet.of(anchor.getDayOfWeek()) : byDay;
+        LocalDate anchorWeek = anchor.minusDays(anchor.getDayOfWeek().getValue() - 1);
+        for (LocalDate d = start; !d.isAfter(end); d = d.plusDays(1)) {
+            if (weekly) {
+                long weeks = ChronoUnit.WEEKS.between(anchorWeek, d.minusDays(d.getDayOfWeek().getValue() - 1));
+                if (weeks % interval == 0 && days.contains(d.getDayOfWeek())) out.add(d);
+            } else if (ChronoUnit.DAYS.between(anchor, d) % interval == 0
+                    && (days.isEmpty() || days.contains(d.getDayOfWeek()))) {
+                out.add(d);
+            }
+        }
+        return out;
+    }
+
+    private static DayOfWeek day(String code) {
+        return switch (code.trim()) {
+            case "MO" -> DayOfWeek.MONDAY;
+            case "TU" -> DayOfWeek.TUESDAY;
+            case "WE" -> DayOfWeek.WEDNESDAY;
+            case "TH" -> DayOfWeek.THURSDAY;
+            case "FR" -> DayOfWeek.FRIDAY;
+            case "SA" -> DayOfWeek.SATURDAY;
+            case "SU" -> DayOfWeek.SUNDAY;
+            default -> throw new IllegalArgumentException("unsupported BYDAY value: " + code);
+        };
+    }
+}
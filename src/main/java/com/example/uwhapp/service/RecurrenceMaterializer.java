@@ -0,0 +1,157 @@
+package com.example.uwhapp.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.uwhapp.model.Event;
+import com.example.uwhapp.model.RecurrenceRule;
+import com.example.uwhapp.model.ScheduleException;
+import com.example.uwhapp.repository.EventRepository;
+import com.example.uwhapp.repository.RecurrenceRuleRepository;
+import com.example.uwhapp.repository.ScheduleExceptionRepository;
+
+/**
+ * Turns the stored recurrence rules into events for a rolling horizon. The statement count
+ * does not depend on how many rules or days are involved: one query each for rules,
+ * exceptions and the events already in the horizon, then one batch insert of whatever is
+ * missing.
+ *
+ * An occurrence is already there when an event carries its (rule, date), or, for events
+ * created before rules existed, when one has the same title and start time. Exceptions on
+ * a date either cancel the occurrence or move it to another time or place; an exception
+ * without a rule applies to every rule (a pool closure, a public holiday).
+ */
+@Service
+public class RecurrenceMaterializer {
+
+    public record Result(int rules, int occurrences, int created) {}
+
+    private final RecurrenceRuleRepository ruleRepository;
+    private final ScheduleExceptionRepository exceptionRepository;
+    private final EventRepository eventRepository;
+    private final EventService eventService;
+    private final EventVersions versions;
+    private final EntityCacheStats entityCache;
+    private final int horizonDays;
+
+    public RecurrenceMaterializer(RecurrenceRuleRepository ruleRepository,
+                                  ScheduleExceptionRepository exceptionRepository,
+                                  EventRepository eventRepository,
+                                  EventService eventService,
+                                  EventVersions versions,
+                                  EntityCacheStats entityCache,
+                                  @Value("${events.recurrence.horizon-days:14}") int horizonDays) {
+        this.ruleRepository = ruleRepository;
+        this.exceptionRepository = exceptionRepository;
+        this.eventRepository = eventRepository;
+        this.eventService = eventService;
+        this.versions = versions;
+        this.entityCache = entityCache;
+        this.horizonDays = horizonDays;
+    }
+
+    @Transactional
+    public Result materialize() {
+        return materialize(horizonDays);
+    }
+
+    @Transactional
+    public Result materialize(int days) {
+        Instant now = Instant.now();
+        // widest local-date range any zone can be in; each rule narrows it to its own zone below
+        LocalDate fromDate = LocalDate.ofInstant(now, ZoneOffset.UTC).minusDays(1);
+        LocalDate toDate = fromDate.plusDays(days + 2L);
+
+        List<RecurrenceRule> rules = ruleRepository.findByActiveTrue();
+        if (rules.isEmpty()) return new Result(0, 0, 0);
+        Map<String, ScheduleException> exceptions = new HashMap<>();
+        for (ScheduleException ex : exceptionRepository.findByOnDateBetween(fromDate, toDate)) {
+            exceptions.put(exceptionKey(ex.getRuleId(), ex.getOnDate()), ex);
+        }
+        Set<String> existing = new HashSet<>();
+        for (Event e : eventRepository.findInHorizon(now, toDate.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC),
+                fromDate, toDate)) {
+            if (e.getRecurrenceRuleId() != null) {
+                existing.add(e.getRecurrenceRuleId() + "@" + e.getOccurrenceDate());
+            } else {
+                existing.add(e.getTitle() + "@" + e.getStartTime());
+            }
+        }
+
+        List<Event> missing = new ArrayList<>();
+        int occurrences = 0;
+        for (RecurrenceRule rule : rules) {
+            RRule rrule;
+            ZoneId zone;
+            try {
+                rrule = RRule.parse(rule.getRrule());
+                zone = ZoneId.of(rule.getZone());
+            } catch (RuntimeException ex) {
+                System.err.println("Skipping recurrence rule " + rule.getId() + ": " + ex.getMessage());
+                continue;
+            }
+            LocalDate today = LocalDate.ofInstant(now, zone);
+            LocalDate anchor = rule.getStartsOn() != null ? rule.getStartsOn() : today;
+            for (LocalDate date : rrule.dates(anchor, today, today.plusDays(days))) {
+                occurrences++;
+                Instant regular = startOf(date, rrule.time(), zone);
+                if (existing.contains(rule.getId() + "@" + date)
+                        || existing.contains(rule.getTitle() + "@" + regular)) continue;
+
+                ScheduleException ex = exceptions.get(exceptionKey(rule.getId(), date));
+                if (ex == null) ex = exceptions.get(exceptionKey(null, date));
+                if (ex != null && ex.cancels()) continue;
+
+                Instant start = ex != null && ex.getNewStartTime() != null
+                        ? startOf(date, ex.getNewStartTime(), zone) : regular;
+                if (start.isBefore(now)) continue;
+
+                Event e = new Event();
+                e.setTitle(rule.getTitle());
+                e.setLocation(ex != null && ex.getNewLocation() != null ? ex.getNewLocation() : rule.getLocation());
+                e.setStartTime(start);
+                e.setRecurrenceRuleId(rule.getId());
+                e.setOccurrenceDate(date);
+                missing.add(e);
+            }
+        }
+
+        eventRepository.insertAll(missing);
+        if (!missing.isEmpty()) {
+            AfterCommit.run(() -> {
+                entityCache.evictQueries();
+                eventService.refreshWindow();
+                versions.bumpAll();
+            });
+        }
+        return new Result(rules.size(), occurrences, missing.size());
+    }
+
+    /**
+     * Local wall-clock time to an instant. A time that falls in the spring-forward gap is
+     * pushed forward by the length of the gap (02:30 becomes 03:30); in the autumn overlap
+     * the earlier of the two offsets is used, so the session keeps its first 02:30.
+     */
+    static Instant startOf(LocalDate date, LocalTime time, ZoneId zone) {
+        return ZonedDateTime.ofLocal(LocalDateTime.of(date, time), zone, null).toInstant();
+    }
+
+    private static String exceptionKey(Long ruleId, LocalDate date) {
+        return (ruleId == null ? "*" : ruleId.toString()) + "@" + date;
+    }
+}
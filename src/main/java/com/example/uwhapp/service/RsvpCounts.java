@@ -0,0 +1,231 @@
+package com.example.uwhapp.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.uwhapp.model.Rsvp;
+import com.example.uwhapp.repository.EventRepository;
+import com.example.uwhapp.repository.RsvpRepository;
+
+/**
+ * In-memory read model of yes/no/maybe counts per event, rebuilt from the rsvps table on
+ * boot and kept in step by RsvpService. Reading a count is O(1) regardless of RSVP volume.
+ * Each open event keeps its users' latest status so a changed RSVP moves exactly one count.
+ *
+ * Events that started more than uwh.counts.settle-after-hours ago are settled: only their
+ * three totals stay in memory, so memory follows the upcoming sessions rather than the whole
+ * history. A later RSVP on a settled event reopens it from the table.
+ *
+ * Every node keeps its own copy. Changes are passed on through NodeFanout once committed and
+ * applied by status rather than as deltas, so a message applied twice or on top of a rebuild
+ * is harmless.
+ */
+@Component
+public class RsvpCounts {
+
+    public record Summary(Long eventId, int yes, int no, int maybe) {
+
+        Summary without(String status) {
+            if (status == null) return this;
+            switch (status) {
+                case "yes": return new Summary(eventId, Math.max(0, yes - 1), no, maybe);
+                case "no": return new Summary(eventId, yes, Math.max(0, no - 1), maybe);
+                case "maybe": return new Summary(eventId, yes, no, Math.max(0, maybe - 1));
+                default: return this;
+            }
+        }
+    }
+
+    private static final class Tally {
+        final Map<Long, String> statusByUser = new ConcurrentHashMap<>();
+        final AtomicInteger yes = new AtomicInteger();
+        final AtomicInteger no = new AtomicInteger();
+        final AtomicInteger maybe = new AtomicInteger();
+
+        AtomicInteger counter(String status) {
+            if (status == null) return null;
+            switch (status) {
+                case "yes": return yes;
+                case "no": return no;
+                case "maybe": return maybe;
+                default: return null;
+            }
+        }
+
+        void set(Long userId, String status) {
+            String prev = status == null ? statusByUser.remove(userId) : statusByUser.put(userId, status);
+            if (status != null && status.equals(prev)) return;
+            AtomicInteger dec = counter(prev);
+            if (dec != null) dec.decrementAndGet();
+            AtomicInteger inc = counter(status);
+            if (inc != null) inc.incrementAndGet();
+        }
+
+        // a stored status, unless this node already saw a change for the user (which is newer)
+        void seed(Long userId, String status) {
+            if (!statusByUser.containsKey(userId)) set(userId, status);
+        }
+
+        Summary summary(Long eventId) {
+            return new Summary(eventId, yes.get(), no.get(), maybe.get());
+        }
+    }
+
+    private final RsvpRepository rsvpRepository;
+    private final EventRepository eventRepository;
+    private final NodeFanout fanout;
+    private final Duration settleAfter;
+    // open events: per-user status and counts
+    private final Map<Long, Tally> tallies = new ConcurrentHashMap<>();
+    // settled events: counts only
+    private final Map<Long, Summary> settled = new ConcurrentHashMap<>();
+
+    public RsvpCounts(RsvpRepository rsvpRepository, EventRepository eventRepository, NodeFanout fanout,
+                      @Value("${uwh.counts.settle-after-hours:24}") long settleAfterHours) {
+        this.rsvpRepository = rsvpRepository;
+        this.eventRepository = eventRepository;
+        this.fanout = fanout;
+        this.settleAfter = Duration.ofHours(settleAfterHours);
+        fanout.on("counts", (eventId, data) -> {
+            @SuppressWarnings("unchecked")
+            Map<String, String> statuses = (Map<String, String>) data.get("statuses");
+            statuses.forEach((userId, status) -> set(eventId, Long.valueOf(userId), status));
+        });
+        fanout.on("counts-user", (eventId, data) -> {
+            @SuppressWarnings("unchecked")
+            Map<String, String> statuses = (Map<String, String>) data.getOrDefault("statuses", Map.of());
+            Map<Long, String> byEvent = new HashMap<>();
+            statuses.forEach((id, status) -> byEvent.put(Long.valueOf(id), status));
+            removeUserLocal(((Number) data.get("userId")).longValue(), byEvent);
+        });
+        fanout.on("counts-event", (eventId, data) -> removeEventLocal(eventId));
+    }
+
+    /**
+     * Loads the stored RSVPs. Requests are served before the application is ready, so this
+     * merges rather than replaces: a status this node already recorded is newer than the
+     * stored one and is kept.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Instant cutoff = Instant.now().minus(settleAfter);
+        List<Object[]> rows = rsvpRepository.findStatusesForEventsSince(cutoff);
+        for (Object[] row : rows) {
+            tallies.computeIfAbsent((Long) row[0], id -> new Tally()).seed((Long) row[1], (String) row[2]);
+        }
+        Map<Long, Summary> past = new HashMap<>();
+        for (Object[] row : rsvpRepository.countStatusesForEventsBefore(cutoff)) {
+            Summary s = past.getOrDefault((Long) row[0], new Summary((Long) row[0], 0, 0, 0));
+            int n = ((Number) row[2]).intValue();
+            switch ((String) row[1]) {
+                case "yes": s = new Summary(s.eventId(), n, s.no(), s.maybe()); break;
+                case "no": s = new Summary(s.eventId(), s.yes(), n, s.maybe()); break;
+                case "maybe": s = new Summary(s.eventId(), s.yes(), s.no(), n); break;
+                default: break;
+            }
+            past.put(s.eventId(), s);
+        }
+        past.forEach((eventId, s) -> {
+            // a past event already recorded on here only holds those changes: fill in the rest
+            Tally t = tallies.get(eventId);
+            if (t == null) {
+                settled.putIfAbsent(eventId, s);
+            } else {
+                for (Rsvp r : rsvpRepository.findByEventId(eventId)) t.seed(r.getUserId(), r.getStatus());
+            }
+        });
+        System.out.println("Rebuilt RSVP counts for " + tallies.size() + " open and " + settled.size()
+                + " settled events from " + rows.size() + " open RSVPs");
+    }
+
+    /** Drops the per-user state of events that started more than settle-after-hours ago. */
+    @Scheduled(fixedDelayString = "${uwh.counts.settle-ms:3600000}", initialDelayString = "${uwh.counts.settle-ms:3600000}")
+    public void settle() {
+        if (tallies.isEmpty()) return;
+        List<Long> ids = eventRepository.findIdsStartedBefore(List.copyOf(tallies.keySet()),
+                Instant.now().minus(settleAfter));
+        for (Long id : ids) {
+            // counts are published to settled before the tally goes, so summary() always finds one
+            tallies.computeIfPresent(id, (eventId, t) -> {
+                settled.put(eventId, t.summary(eventId));
+                return null;
+            });
+        }
+    }
+
+    public void record(Long eventId, Long userId, String status) {
+        recordAll(eventId, Map.of(userId, status));
+    }
+
+    // one node message for the whole batch (admin import)
+    public void recordAll(Long eventId, Map<Long, String> statusByUser) {
+        if (statusByUser.isEmpty()) return;
+        statusByUser.forEach((userId, status) -> set(eventId, userId, status));
+        AfterCommit.run(() -> fanout.send(eventId, "counts", Map.of("statuses", statusByUser)));
+    }
+
+    /**
+     * Removes a deleted user's RSVPs. {@code statusByEvent} is what the user had per event;
+     * settled events no longer know their users, so their counts are lowered from it.
+     */
+    public void removeUser(Long userId, Map<Long, String> statusByEvent) {
+        removeUserLocal(userId, statusByEvent);
+        Map<String, String> statuses = new HashMap<>();
+        statusByEvent.forEach((eventId, status) -> statuses.put(eventId.toString(), status));
+        AfterCommit.run(() -> fanout.send(null, "counts-user", Map.of("userId", userId, "statuses", statuses)));
+    }
+
+    public void removeEvent(Long eventId) {
+        removeEventLocal(eventId);
+        AfterCommit.run(() -> fanout.send(eventId, "counts-event", Map.of()));
+    }
+
+    // a change to a settled event reopens it from the table (inside compute, so a concurrent
+    // settle() cannot interleave); the stored rows already include any synchronous write
+    private void set(Long eventId, Long userId, String status) {
+        tallies.compute(eventId, (id, t) -> {
+            if (t == null) {
+                t = new Tally();
+                if (settled.containsKey(id)) {
+                    for (Rsvp r : rsvpRepository.findByEventId(id)) t.set(r.getUserId(), r.getStatus());
+                    settled.remove(id);
+                }
+            }
+            t.set(userId, status);
+            return t;
+        });
+    }
+
+    private void removeUserLocal(Long userId, Map<Long, String> statusByEvent) {
+        for (Long eventId : tallies.keySet()) {
+            tallies.computeIfPresent(eventId, (id, t) -> {
+                t.set(userId, null);
+                return t;
+            });
+        }
+        statusByEvent.forEach((eventId, status) -> settled.computeIfPresent(eventId, (id, s) -> s.without(status)));
+    }
+
+    private void removeEventLocal(Long eventId) {
+        tallies.remove(eventId);
+        settled.remove(eventId);
+    }
+
+    public Summary summary(Long eventId) {
+        Tally t = tallies.get(eventId);
+        if (t != null) return t.summary(eventId);
+        Summary s = settled.get(eventId);
+        return s != null ? s : new Summary(eventId, 0, 0, 0);
+    }
+}
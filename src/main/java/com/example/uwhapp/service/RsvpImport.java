@@ -0,0 +1,216 @@
+package com.example.uwhapp.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.uwhapp.dto.RsvpBatchResultDto;
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Bulk RSVP / attendance import for one event, from a JSON array of
+ * {@code {"userId": 12, "status": "yes"}} objects or CSV lines of {@code userId,status}
+ * (an optional header row may name the columns in any order). "present"/"attended" count
+ * as yes and "absent" as no.
+ *
+ * The body is read token by token (JSON) or line by line (CSV), never bound to a tree, and
+ * each row is checked on its own: bad rows are reported by number (array position for JSON,
+ * line for CSV) and the rest still go in. User ids are checked with one IN query and the
+ * valid rows are written as one batched upsert. If a user appears twice, the later row wins.
+ */
+@Service
+public class RsvpImport {
+
+    private record Row(int row, String userId, String status) {}
+
+    private final ObjectMapper objectMapper;
+    private final UserRepository userRepo;
+    private final RsvpService rsvpService;
+    private final int maxRows;
+
+    public RsvpImport(ObjectMapper objectMapper,
+                      UserRepository userRepo,
+                      RsvpService rsvpService,
+                      @Value("${uwh.rsvps.batch.max-rows:10000}") int maxRows) {
+        this.objectMapper = objectMapper;
+        this.userRepo = userRepo;
+        this.rsvpService = rsvpService;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Throws IllegalArgumentException when the body as a whole cannot be read (not a JSON
+     * array, malformed JSON, more than {@code maxRows} rows); problems with single rows are
+     * returned in the result instead.
+     */
+    public RsvpBatchResultDto importRsvps(Long eventId, InputStream body, boolean csv) {
+        List<RsvpBatchResultDto.RowError> errors = new ArrayList<>();
+        List<Row> rows = new ArrayList<>();
+        int total;
+        try {
+            total = csv ? readCsv(body, rows, errors) : readJson(body, rows, errors);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        // latest row per user, in input order
+        Map<Long, String> statusByUser = new LinkedHashMap<>();
+        Map<Long, Integer> rowOf = new LinkedHashMap<>();
+        for (Row r : rows) {
+            Long userId = parseId(r.userId());
+            String status = normalise(r.status());
+            if (userId == null) {
+                errors.add(new RsvpBatchResultDto.RowError(r.row(), "userId missing or not a number: " + r.userId()));
+            } else if (status == null) {
+                errors.add(new RsvpBatchResultDto.RowError(r.row(), "status must be yes, no or maybe: " + r.status()));
+            } else {
+                statusByUser.remove(userId);
+                statusByUser.put(userId, status);
+                rowOf.put(userId, r.row());
+            }
+        }
+
+        // one IN query for every id in the file
+        Set<Long> known = new HashSet<>();
+        if (!statusByUser.isEmpty()) {
+            for (User u : userRepo.findAllById(statusByUser.keySet())) known.add(u.getId());
+        }
+        statusByUser.keySet().removeIf(userId -> {
+            if (known.contains(userId)) return false;
+            errors.add(new RsvpBatchResultDto.RowError(rowOf.get(userId), "no user with id " + userId));
+            return true;
+        });
+
+        rsvpService.upsertAll(eventId, statusByUser);
+        errors.sort((a, b) -> Integer.compare(a.row(), b.row()));
+        return new RsvpBatchResultDto(total, statusByUser.size(),
+                rsvpService.summary(eventId), errors);
+    }
+
+    // returns the number of array elements read
+    private int readJson(InputStream body, List<Row> rows, List<RsvpBatchResultDto.RowError> errors) throws IOException {
+        try (JsonParser p = objectMapper.getFactory().createParser(body)) {
+            if (p.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("expected a JSON array of {\"userId\", \"status\"} objects");
+            }
+            int row = 0;
+            for (JsonToken t = p.nextToken(); t != JsonToken.END_ARRAY; t = p.nextToken()) {
+                if (t == null) throw new IllegalArgumentException("JSON array is not closed");
+                row++;
+                checkSize(row);
+                if (t != JsonToken.START_OBJECT) {
+                    p.skipChildren();
+                    errors.add(new RsvpBatchResultDto.RowError(row, "expected an object"));
+                    continue;
+                }
+                String userId = null;
+                String status = null;
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    JsonToken value = p.nextToken();
+                    String text = value.isScalarValue() && value != JsonToken.VALUE_NULL ? p.getText() : null;
+                    if (!value.isScalarValue()) p.skipChildren();
+                    if ("userId".equals(field)) userId = text;
+                    else if ("status".equals(field)) status = text;
+                }
+                rows.add(new Row(row, userId, status));
+            }
+            return row;
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("malformed JSON: " + ex.getOriginalMessage()
+                    + " at line " + ex.getLocation().getLineNr() + ", column " + ex.getLocation().getColumnNr());
+        }
+    }
+
+    // returns the number of data lines read (not counting the header or blank lines)
+    private int readCsv(InputStream body, List<Row> rows, List<RsvpBatchResultDto.RowError> errors) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        int idColumn = 0;
+        int statusColumn = 1;
+        boolean first = true;
+        int line = 0;
+        int total = 0;
+        for (String text = reader.readLine(); text != null; text = reader.readLine()) {
+            line++;
+            if (text.isBlank()) continue;
+            String[] cells = text.split(",", -1);
+            for (int i = 0; i < cells.length; i++) cells[i] = unquote(cells[i]);
+            if (first) {
+                first = false;
+                if (parseId(cells[0]) == null) {
+                    // header row: find the columns by name
+                    idColumn = indexOf(cells, "userid", "user_id", "id");
+                    statusColumn = indexOf(cells, "status", "rsvp", "attendance");
+                    if (idColumn < 0 || statusColumn < 0) {
+                        throw new IllegalArgumentException("CSV header must have userId and status columns");
+                    }
+                    continue;
+                }
+            }
+            checkSize(++total);
+            if (cells.length <= Math.max(idColumn, statusColumn)) {
+                errors.add(new RsvpBatchResultDto.RowError(line, "expected userId and status"));
+                continue;
+            }
+            rows.add(new Row(line, cells[idColumn], cells[statusColumn]));
+        }
+        return total;
+    }
+
+    private void checkSize(int rows) {
+        if (rows > maxRows) throw new IllegalArgumentException("more than " + maxRows + " rows");
+    }
+
+    private static int indexOf(String[] cells, String... names) {
+        for (int i = 0; i < cells.length; i++) {
+            String c = cells[i].toLowerCase(Locale.ROOT);
+            for (String name : names) {
+                if (c.equals(name)) return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String unquote(String cell) {
+        String c = cell.trim();
+        if (c.length() >= 2 && c.startsWith("\"") && c.endsWith("\"")) c = c.substring(1, c.length() - 1).trim();
+        return c;
+    }
+
+    private static Long parseId(String s) {
+        if (s == null) return null;
+        try {
+            return Long.valueOf(s.trim());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static String normalise(String status) {
+        if (status == null) return null;
+        switch (status.trim().toLowerCase(Locale.ROOT)) {
+            case "yes": case "present": case "attended": return "yes";
+            case "no": case "absent": return "no";
+            case "maybe": return "maybe";
+            default: return null;
+        }
+    }
+}
@@ -3,27 +3,127 @@ package com.example.uwhapp.service;
 import com.example.uwhapp.model.Rsvp;
 import com.example.uwhapp.repository.RsvpRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class RsvpService {
     private final RsvpRepository rsvpRepository;
+    private final RsvpWriteBuffer writeBuffer;
+    private final RsvpCounts counts;
+    private final EventVersions versions;
+    private final EventStreamHub streamHub;
 
-    public RsvpService(RsvpRepository rsvpRepository) {
+    public RsvpService(RsvpRepository rsvpRepository, RsvpWriteBuffer writeBuffer, RsvpCounts counts,
+                       EventVersions versions, EventStreamHub streamHub) {
         this.rsvpRepository = rsvpRepository;
+        this.writeBuffer = writeBuffer;
+        this.counts = counts;
+        this.versions = versions;
+        this.streamHub = streamHub;
     }
 
+    public static boolean isValidStatus(String status) {
+        return "yes".equals(status) || "no".equals(status) || "maybe".equals(status);
+    }
+
+    // status must already be lower case; throws IllegalArgumentException for anything else
     public Rsvp upsert(Long eventId, Long userId, String status) {
-        Rsvp r = rsvpRepository.findByEventIdAndUserId(eventId, userId)
-                .orElse(new Rsvp(eventId, userId, status));
-        r.setStatus(status);
-        r.setRespondedAt(Instant.now());
-        return rsvpRepository.save(r);
+        if (!isValidStatus(status)) throw new IllegalArgumentException("status must be yes, no or maybe");
+        Rsvp saved = writeBuffer.isEnabled()
+                ? writeBuffer.put(eventId, userId, status)
+                : rsvpRepository.upsert(eventId, userId, status, Instant.now());
+        counts.record(eventId, userId, status);
+        versions.bump(eventId);
+        RsvpCounts.Summary c = counts.summary(eventId);
+        streamHub.publish(eventId, "rsvp", Map.of("userId", userId, "status", status,
+                "counts", Map.of("yes", c.yes(), "no", c.no(), "maybe", c.maybe())));
+        return saved;
+    }
+
+    /**
+     * Records many RSVPs for one event at once (admin import): one batched upsert, or the
+     * write-behind buffer when it is on, then a single version bump and one "rsvps" stream
+     * message instead of one per player.
+     */
+    public void upsertAll(Long eventId, Map<Long, String> statusByUser) {
+        if (statusByUser.isEmpty()) return;
+        if (writeBuffer.isEnabled()) {
+            statusByUser.forEach((userId, status) -> writeBuffer.put(eventId, userId, status));
+        } else {
+            Instant now = Instant.now();
+            List<Rsvp> batch = statusByUser.entrySet().stream().map(e -> {
+                Rsvp r = new Rsvp(eventId, e.getKey(), e.getValue());
+                r.setRespondedAt(now);
+                return r;
+            }).collect(Collectors.toList());
+            rsvpRepository.upsertAll(batch);
+        }
+        counts.recordAll(eventId, statusByUser);
+        versions.bump(eventId);
+        RsvpCounts.Summary c = counts.summary(eventId);
+        streamHub.publish(eventId, "rsvps", Map.of("statuses", statusByUser,
+                "counts", Map.of("yes", c.yes(), "no", c.no(), "maybe", c.maybe())));
+    }
+
+    // a user's own RSVP status per event, for the given events (one query)
+    public Map<Long, String> statusesForUser(Long userId, Collection<Long> eventIds) {
+        Map<Long, String> out = new HashMap<>();
+        if (eventIds.isEmpty()) return out;
+        for (Rsvp r : rsvpRepository.findByUserIdAndEventIdIn(userId, eventIds)) {
+            out.put(r.getEventId(), r.getStatus());
+        }
+        if (writeBuffer.isEnabled()) {
+            for (Rsvp r : writeBuffer.pendingForUser(userId)) {
+                if (eventIds.contains(r.getEventId())) out.put(r.getEventId(), r.getStatus());
+            }
+        }
+        return out;
+    }
+
+    public RsvpCounts.Summary summary(Long eventId) {
+        return counts.summary(eventId);
+    }
+
+    // drop a user's RSVPs everywhere (user deletion); buffered ones first, so the next flush
+    // cannot write them back for a user that no longer exists
+    public void deleteForUser(Long userId) {
+        List<Rsvp> dropped = writeBuffer.isEnabled() ? writeBuffer.dropForUser(userId) : List.of();
+        List<Rsvp> stored = rsvpRepository.findByUserId(userId);
+        Map<Long, String> statusByEvent = new HashMap<>();
+        for (Rsvp r : stored) statusByEvent.put(r.getEventId(), r.getStatus());
+        for (Rsvp r : dropped) statusByEvent.put(r.getEventId(), r.getStatus());
+        rsvpRepository.deleteAll(stored);
+        counts.removeUser(userId, statusByEvent);
+        versions.bumpAll();
     }
 
     public List<Rsvp> findYesForEvent(Long eventId) {
-        return rsvpRepository.findByEventIdAndStatus(eventId, "yes");
+        if (!writeBuffer.isEnabled()) {
+            return rsvpRepository.findByEventIdAndStatus(eventId, "yes");
+        }
+        return findForEvent(eventId).stream()
+                .filter(r -> "yes".equals(r.getStatus()))
+                .collect(Collectors.toList());
+    }
+
+    // all RSVPs for an event, including ones still waiting in the write-behind buffer
+    @Transactional(readOnly = true)
+    public List<Rsvp> findForEvent(Long eventId) {
+        List<Rsvp> stored = rsvpRepository.findByEventId(eventId);
+        if (!writeBuffer.isEnabled()) {
+            return stored;
+        }
+        Map<Long, Rsvp> byUser = new LinkedHashMap<>();
+        for (Rsvp r : stored) byUser.put(r.getUserId(), r);
+        for (Rsvp r : writeBuffer.pendingForEvent(eventId)) byUser.put(r.getUserId(), r);
+        return List.copyOf(byUser.values());
     }
 }
@@ -0,0 +1,141 @@
+package com.example.uwhapp.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.uwhapp.model.Rsvp;
+import com.example.uwhapp.repository.RsvpRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional write-behind buffer for RSVPs (rsvp.write-behind.enabled). RSVPs are acknowledged
+ * from a latest-wins map keyed by (event, user) and flushed as one batched upsert every
+ * rsvp.write-behind.flush-ms, or as soon as rsvp.write-behind.batch-size entries are pending.
+ * This keeps the post-notification RSVP burst from queueing on the small connection pool.
+ */
+@Component
+public class RsvpWriteBuffer {
+
+    private record Key(Long eventId, Long userId) {}
+
+    private final RsvpRepository rsvpRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Map<Key, Rsvp> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    // a lock rather than synchronized: flushes run on virtual threads and block on JDBC,
+    // which would pin the carrier thread inside a monitor
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public RsvpWriteBuffer(RsvpRepository rsvpRepository,
+                           @Value("${rsvp.write-behind.enabled:false}") boolean enabled,
+                           @Value("${rsvp.write-behind.batch-size:200}") int batchSize) {
+        this.rsvpRepository = rsvpRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Rsvp put(Long eventId, Long userId, String status) {
+        Rsvp r = new Rsvp(eventId, userId, status);
+        r.setRespondedAt(Instant.now());
+        pending.put(new Key(eventId, userId), r);
+        if (pending.size() >= batchSize && flushQueued.compareAndSet(false, true)) {
+            Thread.startVirtualThread(() -> {
+                flushQueued.set(false);
+                flush();
+            });
+        }
+        return r;
+    }
+
+    // pending (not yet flushed) RSVPs for an event, so reads see their own writes
+    public List<Rsvp> pendingForEvent(Long eventId) {
+        List<Rsvp> out = new ArrayList<>();
+        pending.forEach((k, r) -> {
+            if (k.eventId().equals(eventId)) out.add(r);
+        });
+        return out;
+    }
+
+    public List<Rsvp> pendingForUser(Long userId) {
+        List<Rsvp> out = new ArrayList<>();
+        pending.forEach((k, r) -> {
+            if (k.userId().equals(userId)) out.add(r);
+        });
+        return out;
+    }
+
+    /**
+     * Drops a user's pending RSVPs (user deletion) and returns them. Taking the flush lock waits out a flush
+     * already writing them, so once this returns no buffered row for the user can reach the
+     * table after the caller deletes the stored ones.
+     */
+    public List<Rsvp> dropForUser(Long userId) {
+        flushLock.lock();
+        try {
+            List<Rsvp> dropped = new ArrayList<>();
+            pending.entrySet().removeIf(e -> e.getKey().userId().equals(userId) && dropped.add(e.getValue()));
+            return dropped;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${rsvp.write-behind.flush-ms:250}")
+    public void scheduledFlush() {
+        if (enabled) flush();
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            if (pending.isEmpty()) return;
+            // copy, write, then remove: entries stay visible to pendingForEvent/User until
+            // they are in the table, so a read never finds an RSVP in neither place
+            Map<Key, Rsvp> batch = new LinkedHashMap<>(pending);
+            try {
+                rsvpRepository.upsertAll(new ArrayList<>(batch.values()));
+            } catch (RuntimeException e) {
+                System.err.println("RSVP flush of " + batch.size() + " entries failed, retrying one by one: " + e.getMessage());
+                retryOneByOne(batch);
+            }
+            // only drop the entry if no newer RSVP replaced it meanwhile
+            batch.forEach(pending::remove);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // a row that fails on its own (an event or user deleted since it was acknowledged) is
+    // dropped rather than requeued, so it cannot fail every later flush with it
+    private void retryOneByOne(Map<Key, Rsvp> batch) {
+        batch.forEach((k, r) -> {
+            try {
+                rsvpRepository.upsertAll(List.of(r));
+            } catch (RuntimeException e) {
+                System.err.println("Dropping buffered RSVP event=" + k.eventId() + " user=" + k.userId()
+                        + " (" + r.getStatus() + "): " + e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -1,104 +1,73 @@
 package com.example.uwhapp.service;
 
-import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.temporal.TemporalAdjusters;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import com.example.uwhapp.config.QueryBudgets;
 import com.example.uwhapp.model.Event;
-import com.example.uwhapp.repository.EventRepository;
 
 @Component
 public class ScheduledEventCreator {
 
-    private final EventRepository eventRepository;
-
-    private static final ZoneId NZ_ZONE = ZoneId.of("Pacific/Auckland");
-
-    public ScheduledEventCreator(EventRepository eventRepository) {
-        this.eventRepository = eventRepository;
+    private final EventService eventService;
+    private final RecurrenceMaterializer materializer;
+    private final QueryBudgets queryBudgets;
+    private final Workloads workloads;
+    private final JobLeases jobLeases;
+
+    public ScheduledEventCreator(EventService eventService, RecurrenceMaterializer materializer,
+            QueryBudgets queryBudgets, Workloads workloads, JobLeases jobLeases) {
+        this.eventService = eventService;
+        this.materializer = materializer;
+        this.queryBudgets = queryBudgets;
+        this.workloads = workloads;
+        this.jobLeases = jobLeases;
     }
 
     // ===============================
-    // THURSDAY — 7:30 PM
+    // RECURRING SESSIONS
     // ===============================
+    // sessions come from the recurrence_rules table; this keeps the horizon topped up daily
+    // and on startup, so a node that was down over 6am does not leave a gap
     @Scheduled(cron = "0 0 6 ? * *", zone = "Pacific/Auckland")
-    public void createThursdayEvent() {
-        createIfNotExists("UWH Session (Thursday)", getNextThursdayAt(19, 30));
+    public void materializeEvents() {
+        submit("SCHEDULED materializeEvents", Duration.ofHours(23));
     }
 
-    // ===============================
-    // SUNDAY — 4:30 PM
-    // ===============================
-    @Scheduled(cron = "0 0 6 ? * *", zone = "Pacific/Auckland")
-    public void createSundayEvent() {
-        createIfNotExists("UWH Session (Sunday)", getNextSundayAt(16, 30));
+    @EventListener(ApplicationReadyEvent.class)
+    public void materializeOnStartup() {
+        // short lease: the startup run must not block the 6am run that follows it
+        submit("SCHEDULED materializeEvents", Duration.ofMinutes(5));
     }
 
-    // ===============================
-    // CORE CREATION LOGIC
-    // ===============================
-    private void createIfNotExists(String title, Instant startTime) {
-
-        boolean exists = eventRepository
-                .existsByTitleAndStartTime(title, startTime);
-
-        if (exists) {
-            System.out.println("Event already exists: " + title);
-            return;
+    // runs on the events executor, isolated from push delivery and team generation, and on
+    // one node only: the lease outlives the rest of the day so late-firing nodes skip it
+    private void submit(String label, Duration lease) {
+        String leaseName = label.substring(label.indexOf(' ') + 1);
+        try {
+            workloads.events().execute(() -> jobLeases.runExclusively(leaseName, lease,
+                    () -> queryBudgets.measure(label, () -> {
+                        RecurrenceMaterializer.Result r = materializer.materialize();
+                        System.out.println("Materialised recurring events: " + r.created() + " created from "
+                                + r.occurrences() + " occurrences of " + r.rules() + " rules");
+                    })));
+        } catch (RejectedExecutionException ex) {
+            System.err.println(label + " skipped: " + ex.getMessage());
         }
-
-        Event e = new Event();
-        e.setTitle(title);
-        e.setLocation("Local Pool");
-        e.setStartTime(startTime);
-        e.setCreatedBy(null);
-
-        eventRepository.save(e);
-
-        System.out.println("Created scheduled event: " + title);
     }
 
-    // ===============================
-    // DATE HELPERS
-    // ===============================
-
-    private Instant getNextThursdayAt(int hour, int minute) {
-        return getNextDayAt(DayOfWeek.THURSDAY, hour, minute);
-    }
-
-    private Instant getNextSundayAt(int hour, int minute) {
-        return getNextDayAt(DayOfWeek.SUNDAY, hour, minute);
-    }
-
-    private Instant getNextDayAt(DayOfWeek day, int hour, int minute) {
-
-        ZonedDateTime now = ZonedDateTime.now(NZ_ZONE);
-
-        ZonedDateTime next = now
-                .with(TemporalAdjusters.nextOrSame(day))
-                .withHour(hour)
-                .withMinute(minute)
-                .withSecond(0)
-                .withNano(0);
-
-        // If time already passed today, go next week
-        if (next.isBefore(now)) {
-            next = next.plusWeeks(1);
-        }
-
-        return next.toInstant();
-    }
     public void createEventNow() { String title = "UWH Session (auto)"; String location = "Local Pool"; Instant start = Instant.now();
     Event e = new Event(); 
     e.setTitle(title); 
     e.setLocation(location); 
     e.setStartTime(start); 
     e.setCreatedBy(null); 
-    eventRepository.save(e); 
+    eventService.create(e); 
 }
 }
@@ -1,16 +1,20 @@
 package com.example.uwhapp.service;
 
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import com.example.uwhapp.config.QueryBudgets;
 import com.example.uwhapp.model.Event;
 import com.example.uwhapp.model.NotificationLog;
 import com.example.uwhapp.model.Rsvp;
@@ -32,6 +36,10 @@ public class ScheduledPushSender {
     private final RsvpService rsvpService;
     private final RsvpRepository rsvpRepository;
     private final TeamService teamService;
+    private final QueryBudgets queryBudgets;
+    private final Workloads workloads;
+    private final JobLeases jobLeases;
+    private final String autoMethod;
 
     private static final ZoneId NZ_ZONE = ZoneId.of("Pacific/Auckland");
 
@@ -40,7 +48,9 @@ public class ScheduledPushSender {
             NotificationLogRepository notificationLogRepository,
             WebPushService webPushService,
             RsvpRepository rsvpRepository, TeamService teamService, 
-            UserRepository userRepository, RsvpService rsvpService) {
+            UserRepository userRepository, RsvpService rsvpService,
+            QueryBudgets queryBudgets, Workloads workloads, JobLeases jobLeases,
+            @Value("${uwh.teams.auto-method:tiered}") String autoMethod) {
         this.eventRepository = eventRepository;
         this.subscriptionRepository = subscriptionRepository;
         this.userRepository = userRepository;
@@ -49,11 +59,22 @@ public class ScheduledPushSender {
         this.rsvpService = rsvpService;
         this.rsvpRepository = rsvpRepository;
         this.teamService = teamService;
+        this.queryBudgets = queryBudgets;
+        this.workloads = workloads;
+        this.jobLeases = jobLeases;
+        this.autoMethod = autoMethod;
     }
 
-    // run every 10 minutes in NZ time
+    // run every 10 minutes in NZ time. Only decides what is due: team generation and push
+    // delivery are handed to their own executors (see Workloads), so a slow push service
+    // never holds up this scan or the event-creation crons. One node per tick (see JobLeases).
     @Scheduled(cron = "0 */10 * * * *", zone = "Pacific/Auckland")
     public void checkAndSend() {
+        jobLeases.runExclusively("checkAndSend", Duration.ofMinutes(9),
+                () -> queryBudgets.measure("SCHEDULED checkAndSend", this::runCheckAndSend));
+    }
+
+    private void runCheckAndSend() {
         List<Event> events = eventRepository.findAll();
         ZonedDateTime now = ZonedDateTime.now(NZ_ZONE).withSecond(0).withNano(0);
 
@@ -70,8 +91,8 @@ public class ScheduledPushSender {
             if (isInWindow(prevRun, now, dayOf10)) {
                 Optional<NotificationLog> sent = notificationLogRepository.findByEventIdAndType(e.getId(), "DAY_OF_10AM");
                 if (sent.isEmpty()) {
-                    sendDayOfNotification(e);
                     notificationLogRepository.save(new NotificationLog(e.getId(), "DAY_OF_10AM"));
+                    sendDayOfNotification(e);
                 }
             }
 
@@ -79,29 +100,55 @@ public class ScheduledPushSender {
             ZonedDateTime oneHourBefore = evtStart.minusHours(1).withSecond(0).withNano(0);
             if (isInWindow(prevRun, now, oneHourBefore)) {
 // --- Generate balanced teams (once) before sending hour-before notification
-                Optional<NotificationLog> teamsGenerated = notificationLogRepository.findByEventIdAndType(e.getId(), "TEAMS_GENERATED");
-                if (teamsGenerated.isEmpty()) {
-                    try {
-                        List<Rsvp> yes = rsvpService.findYesForEvent(e.getId());
-                        String method = "balanced";
-                        
-
-                        System.out.println("Auto-generating teams for event" + e.getId() + "using method " +  method);
-                        teamService.generateAndSaveTeams(e.getId(), method);
-                        notificationLogRepository.save(new NotificationLog(e.getId(), "TEAMS_GENERATED"));
-                    } catch (Exception ex) {
-                        // ensure generation failure doesn't stop notifications
-                        System.out.println("Failed to generate teams for event " + e.getId() + "\nException : " + ex);
-                    }
+                boolean needTeams = notificationLogRepository.findByEventIdAndType(e.getId(), "TEAMS_GENERATED").isEmpty();
+                boolean needPush = notificationLogRepository.findByEventIdAndType(e.getId(), "HOUR_BEFORE").isEmpty();
+                if (needPush) {
+                    notificationLogRepository.save(new NotificationLog(e.getId(), "HOUR_BEFORE"));
                 }
+                Runnable hourBefore = needPush ? () -> sendHourBeforeNotification(e) : () -> {};
+                if (needTeams) {
+                    generateTeamsThen(e, hourBefore);
+                } else {
+                    hourBefore.run();
+                }
+            }
+        }
+    }
 
-                Optional<NotificationLog> sent = notificationLogRepository.findByEventIdAndType(e.getId(), "HOUR_BEFORE");
-                if (sent.isEmpty()) {
-                    sendHourBeforeNotification(e);
-                    notificationLogRepository.save(new NotificationLog(e.getId(), "HOUR_BEFORE"));
+    // teams go out with the hour-before push, so that push waits for generation to finish
+    private void generateTeamsThen(Event e, Runnable next) {
+        try {
+            workloads.teams().execute(() -> {
+                try {
+                    String method = autoMethod;
+                    System.out.println("Auto-generating teams for event" + e.getId() + "using method " +  method);
+                    teamService.generateAndSaveTeams(e.getId(), method);
+                    notificationLogRepository.save(new NotificationLog(e.getId(), "TEAMS_GENERATED"));
+                } catch (Exception ex) {
+                    // ensure generation failure doesn't stop notifications
+                    System.out.println("Failed to generate teams for event " + e.getId() + "\nException : " + ex);
+                } finally {
+                    next.run();
                 }
+            });
+        } catch (RejectedExecutionException ex) {
+            System.err.println("Team generation for event " + e.getId() + " not queued: " + ex.getMessage());
+            next.run();
+        }
+    }
+
+    private void fanOut(List<Subscription> subs, String payload) {
+        int dropped = 0;
+        for (Subscription s : subs) {
+            try {
+                workloads.push().execute(() -> webPushService.sendNotification(s, payload));
+            } catch (RejectedExecutionException ex) {
+                dropped++;
             }
         }
+        if (dropped > 0) {
+            System.err.println("Push queue full: " + dropped + " of " + subs.size() + " notifications dropped");
+        }
     }
 
     private boolean isInWindow(ZonedDateTime startInclusive, ZonedDateTime endInclusive, ZonedDateTime candidate) {
@@ -116,7 +163,7 @@ public class ScheduledPushSender {
 
     private void sendDayOfNotification(Event e) {
     // get all users who already responded (any status)
-    List<Rsvp> responded = rsvpRepository.findByEventId(e.getId());
+    List<Rsvp> responded = rsvpService.findForEvent(e.getId());
     Set<Long> respondedUserIds = responded.stream()
             .map(Rsvp::getUserId)
             .filter(Objects::nonNull)
@@ -135,14 +182,12 @@ public class ScheduledPushSender {
 
     String payload = String.format("{\"title\":\"%s\",\"body\":\"RSVP for the event now\",\"url\":\"/\"}",
             escapeJson(e.getTitle()));
-    for (Subscription s : subsToNotify) {
-        webPushService.sendNotification(s, payload);
-    }
+    fanOut(subsToNotify, payload);
 }
 
     private void sendHourBeforeNotification(Event e) {
-        // use RsvpRepository.findByEventIdAndStatus to find RSVPs with status "yes"
-        List<Rsvp> yesList = rsvpRepository.findByEventIdAndStatus(e.getId(), "yes");
+        // RSVPs with status "yes" (including any still in the write-behind buffer)
+        List<Rsvp> yesList = rsvpService.findYesForEvent(e.getId());
         List<Long> userIdsYes = yesList.stream()
                 .map(Rsvp::getUserId) // assumes Rsvp has getUserId()
                 .collect(Collectors.toList());
@@ -159,9 +204,7 @@ public class ScheduledPushSender {
 
         String payload = String.format("{\"title\":\"%s\",\"body\":\"Click this notification to see the teams\",\"url\":\"/\"}",
                 escapeJson(e.getTitle()));
-        for (Subscription s : subs) {
-            webPushService.sendNotification(s, payload);
-        }
+        fanOut(subs, payload);
     }
 
     private String escapeJson(String s) {
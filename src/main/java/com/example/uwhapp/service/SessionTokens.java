@@ -0,0 +1,103 @@
+package com.example.uwhapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compact HMAC-SHA256 session tokens: "v1.<payload>.<signature>", both base64url, where the
+ * payload is "userId:admin:issuedAtEpochSeconds:tokenVersion". Verification is purely in memory;
+ * AuthService compares the version against the user's current token_version to honour revocation.
+ *
+ * The secret must be at least 32 bytes (the HMAC-SHA256 block output size). Only the dev profile
+ * may leave it unset, in which case a random per-process key is used; anywhere else startup fails.
+ */
+@Component
+public class SessionTokens {
+
+    static final String PREFIX = "v1.";
+    static final int MIN_SECRET_BYTES = 32;
+
+    public record Claims(long userId, boolean admin, long issuedAt, int version) {}
+
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64D = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long maxAgeSeconds;
+
+    public SessionTokens(@Value("${auth.token.secret:}") String secret,
+                         @Value("${auth.token.max-age-hours:720}") long maxAgeHours,
+                         Environment env) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            if (!env.acceptsProfiles(Profiles.of("dev"))) {
+                throw new IllegalStateException("auth.token.secret (AUTH_TOKEN_SECRET) must be set outside the dev profile");
+            }
+            // tokens will not survive a restart (or work across replicas) without a configured secret
+            System.out.println("auth.token.secret not set; generating a random signing key for this process.");
+            keyBytes = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < MIN_SECRET_BYTES) {
+                throw new IllegalStateException("auth.token.secret must be at least " + MIN_SECRET_BYTES
+                        + " bytes, got " + keyBytes.length);
+            }
+        }
+        this.key = new SecretKeySpec(keyBytes, "HmacSHA256");
+        this.maxAgeSeconds = maxAgeHours * 3600;
+    }
+
+    public static boolean isSigned(String token) {
+        return token != null && token.startsWith(PREFIX);
+    }
+
+    public String issue(long userId, boolean admin, int version) {
+        long now = System.currentTimeMillis() / 1000;
+        String payload = B64.encodeToString((userId + ":" + (admin ? 1 : 0) + ":" + now + ":" + version)
+                .getBytes(StandardCharsets.UTF_8));
+        return PREFIX + payload + "." + B64.encodeToString(mac(PREFIX + payload));
+    }
+
+    public Optional<Claims> verify(String token) {
+        if (!isSigned(token)) return Optional.empty();
+        int dot = token.indexOf('.', PREFIX.length());
+        if (dot < 0) return Optional.empty();
+        try {
+            String payload = token.substring(PREFIX.length(), dot);
+            byte[] sig = B64D.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sig, mac(PREFIX + payload))) return Optional.empty();
+
+            String[] parts = new String(B64D.decode(payload), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 4) return Optional.empty();
+            Claims c = new Claims(Long.parseLong(parts[0]), "1".equals(parts[1]),
+                    Long.parseLong(parts[2]), Integer.parseInt(parts[3]));
+            if (System.currentTimeMillis() / 1000 - c.issuedAt() > maxAgeSeconds) return Optional.empty();
+            return Optional.of(c);
+        } catch (IllegalArgumentException e) {
+            // malformed base64 or numbers
+            return Optional.empty();
+        }
+    }
+
+    private byte[] mac(String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.uwhapp.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.uwhapp.dto.MemberDto;
+import com.example.uwhapp.dto.TeamDto;
+import com.example.uwhapp.model.User;
+
+/**
+ * Team generation in the background, for searches that take longer than a request should
+ * wait (big best-of-N draws, constrained searches near their time cap). A job loads the
+ * attendees up front and runs TeamService.generateAndSave on the "teams" workload; clients
+ * poll the job or watch the event stream for "generation" messages.
+ *
+ * Submitting the same request again (event, method, roster and options) while a job for it
+ * is still queued or running returns that job instead of starting another. The generation
+ * itself goes through TeamService's single-flight registry, so a job and a synchronous
+ * generate-teams call for the same request also share one run and one save. Jobs live in
+ * memory on the node that took them and are dropped {@code retention} after they finish, by a
+ * sweep every {@code uwh.teams.jobs.purge-ms} (and on each submit), so finished results do not
+ * pile up while nothing new is submitted.
+ */
+@Service
+public class TeamGenerationJobs {
+
+    public enum State { QUEUED, RUNNING, DONE, FAILED, CANCELLED }
+
+    private static final long PUBLISH_EVERY_NANOS = 250_000_000L;
+
+    private final TeamService teamService;
+    private final Workloads workloads;
+    private final EventStreamHub streamHub;
+    private final Duration retention;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    // dedup key -> the queued or running job for it
+    private final Map<String, Job> active = new ConcurrentHashMap<>();
+
+    public TeamGenerationJobs(TeamService teamService,
+                              Workloads workloads,
+                              EventStreamHub streamHub,
+                              @Value("${uwh.teams.jobs.retention-minutes:10}") long retentionMinutes) {
+        this.teamService = teamService;
+        this.workloads = workloads;
+        this.streamHub = streamHub;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    /**
+     * Queues a generation, or returns the unfinished job already working on the same request.
+     * Throws RejectedExecutionException when the teams workload is full.
+     */
+    public Job submit(Long eventId, String method, GenerationOptions options) {
+        purgeFinished();
+        List<User> attendees = teamService.attendees(eventId);
+        String key = TeamService.flightKey(eventId, method, attendees, options);
+
+        Job[] created = new Job[1];
+        Job job = active.compute(key, (k, current) -> current != null ? current
+                : (created[0] = new Job(eventId, method, options.withSeed(), this::publish)));
+        if (created[0] == null) return job;
+
+        job.task = new FutureTask<>(() -> run(job, key, attendees), null);
+        jobs.put(job.id, job);
+        try {
+            workloads.teams().execute(job.task);
+        } catch (RejectedExecutionException ex) {
+            active.remove(key, job);
+            jobs.remove(job.id);
+            throw ex;
+        }
+        publish(job);
+        return job;
+    }
+
+    public Job get(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    /**
+     * Asks the job to stop. A queued job is dropped at once; a running one stops at the
+     * generator's next check and saves nothing. Returns false if the job had already finished.
+     */
+    public boolean cancel(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null || job.finished()) return false;
+        job.cancelled = true;
+        if (job.task.cancel(false)) {
+            finish(job, State.CANCELLED, null);
+            active.values().remove(job);
+        }
+        return true;
+    }
+
+    private void run(Job job, String key, List<User> attendees) {
+        try {
+            job.started();
+            publish(job);
+            if (attendees.isEmpty()) {
+                job.result = List.of();
+                finish(job, State.DONE, null);
+                return;
+            }
+            // the job's own options carry its seed; the key (from submit) only the caller's
+            TeamService.GeneratedTeams generated = teamService.generateAndSave(key, job.eventId, job.method,
+                    attendees, job.options.withProgress(job));
+            if (job.cancelled) {
+                // waited on another caller's run, which saved its teams; this job saved nothing
+                finish(job, State.CANCELLED, null);
+                return;
+            }
+            List<List<User>> teams = generated.teams();
+            List<TeamDto> out = new ArrayList<>(teams.size());
+            for (int i = 0; i < teams.size(); i++) {
+                out.add(new TeamDto(i + 1, teams.get(i).stream().map(MemberDto::of).collect(Collectors.toList()),
+                        generated.seed()));
+            }
+            // joined another call's run: its seed is the one the saved teams carry
+            job.seed = generated.seed();
+            job.result = out;
+            finish(job, State.DONE, null);
+        } catch (CancellationException ex) {
+            finish(job, State.CANCELLED, null);
+        } catch (RuntimeException ex) {
+            System.err.println("Team generation job " + job.id + " failed: " + ex.getMessage());
+            finish(job, State.FAILED, ex.getMessage());
+        } finally {
+            active.remove(key, job);
+        }
+    }
+
+    private void finish(Job job, State state, String error) {
+        if (job.finish(state, error)) publish(job);
+    }
+
+    private void publish(Job job) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("jobId", job.id);
+        data.put("state", job.state.name());
+        data.put("progress", job.progress);
+        if (job.bestScore != null) data.put("bestScore", job.bestScore);
+        streamHub.publish(job.eventId, "generation", data);
+    }
+
+    // finished jobs are kept for polling until the retention runs out
+    @Scheduled(fixedDelayString = "${uwh.teams.jobs.purge-ms:60000}")
+    void purgeFinished() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(j -> j.finishedAt != null && j.finishedAt.isBefore(cutoff));
+    }
+
+    /**
+     * One generation request. Doubles as the generator's progress callback: reports update
+     * the fields polled by clients and reach the event stream at most every 250ms.
+     */
+    public static final class Job implements GenerationProgress {
+
+        private final String id = UUID.randomUUID().toString();
+        private final Long eventId;
+        private final String method;
+        private final GenerationOptions options;
+        private final Instant submittedAt = Instant.now();
+        private final Consumer<Job> publisher;
+
+        private volatile State state = State.QUEUED;
+        private volatile double progress;
+        private volatile Long bestScore;
+        private volatile String error;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile List<TeamDto> result;
+        private volatile boolean cancelled;
+        private volatile Long seed;
+        private volatile FutureTask<Void> task;
+        private long lastPublished;
+
+        Job(Long eventId, String method, GenerationOptions options, Consumer<Job> publisher) {
+            this.eventId = eventId;
+            this.method = method;
+            this.options = options;
+            this.publisher = publisher;
+        }
+
+        @Override
+        public void report(double fraction, long bestScore) {
+            long now = System.nanoTime();
+            synchronized (this) {
+                this.progress = Math.max(this.progress, Math.min(1.0, fraction));
+                this.bestScore = this.bestScore == null ? bestScore : Math.min(this.bestScore, bestScore);
+                if (now - lastPublished < PUBLISH_EVERY_NANOS) return;
+                lastPublished = now;
+            }
+            publisher.accept(this);
+        }
+
+        @Override
+        public boolean cancelled() {
+            return cancelled;
+        }
+
+        private synchronized void started() {
+            if (state == State.QUEUED) {
+                state = State.RUNNING;
+                startedAt = Instant.now();
+            }
+        }
+
+        // first finish wins; false if the job had already finished
+        private synchronized boolean finish(State state, String error) {
+            if (finished()) return false;
+            if (state == State.DONE) progress = 1.0;
+            this.state = state;
+            this.error = error;
+            this.finishedAt = Instant.now();
+            return true;
+        }
+
+        public boolean finished() {
+            return finishedAt != null;
+        }
+
+        public String getId() { return id; }
+        public Long getEventId() { return eventId; }
+        public String getMethod() { return method; }
+        public Long getSeed() { return seed != null ? seed : options.seed(); }
+        public State getState() { return state; }
+        public double getProgress() { return progress; }
+        public Long getBestScore() { return bestScore; }
+        public String getError() { return error; }
+        public Instant getSubmittedAt() { return submittedAt; }
+        public Instant getStartedAt() { return startedAt; }
+        public Instant getFinishedAt() { return finishedAt; }
+        public List<TeamDto> getResult() { return result; }
+    }
+}
@@ -7,4 +7,9 @@ import java.util.List;
 public interface TeamGenerator {
     // returns list of teams; each team is a list of users
     List<List<User>> makeTeams(List<User> attendees, int teamSize);
+
+    // generators that understand per-request options override this; the rest ignore them
+    default List<List<User>> makeTeams(List<User> attendees, int teamSize, GenerationOptions options) {
+        return makeTeams(attendees, teamSize);
+    }
 }
@@ -5,16 +5,27 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.uwhapp.dto.MemberDto;
+import com.example.uwhapp.dto.TeamDto;
 import com.example.uwhapp.model.Rsvp;
 import com.example.uwhapp.model.Team;
 import com.example.uwhapp.model.TeamMember;
 import com.example.uwhapp.model.User;
+import com.example.uwhapp.repository.EventRepository;
 import com.example.uwhapp.repository.TeamMemberRepository;
 import com.example.uwhapp.repository.TeamRepository;
 import com.example.uwhapp.repository.UserRepository;
@@ -27,13 +38,45 @@ public class TeamService {
     private final RsvpService rsvpService;
     private final UserRepository userRepo;
     private final Map<String, TeamGenerator> generators;
+    private final EventVersions versions;
+    private final EventStreamHub streamHub;
+    private final TeammateHistory history;
+    private final EventRepository eventRepo;
+    private final TransactionTemplate writes;
+    private final EntityCacheFanout entityCache;
+    private final long flightWindowNanos;
+    private final int defaultTeams;
+    private final int largeRoster;
+    private final int largeRosterTeams;
+    // flight key -> the running or just-finished generation for it (see generateAndSaveTeams)
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
 
     public TeamService(TeamRepository teamRepo,
             TeamMemberRepository teamMemberRepo,
             RsvpService rsvpService,
             UserRepository userRepo,
-            List<TeamGenerator> generatorList) {
+            List<TeamGenerator> generatorList,
+            EventVersions versions,
+            EventStreamHub streamHub,
+            TeammateHistory history,
+            EventRepository eventRepo,
+            PlatformTransactionManager txManager,
+            EntityCacheFanout entityCache,
+            @Value("${uwh.teams.single-flight.window-ms:2000}") long flightWindowMillis,
+            @Value("${uwh.teams.default-count:2}") int defaultTeams,
+            @Value("${uwh.teams.large-roster:20}") int largeRoster,
+            @Value("${uwh.teams.large-roster-count:4}") int largeRosterTeams) {
         this.teamRepo = teamRepo;
+        this.eventRepo = eventRepo;
+        this.writes = new TransactionTemplate(txManager);
+        this.entityCache = entityCache;
+        this.flightWindowNanos = flightWindowMillis * 1_000_000L;
+        this.defaultTeams = defaultTeams;
+        this.largeRoster = largeRoster;
+        this.largeRosterTeams = largeRosterTeams;
+        this.history = history;
+        this.versions = versions;
+        this.streamHub = streamHub;
         this.teamMemberRepo = teamMemberRepo;
         this.rsvpService = rsvpService;
         this.userRepo = userRepo;
@@ -43,6 +86,8 @@ public class TeamService {
             String name = g.getClass().getAnnotation(org.springframework.stereotype.Component.class).value();
             generators.put(name, g);
         });
+        // the fixed four-team generator was generalised into "tiered"; keep its name working
+        generators.put("uneven-balanced", generators.get("tiered"));
     }
 
     @Transactional
@@ -60,12 +105,10 @@ public class TeamService {
             return;
         }
         List<Long> memberIds = members.stream().map(TeamMember::getUserId).collect(Collectors.toList());
-        List<User> users = userRepo.findAllById(memberIds);
-        for (User u : users) {
-            Integer s = u.getSkill() == null ? 0 : u.getSkill();
-            u.setSkill(s + delta);
-        }
-        userRepo.saveAll(users);
+        userRepo.adjustSkill(memberIds, delta);
+        // Hibernate drops these users from this node's cache itself; the other nodes are told
+        entityCache.evicted(User.class, memberIds);
+        versions.bumpAll();
     }
 
     /**
@@ -173,53 +216,153 @@ public class TeamService {
 
         if (!modifiedUsers.isEmpty()) {
             userRepo.saveAll(new ArrayList<>(modifiedUsers.values()));
+            versions.bumpAll();
+            Map<Long, Integer> skills = new HashMap<>();
+            modifiedUsers.values().forEach(u -> skills.put(u.getId(), u.getSkill()));
+            streamHub.publish(eventId, "skills", Map.of("skills", skills));
         }
 
         return Map.of("updatedCount", modifiedUsers.size());
     }
 
-    @Transactional
-    public List<List<User>> generateAndSaveTeams(Long eventId, String method) {
-        List<Rsvp> yes = rsvpService.findYesForEvent(eventId);
-        List<Long> userIds = yes.stream().map(Rsvp::getUserId).collect(Collectors.toList());
-        if (userIds.isEmpty()) {
-            return Collections.emptyList();
+    // teams as saved, with the seed that produced them
+    public record GeneratedTeams(List<List<User>> teams, Long seed) {}
+
+    public GeneratedTeams generateAndSaveTeams(Long eventId, String method) {
+        return generateAndSaveTeams(eventId, method, GenerationOptions.NONE);
+    }
+
+    /**
+     * Generates and saves teams for the event's "yes" RSVPs. Requests with together/apart
+     * constraints are solved by the "constrained" generator whatever the method; an
+     * unsatisfiable set of constraints throws IllegalArgumentException. A missing seed is
+     * filled in, and the seed used is stored on every saved team.
+     *
+     * Single-flight (see generateAndSave): identical calls made together share one set of
+     * teams and one write, including with a TeamGenerationJobs job for the same request.
+     */
+    public GeneratedTeams generateAndSaveTeams(Long eventId, String method, GenerationOptions options) {
+        List<User> attendees = attendees(eventId);
+        if (attendees.isEmpty()) {
+            return new GeneratedTeams(Collections.emptyList(), null);
         }
+        return generateAndSave(flightKey(eventId, method, attendees, options), eventId, method, attendees, options);
+    }
 
-        List<User> attendees = userRepo.findAllById(userIds);
+    /**
+     * The one registry of team generations in flight, shared by the request path and the
+     * background jobs. A call that arrives while an identical one (same event, method, roster
+     * and options; the seed only if the caller fixed one; see flightKey) is running, or up to
+     * {@code flightWindowMillis} after it finished, gets that call's teams instead of making
+     * new ones. A double-tapped button, an async job, or the auto-generation racing an admin
+     * therefore makes one set of teams and one write. No transaction is open while generating
+     * or waiting; the save is its own short transaction.
+     *
+     * A run whose progress callback reports cancelled saves nothing and throws
+     * CancellationException; callers that were waiting on it start a run of their own.
+     */
+    GeneratedTeams generateAndSave(String key, Long eventId, String method, List<User> attendees,
+                                   GenerationOptions options) {
+        while (true) {
+            long now = System.nanoTime();
+            flights.values().removeIf(f -> f.expired(now));
+            Flight mine = new Flight();
+            Flight flight = flights.compute(key, (k, current) -> current != null && !current.expired(now) ? current : mine);
+            if (flight != mine) {
+                try {
+                    return flight.result.join();
+                } catch (CancellationException ex) {
+                    continue;
+                } catch (CompletionException ex) {
+                    if (ex.getCause() instanceof CancellationException) continue;
+                    throw ex.getCause() instanceof RuntimeException re ? re : ex;
+                }
+            }
+            try {
+                GenerationOptions seeded = options.withSeed();
+                List<List<User>> teams = generate(attendees, method, seeded);
+                if (seeded.progress().cancelled()) throw new CancellationException();
+                writes.executeWithoutResult(status -> saveTeams(eventId, method, seeded, teams));
+                GeneratedTeams result = new GeneratedTeams(teams, seeded.seed());
+                mine.finishedAt = System.nanoTime();
+                mine.result.complete(result);
+                return result;
+            } catch (RuntimeException ex) {
+                // failures are not shared past the callers already waiting; the next call retries
+                flights.remove(key, mine);
+                mine.result.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+    }
 
-        // determine number of teams
-        int numPlayers = attendees.size();
-        int numTeams;
-        if (numPlayers > 19) {
-            numTeams = 4;
-        } else {
-            numTeams = 2;
+    // one generateAndSave computation and the callers sharing it
+    private final class Flight {
+        final CompletableFuture<GeneratedTeams> result = new CompletableFuture<>();
+        // nanoTime when it finished, set before the result is completed
+        volatile long finishedAt;
+
+        boolean expired(long now) {
+            return result.isDone() && now - finishedAt > flightWindowNanos;
         }
+    }
+
+    // everything that decides the teams; the seed only when the caller fixed one
+    static String flightKey(Long eventId, String method, List<User> attendees, GenerationOptions options) {
+        String roster = attendees.stream().map(User::getId).sorted().map(String::valueOf).collect(Collectors.joining(","));
+        return eventId + "|" + method + "|" + roster + "|" + options.together() + "|" + options.apart()
+                + "|" + options.seed() + "|" + options.draws() + "|" + options.tiers() + "|" + options.teams();
+    }
+
+    // users with a "yes" RSVP for the event
+    public List<User> attendees(Long eventId) {
+        List<Long> userIds = rsvpService.findYesForEvent(eventId).stream().map(Rsvp::getUserId).collect(Collectors.toList());
+        return userIds.isEmpty() ? Collections.emptyList() : userRepo.findAllById(userIds);
+    }
+
+    /**
+     * Runs the generator only, with no transaction or connection held, for callers that
+     * compute for a while before saving (see TeamGenerationJobs). Options must carry a seed.
+     */
+    public List<List<User>> generate(List<User> attendees, String method, GenerationOptions options) {
+        int numPlayers = attendees.size();
+        // as requested, else the configured default for a roster this size; never more teams than players
+        int numTeams = options.teamCount(numPlayers, 1);
+        if (options.teams() == null) numTeams = Math.max(1, Math.min(numPlayers, defaultTeamCount(numPlayers)));
         int teamSize = (int) Math.ceil((double) numPlayers / numTeams);
-        TeamGenerator generator = generators.getOrDefault(method, generators.get("random"));
-        List<List<User>> teams = generator.makeTeams(attendees, teamSize);
+        TeamGenerator generator = options.hasConstraints() ? generators.get("constrained")
+                : generators.getOrDefault(method, generators.get("random"));
+        return generator.makeTeams(attendees, teamSize, options.withTeams(numTeams));
+    }
+
+    // teams made when the request does not say (the API default and auto-generation)
+    int defaultTeamCount(int players) {
+        return players >= largeRoster ? largeRosterTeams : defaultTeams;
+    }
 
+    // replaces the event's saved teams with these, one writer per event at a time
+    @Transactional
+    public void saveTeams(Long eventId, String method, GenerationOptions options, List<List<User>> teams) {
+        eventRepo.lockTeams(eventId);
         // remove existing teams for event (simple approach)
         List<Team> existing = teamRepo.findByEventIdOrderByTeamIndex(eventId);
         if (!existing.isEmpty()) {
             List<Long> existingIds = existing.stream().map(Team::getId).collect(Collectors.toList());
             // delete members then teams
             List<TeamMember> membersToDelete = teamMemberRepo.findByTeamIdIn(existingIds);
-            teamMemberRepo.deleteAll(membersToDelete);
-            teamRepo.deleteAll(existing);
+            teamMemberRepo.deleteByTeamIds(existingIds);
+            teamRepo.deleteByEventId(eventId);
+            forgetAfterCommit(membersToDelete);
         }
 
-        // persist teams
-        for (int i = 0; i < teams.size(); i++) {
-            Team t = new Team(eventId, i + 1);
-            teamRepo.save(t);
-            for (User u : teams.get(i)) {
-                teamMemberRepo.save(new TeamMember(t.getId(), u.getId()));
-            }
-        }
-
-        return teams;
+        // persist teams: a fixed number of statements however many players there are
+        List<List<Long>> memberIds = teams.stream()
+                .map(team -> team.stream().map(User::getId).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+        teamRepo.insertAll(eventId, options.seed(), options.draws() > 1 ? options.draws() : null, memberIds);
+        versions.bump(eventId);
+        AfterCommit.run(() -> history.recordTeams(memberIds));
+        streamHub.publish(eventId, "teams", Map.of("method", method, "teams", memberIds));
     }
 
     public List<Team> getTeamsForEvent(Long eventId) {
@@ -227,45 +370,55 @@ public class TeamService {
     }
 
     @Transactional(readOnly = true)
-    public List<Map<String, Object>> getSavedTeams(Long eventId) {
+    public List<TeamDto> getSavedTeams(Long eventId) {
         List<Team> teams = teamRepo.findByEventIdOrderByTeamIndex(eventId);
         if (teams.isEmpty()) {
             return Collections.emptyList();
         }
 
-        List<Map<String, Object>> out = new ArrayList<>();
+        // three queries regardless of team count: teams, all their members, all member users
+        List<Long> teamIds = teams.stream().map(Team::getId).collect(Collectors.toList());
+        Map<Long, List<Long>> memberIdsByTeam = new HashMap<>();
+        for (TeamMember tm : teamMemberRepo.findByTeamIdIn(teamIds)) {
+            memberIdsByTeam.computeIfAbsent(tm.getTeamId(), k -> new ArrayList<>()).add(tm.getUserId());
+        }
+        List<Long> allMemberIds = memberIdsByTeam.values().stream().flatMap(List::stream).collect(Collectors.toList());
+        Map<Long, User> usersById = allMemberIds.isEmpty() ? Collections.emptyMap()
+                : userRepo.findAllById(allMemberIds).stream().collect(Collectors.toMap(User::getId, u -> u));
+
+        List<TeamDto> out = new ArrayList<>(teams.size());
         for (Team t : teams) {
-            List<TeamMember> members = teamMemberRepo.findByTeamId(t.getId());
-            List<Long> memberIds = members.stream().map(TeamMember::getUserId).collect(Collectors.toList());
-            List<User> users = memberIds.isEmpty() ? Collections.emptyList() : userRepo.findAllById(memberIds);
-
-            List<Map<String, Object>> memberDtos = users.stream().map(u -> {
-                Map<String, Object> m = new HashMap<>();
-                m.put("id", u.getId());
-                m.put("name", u.getName());
-                m.put("skill", u.getSkill());
-                return m;
-            }).collect(Collectors.toList());
-
-            Map<String, Object> teamMap = new HashMap<>();
-            teamMap.put("teamIndex", t.getTeamIndex());
-            teamMap.put("members", memberDtos);
-            out.add(teamMap);
+            List<MemberDto> members = memberIdsByTeam.getOrDefault(t.getId(), Collections.emptyList())
+                    .stream()
+                    .map(usersById::get)
+                    .filter(Objects::nonNull)
+                    .map(MemberDto::of)
+                    .collect(Collectors.toList());
+            out.add(new TeamDto(t.getTeamIndex(), members, t.getSeed()));
         }
         return out;
     }
 
     @Transactional
     public void deleteTeamsForEvent(Long eventId) {
+        eventRepo.lockTeams(eventId);
         List<Team> existing = teamRepo.findByEventIdOrderByTeamIndex(eventId);
         if (existing.isEmpty()) {
             return;
         }
         List<Long> existingIds = existing.stream().map(Team::getId).collect(Collectors.toList());
         List<TeamMember> membersToDelete = teamMemberRepo.findByTeamIdIn(existingIds);
-        if (!membersToDelete.isEmpty()) {
-            teamMemberRepo.deleteAll(membersToDelete);
-        }
-        teamRepo.deleteAll(existing);
+        teamMemberRepo.deleteByTeamIds(existingIds);
+        teamRepo.deleteByEventId(eventId);
+        forgetAfterCommit(membersToDelete);
+        versions.bump(eventId);
+    }
+
+    // replaced or deleted teams no longer count as history once the delete commits
+    private void forgetAfterCommit(List<TeamMember> removed) {
+        if (removed.isEmpty()) return;
+        Map<Long, List<Long>> byTeam = removed.stream().collect(
+                Collectors.groupingBy(TeamMember::getTeamId, Collectors.mapping(TeamMember::getUserId, Collectors.toList())));
+        AfterCommit.run(() -> history.forgetTeams(byTeam.values()));
     }
 }
@@ -0,0 +1,124 @@
+package com.example.uwhapp.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.uwhapp.repository.TeamMemberRepository;
+
+/**
+ * How often each pair of players has been on the same saved team. Built from team_members
+ * on boot and then kept in step by TeamService as teams are saved and replaced, so it never
+ * rescans the full history after startup.
+ *
+ * Sparse: only pairs that have actually played together have an entry, keyed by both user
+ * ids packed into one long (smaller id in the high half). Generators take a dense
+ * triangular snapshot for just the players they are placing.
+ *
+ * Every node keeps its own copy. Recorded and forgotten teams are passed on through
+ * NodeFanout; TeamService calls in here once the teams are committed.
+ */
+@Component
+public class TeammateHistory {
+
+    private final TeamMemberRepository teamMemberRepository;
+    private final NodeFanout fanout;
+    private final Map<Long, Integer> together = new ConcurrentHashMap<>();
+
+    public TeammateHistory(TeamMemberRepository teamMemberRepository, NodeFanout fanout) {
+        this.teamMemberRepository = teamMemberRepository;
+        this.fanout = fanout;
+        fanout.on("history-record", (eventId, data) -> teams(data).forEach(team -> adjust(team, 1)));
+        fanout.on("history-forget", (eventId, data) -> teams(data).forEach(team -> adjust(team, -1)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Long, List<Long>> byTeam = new HashMap<>();
+        List<Object[]> rows = teamMemberRepository.findAllTeamUserIds();
+        for (Object[] row : rows) {
+            byTeam.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((Long) row[1]);
+        }
+        together.clear();
+        byTeam.values().forEach(team -> adjust(team, 1));
+        System.out.println("Rebuilt teammate history: " + together.size() + " pairs from " + byTeam.size() + " teams");
+    }
+
+    // a set of teams was saved; each inner collection is one team's user ids
+    public void recordTeams(Collection<? extends Collection<Long>> teams) {
+        teams.forEach(team -> adjust(team, 1));
+        fanout.send(null, "history-record", Map.of("teams", teams));
+    }
+
+    // saved teams were deleted or replaced by a regeneration
+    public void forgetTeams(Collection<? extends Collection<Long>> teams) {
+        teams.forEach(team -> adjust(team, -1));
+        fanout.send(null, "history-forget", Map.of("teams", teams));
+    }
+
+    public int timesTogether(long a, long b) {
+        return together.getOrDefault(key(a, b), 0);
+    }
+
+    /**
+     * Dense snapshot for {@code ids}: the count for ids[i], ids[j] (i < j) is at
+     * {@link #index(int, int, int)}. Capped at Short.MAX_VALUE, far beyond any real history.
+     */
+    public short[] snapshot(long[] ids) {
+        int n = ids.length;
+        short[] out = new short[n * (n - 1) / 2];
+        if (together.isEmpty()) return out;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                Integer c = together.get(key(ids[i], ids[j]));
+                if (c != null) out[index(i, j, n)] = (short) Math.min(c, Short.MAX_VALUE);
+            }
+        }
+        return out;
+    }
+
+    // position of pair (i, j), i < j, in an n-player packed upper triangle
+    public static int index(int i, int j, int n) {
+        return i * (2 * n - i - 1) / 2 + (j - i - 1);
+    }
+
+    public int size() {
+        return together.size();
+    }
+
+    private void adjust(Collection<Long> team, int delta) {
+        List<Long> ids = new ArrayList<>(team);
+        for (int i = 0; i < ids.size(); i++) {
+            for (int j = i + 1; j < ids.size(); j++) {
+                long k = key(ids.get(i), ids.get(j));
+                if (delta > 0) together.merge(k, delta, Integer::sum);
+                else together.computeIfPresent(k, (x, c) -> c + delta <= 0 ? null : c + delta);
+            }
+        }
+    }
+
+    // the teams of a history-record/-forget message: JSON arrays of user ids
+    private static List<List<Long>> teams(Map<String, Object> data) {
+        List<List<Long>> out = new ArrayList<>();
+        for (Object team : (List<?>) data.get("teams")) {
+            List<Long> ids = new ArrayList<>();
+            for (Object id : (List<?>) team) ids.add(((Number) id).longValue());
+            out.add(ids);
+        }
+        return out;
+    }
+
+    // user ids are identity-generated and stay well below 2^32
+    private static long key(long a, long b) {
+        long lo = Math.min(a, b);
+        long hi = Math.max(a, b);
+        return (lo << 32) | hi;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.uwhapp.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Separate executors for the background subsystems, so a slow push service cannot hold up
+ * team generation or the event-creation crons, and none of them can take more than their
+ * share of database connections away from request handling.
+ */
+@Component
+public class Workloads {
+
+    private final BoundedExecutor push;
+    private final BoundedExecutor teams;
+    private final BoundedExecutor events;
+
+    public Workloads(@Value("${uwh.workloads.push.concurrency:4}") int pushConcurrency,
+                     @Value("${uwh.workloads.push.queue:1000}") int pushQueue,
+                     @Value("${uwh.workloads.teams.concurrency:1}") int teamsConcurrency,
+                     @Value("${uwh.workloads.teams.queue:20}") int teamsQueue,
+                     @Value("${uwh.workloads.events.concurrency:1}") int eventsConcurrency,
+                     @Value("${uwh.workloads.events.queue:10}") int eventsQueue) {
+        this.push = new BoundedExecutor("push", pushConcurrency, pushQueue);
+        this.teams = new BoundedExecutor("teams", teamsConcurrency, teamsQueue);
+        this.events = new BoundedExecutor("events", eventsConcurrency, eventsQueue);
+    }
+
+    // web-push fan-out; tasks make HTTP calls only and hold no connection
+    public BoundedExecutor push() {
+        return push;
+    }
+
+    // automatic team generation
+    public BoundedExecutor teams() {
+        return teams;
+    }
+
+    // scheduled event creation
+    public BoundedExecutor events() {
+        return events;
+    }
+
+    public List<BoundedExecutor.Stats> stats() {
+        return List.of(push.stats(), teams.stats(), events.stats());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        events.shutdown(10);
+        teams.shutdown(10);
+        push.shutdown(10);
+    }
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import org.springframework.stereotype.Component;
 
 import com.example.uwhapp.model.User;
+import com.example.uwhapp.service.GenerationOptions;
 import com.example.uwhapp.service.TeamGenerator;
 
 @Component("balanced")
@@ -14,6 +15,11 @@ public class BalancedTeamGenerator implements TeamGenerator {
 
     @Override
     public List<List<User>> makeTeams(List<User> attendees, int teamSize) {
+        return makeTeams(attendees, teamSize, GenerationOptions.NONE);
+    }
+
+    @Override
+    public List<List<User>> makeTeams(List<User> attendees, int teamSize, GenerationOptions options) {
 
         List<User> pool = new ArrayList<>(attendees);
 
@@ -21,7 +27,7 @@ public class BalancedTeamGenerator implements TeamGenerator {
         pool.sort(Comparator.comparingInt(User::getSkill).reversed());
 
         int n = pool.size();
-        int numTeams = Math.max(1, (n + teamSize - 1) / teamSize);
+        int numTeams = options.teamCount(n, teamSize);
 
         // Create teams
         List<List<User>> teams = new ArrayList<>();
@@ -0,0 +1,317 @@
+package com.example.uwhapp.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.service.GenerationOptions;
+import com.example.uwhapp.service.GenerationProgress;
+import com.example.uwhapp.service.TeamGenerator;
+
+/**
+ * Skill-balanced teams under hard "together" and "apart" constraints. TeamService routes
+ * any request carrying constraints here, whichever method was asked for.
+ *
+ * Must-together players are merged with union-find into groups that are placed as one
+ * unit; apart constraints become conflicts between groups. Groups are then assigned by
+ * depth-first branch-and-bound, biggest and strongest first, minimising the spread between
+ * the strongest and weakest team total:
+ * - bound: the final strongest team is at least max(current strongest, mean) and the final
+ *   weakest at most min(current weakest + unplaced skill, mean), so a branch is cut once
+ *   that gap cannot beat the best found;
+ * - symmetry: team labels are interchangeable, so a group only ever tries the first empty
+ *   team, never a second one;
+ * - incumbent: the first complete split is polished by equal-size swaps before the search
+ *   goes on, so the bound starts out tight;
+ * - time cap: the search stops after {@code timeLimitMillis} with the best assignment so far.
+ *
+ * Team sizes stay within one of each other when the groups allow it; otherwise the allowed
+ * difference is widened one player at a time until a split exists.
+ */
+@Component("constrained")
+public class ConstrainedTeamGenerator implements TeamGenerator {
+
+    private final long timeLimitMillis;
+
+    public ConstrainedTeamGenerator(@Value("${uwh.teams.constrained.time-limit-ms:250}") long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    @Override
+    public List<List<User>> makeTeams(List<User> attendees, int teamSize) {
+        return makeTeams(attendees, teamSize, GenerationOptions.NONE);
+    }
+
+    @Override
+    public List<List<User>> makeTeams(List<User> attendees, int teamSize, GenerationOptions options) {
+        int n = attendees.size();
+        int numTeams = options.teamCount(n, teamSize);
+        Map<Long, Integer> index = new HashMap<>();
+        for (int i = 0; i < n; i++) index.put(attendees.get(i).getId(), i);
+
+        // union-find over attendees for the together groups
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) parent[i] = i;
+        for (List<Long> group : options.together()) {
+            int first = -1;
+            for (Long id : group == null ? List.<Long>of() : group) {
+                Integer i = index.get(id);
+                if (i == null) continue;
+                if (first < 0) first = i;
+                else parent[find(parent, i)] = find(parent, first);
+            }
+        }
+
+        // one search unit per union-find root, biggest then strongest first
+        Map<Integer, List<Integer>> byRoot = new HashMap<>();
+        for (int i = 0; i < n; i++) byRoot.computeIfAbsent(find(parent, i), r -> new ArrayList<>()).add(i);
+        List<List<Integer>> units = new ArrayList<>(byRoot.values());
+        units.sort(Comparator.comparingInt((List<Integer> u) -> u.size())
+                .thenComparingLong(u -> skillOf(attendees, u)).reversed());
+        int g = units.size();
+        int[] unitOf = new int[n];
+        int[] unitSize = new int[g];
+        long[] unitSkill = new long[g];
+        for (int u = 0; u < g; u++) {
+            for (int i : units.get(u)) unitOf[i] = u;
+            unitSize[u] = units.get(u).size();
+            unitSkill[u] = skillOf(attendees, units.get(u));
+        }
+
+        // apart groups become pairwise conflicts between units
+        List<List<Integer>> conflicts = new ArrayList<>(g);
+        for (int u = 0; u < g; u++) conflicts.add(new ArrayList<>());
+        for (List<Long> group : options.apart()) {
+            List<Integer> us = new ArrayList<>();
+            for (Long id : group == null ? List.<Long>of() : group.stream().distinct().toList()) {
+                Integer i = index.get(id);
+                if (i != null) us.add(unitOf[i]);
+            }
+            for (int a = 0; a < us.size(); a++) {
+                for (int b = a + 1; b < us.size(); b++) {
+                    if (us.get(a).equals(us.get(b))) {
+                        throw new IllegalArgumentException("players " + group + " must be both together and apart");
+                    }
+                    conflicts.get(us.get(a)).add(us.get(b));
+                    conflicts.get(us.get(b)).add(us.get(a));
+                }
+            }
+        }
+        int[][] conflictsOf = new int[g][];
+        for (int u = 0; u < g; u++) conflictsOf[u] = conflicts.get(u).stream().mapToInt(Integer::intValue).toArray();
+
+        long started = System.nanoTime();
+        long deadline = started + timeLimitMillis * 1_000_000L;
+        int base = n / numTeams;
+        int cap = (n + numTeams - 1) / numTeams;
+        for (int slack = 0; slack <= n; slack++) {
+            Search s = new Search(numTeams, unitSize, unitSkill, conflictsOf,
+                    Math.max(0, base - slack), cap + slack, started, deadline, options.progress());
+            s.run();
+            if (options.progress().cancelled()) throw new CancellationException("team generation cancelled");
+            if (s.best != null) {
+                List<List<User>> teams = new ArrayList<>(numTeams);
+                for (int t = 0; t < numTeams; t++) teams.add(new ArrayList<>());
+                for (int i = 0; i < n; i++) teams.get(s.best[unitOf[i]]).add(attendees.get(i));
+                return teams;
+            }
+            if (s.timedOut) {
+                // the search was cut short, so this says nothing about whether a split exists
+                throw new IllegalArgumentException("no team split satisfying the together/apart constraints was found"
+                        + " within " + timeLimitMillis + "ms; they may still be satisfiable with fewer constraints"
+                        + " or a longer uwh.teams.constrained.time-limit-ms");
+            }
+        }
+        throw new IllegalArgumentException("no team split satisfies the together/apart constraints");
+    }
+
+    private static final class Search {
+        final int k;
+        final int[] size;
+        final long[] skill;
+        final int[][] conflicts;
+        final int minSize;
+        final int maxSize;
+        final long started;
+        final long deadline;
+        final GenerationProgress progress;
+
+        final int[] teamOf;
+        final int[] teamSize;
+        final long[] teamTotal;
+        final long total;
+        // the spread can never go below this: 0, or 1 when the total does not divide evenly
+        final long floor;
+
+        int[] best;
+        long bestSpread = Long.MAX_VALUE;
+        boolean timedOut;
+        long nodes;
+
+        Search(int k, int[] size, long[] skill, int[][] conflicts, int minSize, int maxSize,
+               long started, long deadline, GenerationProgress progress) {
+            this.k = k;
+            this.size = size;
+            this.skill = skill;
+            this.conflicts = conflicts;
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.started = started;
+            this.deadline = deadline;
+            this.progress = progress;
+            this.teamOf = new int[size.length];
+            this.teamSize = new int[k];
+            this.teamTotal = new long[k];
+            this.total = Arrays.stream(skill).sum();
+            this.floor = total % k == 0 ? 0 : 1;
+            Arrays.fill(teamOf, -1);
+        }
+
+        void run() {
+            long gains = 0;
+            long losses = 0;
+            for (long v : skill) {
+                if (v > 0) gains += v;
+                else losses += v;
+            }
+            dfs(0, gains, losses, Arrays.stream(size).sum());
+        }
+
+        // gainsLeft/lossesLeft: the unplaced positive and negative skill (Elo can push skill below zero)
+        private void dfs(int u, long gainsLeft, long lossesLeft, int playersLeft) {
+            if (timedOut || bestSpread <= floor) return;
+            if ((++nodes & 1023) == 0 && (System.nanoTime() > deadline || progress.cancelled())) {
+                timedOut = true;
+                return;
+            }
+
+            long hi = Long.MIN_VALUE;
+            long lo = Long.MAX_VALUE;
+            int shortfall = 0;
+            for (int t = 0; t < k; t++) {
+                hi = Math.max(hi, teamTotal[t]);
+                lo = Math.min(lo, teamTotal[t]);
+                shortfall += Math.max(0, minSize - teamSize[t]);
+            }
+            if (shortfall > playersLeft) return;
+
+            if (u == size.length) {
+                if (best == null) {
+                    // first feasible split: polish it so the bound has something tight to cut against
+                    best = polish(teamOf.clone());
+                    bestSpread = spread(best);
+                    report();
+                }
+                if (hi - lo < bestSpread) {
+                    bestSpread = hi - lo;
+                    best = teamOf.clone();
+                    report();
+                }
+                return;
+            }
+
+            // k * final max >= total and k * final min <= total, kept in integers
+            long bound = Math.max((hi + lossesLeft) * k, total) - Math.min((lo + gainsLeft) * k, total);
+            if (best != null && bound >= bestSpread * k) return;
+
+            // weakest team first, so the first dive is the greedy split
+            Integer[] order = new Integer[k];
+            for (int t = 0; t < k; t++) order[t] = t;
+            Arrays.sort(order, Comparator.comparingLong(t -> teamTotal[t]));
+            boolean triedEmpty = false;
+            for (int t : order) {
+                if (teamSize[t] + size[u] > maxSize) continue;
+                if (teamSize[t] == 0) {
+                    if (triedEmpty) continue;
+                    triedEmpty = true;
+                }
+                if (conflicts(u, t)) continue;
+                teamOf[u] = t;
+                teamSize[t] += size[u];
+                teamTotal[t] += skill[u];
+                dfs(u + 1, gainsLeft - Math.max(0, skill[u]), lossesLeft - Math.min(0, skill[u]),
+                        playersLeft - size[u]);
+                teamSize[t] -= size[u];
+                teamTotal[t] -= skill[u];
+                teamOf[u] = -1;
+                if (timedOut || bestSpread <= floor) return;
+            }
+        }
+
+        private boolean conflicts(int u, int t) {
+            return conflicts(teamOf, u, t, -1);
+        }
+
+        // progress is the share of the time cap used; the search may finish well before it
+        private void report() {
+            progress.report(Math.min(1.0, (double) (System.nanoTime() - started) / (deadline - started)), bestSpread);
+        }
+
+        // would unit u clash with anyone on team t, not counting unit ignored (its swap partner)
+        private boolean conflicts(int[] assign, int u, int t, int ignored) {
+            for (int other : conflicts[u]) {
+                if (other != ignored && assign[other] == t) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Hill-climbs a complete assignment by swapping equal-sized units between teams,
+         * keeping conflicts satisfied, until no swap narrows the team totals. Swapping units
+         * of the same size leaves team sizes alone, and each swap is scored in O(1).
+         */
+        private int[] polish(int[] assign) {
+            long[] totals = new long[k];
+            for (int u = 0; u < assign.length; u++) totals[assign[u]] += skill[u];
+            boolean improved = true;
+            while (improved && System.nanoTime() < deadline) {
+                improved = false;
+                for (int a = 0; a < assign.length; a++) {
+                    for (int b = a + 1; b < assign.length; b++) {
+                        int ta = assign[a];
+                        int tb = assign[b];
+                        if (ta == tb || size[a] != size[b]) continue;
+                        long d = skill[b] - skill[a];
+                        // change in the sum of squared team totals
+                        if (2 * d * (totals[ta] - totals[tb]) + 2 * d * d >= 0) continue;
+                        if (conflicts(assign, a, tb, b) || conflicts(assign, b, ta, a)) continue;
+                        assign[a] = tb;
+                        assign[b] = ta;
+                        totals[ta] += d;
+                        totals[tb] -= d;
+                        improved = true;
+                    }
+                }
+            }
+            return assign;
+        }
+
+        private long spread(int[] assign) {
+            long[] totals = new long[k];
+            for (int u = 0; u < assign.length; u++) totals[assign[u]] += skill[u];
+            return Arrays.stream(totals).max().getAsLong() - Arrays.stream(totals).min().getAsLong();
+        }
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static long skillOf(List<User> attendees, List<Integer> unit) {
+        long sum = 0;
+        for (int i : unit) sum += attendees.get(i).getSkill() == null ? 0 : attendees.get(i).getSkill();
+        return sum;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.uwhapp.service.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.service.GenerationOptions;
+import com.example.uwhapp.service.TeamGenerator;
+import com.example.uwhapp.service.TeammateHistory;
+
+/**
+ * Balances skill like "balanced" but also spreads players away from the teammates they have
+ * had most often, using the pair counts in TeammateHistory.
+ *
+ * Starts from a size-capped greedy skill split (TeamSlots), then hill-climbs over pairwise swaps between
+ * teams. The cost is the squared deviation of team skill totals (scaled by the spread of
+ * individual skills, so the weight does not depend on the rating scale) plus
+ * {@code repeatWeight} per past shared team among current teammates. Only the two teams
+ * involved change in a swap, so its cost delta needs the two skill totals and one pass over
+ * each team's members: O(team size), not O(players).
+ */
+@Component("history-aware")
+public class HistoryAwareTeamGenerator implements TeamGenerator {
+
+    private static final int MAX_PASSES = 50;
+
+    private final TeammateHistory history;
+    private final double repeatWeight;
+
+    public HistoryAwareTeamGenerator(TeammateHistory history,
+                                     @Value("${uwh.teams.history.repeat-weight:0.05}") double repeatWeight) {
+        this.history = history;
+        this.repeatWeight = repeatWeight;
+    }
+
+    @Override
+    public List<List<User>> makeTeams(List<User> attendees, int teamSize) {
+        return makeTeams(attendees, teamSize, GenerationOptions.NONE);
+    }
+
+    @Override
+    public List<List<User>> makeTeams(List<User> attendees, int teamSize, GenerationOptions options) {
+        List<User> pool = new ArrayList<>(attendees);
+        pool.sort(Comparator.comparingInt((User u) -> skillOf(u)).reversed());
+
+        int n = pool.size();
+        int numTeams = options.teamCount(n, teamSize);
+        int capacity = (n + numTeams - 1) / numTeams;
+
+        long[] ids = new long[n];
+        int[] skill = new int[n];
+        double mean = 0;
+        for (int i = 0; i < n; i++) {
+            ids[i] = pool.get(i).getId();
+            skill[i] = skillOf(pool.get(i));
+            mean += skill[i];
+        }
+        double teamMean = mean / numTeams;
+        mean /= Math.max(1, n);
+        double variance = 0;
+        for (int s : skill) variance += (s - mean) * (s - mean);
+        variance /= Math.max(1, n);
+        // variance of a random team's total; 1 keeps an all-equal pool from dividing by zero
+        double scale = Math.max(1.0, variance * capacity);
+
+        short[] together = history.snapshot(ids);
+
+        // greedy start on skill alone, then swaps trade a little balance for fewer repeats
+        TeamSlots slots = TeamSlots.greedy(n, numTeams, skill);
+        int[][] members = slots.members;
+        int[] size = slots.size;
+        int[] team = slots.team;
+        long[] total = new long[numTeams];
+        for (int i = 0; i < n; i++) total[team[i]] += skill[i];
+
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            boolean improved = false;
+            for (int a = 0; a < n; a++) {
+                for (int b = a + 1; b < n; b++) {
+                    int ta = team[a];
+                    int tb = team[b];
+                    if (ta == tb) continue;
+
+                    long d = skill[b] - skill[a];
+                    double before = sq(total[ta] - teamMean) + sq(total[tb] - teamMean);
+                    double after = sq(total[ta] + d - teamMean) + sq(total[tb] - d - teamMean);
+                    double delta = (after - before) / scale;
+
+                    if (repeatWeight != 0) {
+                        int repeats = 0;
+                        for (int k = 0; k < size[ta]; k++) {
+                            int x = members[ta][k];
+                            if (x != a) repeats += pair(together, b, x, n) - pair(together, a, x, n);
+                        }
+                        for (int k = 0; k < size[tb]; k++) {
+                            int y = members[tb][k];
+                            if (y != b) repeats += pair(together, a, y, n) - pair(together, b, y, n);
+                        }
+                        delta += repeatWeight * repeats;
+                    }
+
+                    if (delta < -1e-9) {
+                        slots.swap(a, b);
+                        total[ta] += d;
+                        total[tb] -= d;
+                        improved = true;
+                    }
+                }
+            }
+            if (!improved) break;
+        }
+
+        return slots.toTeams(pool);
+    }
+
+    private static int pair(short[] together, int i, int j, int n) {
+        return i < j ? together[TeammateHistory.index(i, j, n)] : together[TeammateHistory.index(j, i, n)];
+    }
+
+    private static double sq(double x) {
+        return x * x;
+    }
+
+    private static int skillOf(User u) {
+        return u.getSkill() == null ? 0 : u.getSkill();
+    }
+}
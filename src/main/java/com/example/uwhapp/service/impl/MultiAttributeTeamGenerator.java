@@ -0,0 +1,140 @@
+package com.example.uwhapp.service.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.service.GenerationOptions;
+import com.example.uwhapp.service.TeamGenerator;
+
+/**
+ * Balances skill, experience, positions and gender at once. Each player becomes a row of
+ * numbers (skill, years of experience, one column per position, one per gender seen), and
+ * the cost is the weighted sum over columns of the squared deviation of team totals. Each
+ * column is scaled by the spread of its values, so a weight of 1 means the same for skill
+ * points as for headcount.
+ *
+ * Per-team running totals are kept for every column, and a swap only changes two teams by
+ * the same amount in opposite directions, so its delta per column is
+ * {@code 2d(totalA - totalB) + 2d²}: O(columns), independent of the number of players.
+ */
+@Component("multi-balanced")
+public class MultiAttributeTeamGenerator implements TeamGenerator {
+
+    private static final int MAX_PASSES = 50;
+
+    private final double skillWeight;
+    private final double experienceWeight;
+    private final double positionWeight;
+    private final double genderWeight;
+
+    public MultiAttributeTeamGenerator(@Value("${uwh.teams.multi.skill-weight:1.0}") double skillWeight,
+                                       @Value("${uwh.teams.multi.experience-weight:0.5}") double experienceWeight,
+                                       @Value("${uwh.teams.multi.position-weight:0.5}") double positionWeight,
+                                       @Value("${uwh.teams.multi.gender-weight:0.5}") double genderWeight) {
+        this.skillWeight = skillWeight;
+        this.experienceWeight = experienceWeight;
+        this.positionWeight = positionWeight;
+        this.genderWeight = genderWeight;
+    }
+
+    @Override
+    public List<List<User>> makeTeams(List<User> attendees, int teamSize) {
+        return makeTeams(attendees, teamSize, GenerationOptions.NONE);
+    }
+
+    @Override
+    public List<List<User>> makeTeams(List<User> attendees, int teamSize, GenerationOptions options) {
+        List<User> pool = new ArrayList<>(attendees);
+        pool.sort(Comparator.comparingInt((User u) -> u.getSkill() == null ? 0 : u.getSkill()).reversed());
+
+        int n = pool.size();
+        int numTeams = options.teamCount(n, teamSize);
+        int capacity = (n + numTeams - 1) / numTeams;
+
+        // columns: skill, experience, then one-hot positions and genders in order of appearance
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        List<Double> weights = new ArrayList<>();
+        columns.put("skill", 0);
+        weights.add(skillWeight);
+        columns.put("experience", 1);
+        weights.add(experienceWeight);
+        for (User u : pool) {
+            if (u.getPosition() != null && columns.putIfAbsent("position:" + u.getPosition(), columns.size()) == null) {
+                weights.add(positionWeight);
+            }
+            if (u.getGender() != null && columns.putIfAbsent("gender:" + u.getGender(), columns.size()) == null) {
+                weights.add(genderWeight);
+            }
+        }
+        int a = columns.size();
+        double[][] x = new double[n][a];
+        int[] skill = new int[n];
+        for (int i = 0; i < n; i++) {
+            User u = pool.get(i);
+            skill[i] = u.getSkill() == null ? 0 : u.getSkill();
+            x[i][0] = skill[i];
+            x[i][1] = u.getExperience() == null ? 0 : u.getExperience();
+            if (u.getPosition() != null) x[i][columns.get("position:" + u.getPosition())] = 1;
+            if (u.getGender() != null) x[i][columns.get("gender:" + u.getGender())] = 1;
+        }
+
+        // weight / (variance of a random team's total); columns where everyone is equal drop out
+        double[] w = new double[a];
+        for (int k = 0; k < a; k++) {
+            double mean = 0;
+            for (int i = 0; i < n; i++) mean += x[i][k];
+            mean /= Math.max(1, n);
+            double variance = 0;
+            for (int i = 0; i < n; i++) variance += (x[i][k] - mean) * (x[i][k] - mean);
+            variance /= Math.max(1, n);
+            w[k] = variance == 0 ? 0 : weights.get(k) / (variance * capacity);
+        }
+
+        TeamSlots slots = TeamSlots.greedy(n, numTeams, skill);
+        double[][] total = new double[numTeams][a];
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < a; k++) total[slots.team[i]][k] += x[i][k];
+        }
+
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            boolean improved = false;
+            for (int p = 0; p < n; p++) {
+                for (int q = p + 1; q < n; q++) {
+                    int tp = slots.team[p];
+                    int tq = slots.team[q];
+                    if (tp == tq) continue;
+                    if (swapDelta(x, w, total, p, q, tp, tq) < -1e-9) {
+                        slots.swap(p, q);
+                        for (int k = 0; k < a; k++) {
+                            double d = x[q][k] - x[p][k];
+                            total[tp][k] += d;
+                            total[tq][k] -= d;
+                        }
+                        improved = true;
+                    }
+                }
+            }
+            if (!improved) break;
+        }
+
+        return slots.toTeams(pool);
+    }
+
+    // change in cost if p (on team tp) and q (on team tq) trade places
+    static double swapDelta(double[][] x, double[] w, double[][] total, int p, int q, int tp, int tq) {
+        double delta = 0;
+        for (int k = 0; k < w.length; k++) {
+            if (w[k] == 0) continue;
+            double d = x[q][k] - x[p][k];
+            if (d != 0) delta += w[k] * (2 * d * (total[tp][k] - total[tq][k]) + 2 * d * d);
+        }
+        return delta;
+    }
+}
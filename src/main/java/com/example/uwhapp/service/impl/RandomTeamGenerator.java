@@ -1,29 +1,193 @@
 package com.example.uwhapp.service.impl;
 
 import com.example.uwhapp.model.User;
+import com.example.uwhapp.service.BoundedExecutor;
+import com.example.uwhapp.service.GenerationOptions;
+import com.example.uwhapp.service.GenerationProgress;
 import com.example.uwhapp.service.TeamGenerator;
+import com.example.uwhapp.service.Workloads;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Shuffles the attendees and deals them round-robin onto the teams.
+ *
+ * Every call gets its own SplittableRandom from the request's seed, so there is no shared
+ * generator to contend on and a saved seed replays the same draw. Attendees are put in id
+ * order first so the result does not depend on the order they were loaded in.
+ *
+ * With {@code draws} &gt; 1 it makes that many shuffles and keeps the one with the smallest
+ * spread between team skill totals (ties go to the lower draw number, so the pick does not
+ * depend on scheduling). The draws are split into shares: the calling thread works through
+ * one and the others go to the teams workload executor, so a large {@code draws} uses that
+ * workload's concurrency rather than the common ForkJoinPool. Each share shuffles one int[]
+ * of indices in place and copies it out only when it beats its own best. Draw 0 is always
+ * the plain single-draw result for the seed.
+ */
 @Component("random")
 public class RandomTeamGenerator implements TeamGenerator {
-    private final Random random = new Random();
+
+    private final int maxDraws;
+    private final Workloads workloads;
+
+    public RandomTeamGenerator(@Value("${uwh.teams.random.max-draws:2000}") int maxDraws, Workloads workloads) {
+        this.maxDraws = maxDraws;
+        this.workloads = workloads;
+    }
 
     @Override
     public List<List<User>> makeTeams(List<User> attendees, int teamSize) {
+        return makeTeams(attendees, teamSize, GenerationOptions.NONE.withSeed());
+    }
+
+    @Override
+    public List<List<User>> makeTeams(List<User> attendees, int teamSize, GenerationOptions options) {
         List<User> pool = new ArrayList<>(attendees);
-        Collections.shuffle(pool, random);
+        pool.sort(Comparator.comparing(User::getId));
         int n = pool.size();
-        int numTeams = Math.max(1, (n + teamSize - 1) / teamSize);
+        int numTeams = options.teamCount(n, teamSize);
+        long seed = options.withSeed().seed();
+        int draws = Math.min(options.draws(), maxDraws);
+
+        // draw 0 uses the seed itself; the rest get seeds derived from it in a fixed order
+        long[] seeds = new long[draws];
+        seeds[0] = seed;
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int d = 1; d < draws; d++) seeds[d] = root.nextLong();
+
+        int[] best;
+        if (draws == 1) {
+            best = identity(n);
+            shuffle(best, new SplittableRandom(seed));
+        } else {
+            int[] skill = new int[n];
+            for (int i = 0; i < n; i++) skill[i] = pool.get(i).getSkill() == null ? 0 : pool.get(i).getSkill();
+            BoundedExecutor executor = workloads.teams();
+            int workers = Math.min(draws, executor.concurrency() + 1);
+            Tally tally = new Tally(draws, options.progress());
+            List<FutureTask<Draw>> shares = new ArrayList<>();
+            for (int w = 1; w < workers; w++) {
+                int worker = w;
+                FutureTask<Draw> share = new FutureTask<>(() -> bestOf(worker, workers, seeds, skill, numTeams, tally));
+                try {
+                    executor.execute(share);
+                } catch (RejectedExecutionException ex) {
+                    // executor saturated: the share is run below on this thread instead
+                }
+                shares.add(share);
+            }
+            List<Draw> results = new ArrayList<>(workers);
+            results.add(bestOf(0, workers, seeds, skill, numTeams, tally));
+            for (FutureTask<Draw> share : shares) {
+                // a share the executor has not started yet is run here (and is a no-op there
+                // later), so an async job already on the teams executor never waits on itself
+                share.run();
+                results.add(join(share));
+            }
+            best = results.stream()
+                    .min(Comparator.comparingLong((Draw d) -> d.spread).thenComparingInt(d -> d.index))
+                    .orElseThrow()
+                    .order;
+            if (options.progress().cancelled()) throw new CancellationException("team generation cancelled");
+        }
+
         List<List<User>> teams = new ArrayList<>();
         for (int i = 0; i < numTeams; i++) teams.add(new ArrayList<>());
         for (int i = 0; i < n; i++) {
-            teams.get(i % numTeams).add(pool.get(i));
+            teams.get(i % numTeams).add(pool.get(best[i]));
         }
         return teams;
     }
+
+    private record Draw(int index, long spread, int[] order) {}
+
+    // draws done and best spread across all workers, reported every REPORT_EVERY draws per worker
+    private record Tally(int draws, GenerationProgress progress, AtomicInteger done, AtomicLong best) {
+        Tally(int draws, GenerationProgress progress) {
+            this(draws, progress, new AtomicInteger(), new AtomicLong(Long.MAX_VALUE));
+        }
+    }
+
+    private static final int REPORT_EVERY = 64;
+
+    // draws worker, worker + workers, ... ; one scratch array reused for all of them
+    private static Draw bestOf(int worker, int workers, long[] seeds, int[] skill, int numTeams, Tally tally) {
+        int n = skill.length;
+        int[] order = new int[n];
+        int[] bestOrder = new int[n];
+        long[] totals = new long[numTeams];
+        int bestIndex = -1;
+        long bestSpread = Long.MAX_VALUE;
+        int sinceReport = 0;
+        for (int d = worker; d < seeds.length; d += workers) {
+            if (++sinceReport == REPORT_EVERY) {
+                if (tally.progress().cancelled()) break;
+                long bestSoFar = tally.best().accumulateAndGet(bestSpread, Math::min);
+                tally.progress().report((double) tally.done().addAndGet(sinceReport) / tally.draws(), bestSoFar);
+                sinceReport = 0;
+            }
+            for (int i = 0; i < n; i++) order[i] = i;
+            shuffle(order, new SplittableRandom(seeds[d]));
+            long spread = spread(order, skill, totals);
+            if (spread < bestSpread) {
+                bestSpread = spread;
+                bestIndex = d;
+                System.arraycopy(order, 0, bestOrder, 0, n);
+            }
+        }
+        return new Draw(bestIndex, bestSpread, bestOrder);
+    }
+
+    private static Draw join(FutureTask<Draw> share) {
+        try {
+            return share.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("team generation interrupted");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    // max minus min team total when order is dealt round-robin
+    private static long spread(int[] order, int[] skill, long[] totals) {
+        Arrays.fill(totals, 0);
+        for (int i = 0; i < order.length; i++) totals[i % totals.length] += skill[order[i]];
+        long hi = Long.MIN_VALUE;
+        long lo = Long.MAX_VALUE;
+        for (long t : totals) {
+            hi = Math.max(hi, t);
+            lo = Math.min(lo, t);
+        }
+        return hi - lo;
+    }
+
+    private static int[] identity(int n) {
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) a[i] = i;
+        return a;
+    }
+
+    // Fisher-Yates
+    private static void shuffle(int[] a, SplittableRandom random) {
+        for (int i = a.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = a[i];
+            a[i] = a[j];
+            a[j] = tmp;
+        }
+    }
 }
@@ -0,0 +1,77 @@
+package com.example.uwhapp.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mutable team assignment for the swap-based generators: which team each player is on,
+ * each team's member list, and a slot index so a swap is O(1). Players are indices into
+ * the caller's pool. Team sizes differ by at most one and swaps keep them that way.
+ */
+final class TeamSlots {
+
+    final int numTeams;
+    final int[][] members;
+    final int[] size;
+    final int[] team;
+    private final int[] slot;
+
+    TeamSlots(int players, int numTeams) {
+        this.numTeams = numTeams;
+        this.members = new int[numTeams][(players + numTeams - 1) / numTeams];
+        this.size = new int[numTeams];
+        this.team = new int[players];
+        this.slot = new int[players];
+    }
+
+    /**
+     * Greedy start: players in the given order (strongest first) each go onto the team with
+     * the lowest {@code score} that still has room.
+     */
+    static TeamSlots greedy(int players, int numTeams, int[] score) {
+        TeamSlots s = new TeamSlots(players, numTeams);
+        int base = players / numTeams;
+        int bigTeamsLeft = players % numTeams;
+        long[] total = new long[numTeams];
+        for (int i = 0; i < players; i++) {
+            int t = -1;
+            for (int k = 0; k < numTeams; k++) {
+                boolean room = s.size[k] < base || (s.size[k] == base && bigTeamsLeft > 0);
+                if (room && (t < 0 || total[k] < total[t])) t = k;
+            }
+            if (s.size[t] == base) bigTeamsLeft--;
+            s.add(i, t);
+            total[t] += score[i];
+        }
+        return s;
+    }
+
+    void add(int player, int t) {
+        team[player] = t;
+        slot[player] = size[t];
+        members[t][size[t]++] = player;
+    }
+
+    // a and b must be on different teams
+    void swap(int a, int b) {
+        int ta = team[a];
+        int tb = team[b];
+        members[ta][slot[a]] = b;
+        members[tb][slot[b]] = a;
+        int s = slot[a];
+        slot[a] = slot[b];
+        slot[b] = s;
+        team[a] = tb;
+        team[b] = ta;
+    }
+
+    <T> List<List<T>> toTeams(List<T> pool) {
+        List<List<T>> teams = new ArrayList<>(numTeams);
+        for (int t = 0; t < numTeams; t++) {
+            List<T> out = new ArrayList<>(size[t]);
+            for (int k = 0; k < size[t]; k++) out.add(pool.get(members[t][k]));
+            teams.add(out);
+        }
+        return teams;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.uwhapp.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.service.GenerationOptions;
+import com.example.uwhapp.service.TeamGenerator;
+
+/**
+ * Splits the pool into skill tiers and balances each tier across its own teams, so strong
+ * players play strong players and newer players play each other: T tiers of k teams each,
+ * for any T and k. Four teams default to two tiers of two, which is what the old
+ * "uneven-balanced" generator did (and that name still selects this one).
+ *
+ * The team count comes from the request's "teams" (or TeamService's configured default) and
+ * the number of tiers from its "tiers"; by default that is half the team count when
+ * that is even (pairs of evenly matched teams), otherwise one tier (plain balanced). A tier
+ * count that does not divide the team count is lowered to the nearest one that does, so
+ * the generator never refuses a pool.
+ *
+ * Players are ranked once through a primitive sort (skill and index packed into a long) and
+ * then assigned in a single pass: the ranked list is cut into tiers sized to their teams'
+ * share of players, and each player goes to the weakest team in its tier that has room.
+ * Team sizes differ by at most one, the larger teams going to the top tiers.
+ */
+@Component("tiered")
+public class TieredTeamGenerator implements TeamGenerator {
+
+    @Override
+    public List<List<User>> makeTeams(List<User> attendees, int teamSize) {
+        return makeTeams(attendees, teamSize, GenerationOptions.NONE);
+    }
+
+    @Override
+    public List<List<User>> makeTeams(List<User> attendees, int teamSize, GenerationOptions options) {
+        int n = attendees.size();
+        int numTeams = options.teamCount(n, teamSize);
+        int tiers = tiers(numTeams, options.tiers());
+        int perTier = numTeams / tiers;
+
+        // strongest first, ties in attendee order: negated skill in the high half, index in the low
+        long[] ranked = new long[n];
+        for (int i = 0; i < n; i++) {
+            Integer skill = attendees.get(i).getSkill();
+            long key = Math.max(Integer.MIN_VALUE, -(long) (skill == null ? 0 : skill));
+            ranked[i] = (key << 32) | i;
+        }
+        Arrays.sort(ranked);
+
+        int base = n / numTeams;
+        int extra = n % numTeams;
+        int[] capacity = new int[numTeams];
+        for (int t = 0; t < numTeams; t++) capacity[t] = base + (t < extra ? 1 : 0);
+
+        List<List<User>> teams = new ArrayList<>(numTeams);
+        for (int t = 0; t < numTeams; t++) teams.add(new ArrayList<>(capacity[t]));
+        long[] total = new long[numTeams];
+
+        int tier = 0;
+        int tierEnd = tierSize(capacity, 0, perTier);
+        for (int r = 0; r < n; r++) {
+            while (r >= tierEnd) {
+                tier++;
+                tierEnd += tierSize(capacity, tier, perTier);
+            }
+            User u = attendees.get((int) ranked[r]);
+            int first = tier * perTier;
+            int target = -1;
+            for (int t = first; t < first + perTier; t++) {
+                if (teams.get(t).size() < capacity[t] && (target < 0 || total[t] < total[target])) target = t;
+            }
+            teams.get(target).add(u);
+            total[target] += u.getSkill() == null ? 0 : u.getSkill();
+        }
+        return teams;
+    }
+
+    // players in tier, i.e. the capacity of its teams
+    private static int tierSize(int[] capacity, int tier, int perTier) {
+        int size = 0;
+        for (int t = tier * perTier; t < (tier + 1) * perTier; t++) size += capacity[t];
+        return size;
+    }
+
+    // requested tier count (or the default) lowered to a divisor of the team count
+    static int tiers(int numTeams, Integer requested) {
+        int tiers = requested != null ? requested : (numTeams >= 4 && numTeams % 2 == 0 ? numTeams / 2 : 1);
+        tiers = Math.max(1, Math.min(tiers, numTeams));
+        while (numTeams % tiers != 0) tiers--;
+        return tiers;
+    }
+}
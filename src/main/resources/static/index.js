@@ -2,6 +2,10 @@ const apiBase = window.location.origin; // same origin since served from Spring
 let currentUser = null;
 let currentToken = localStorage.getItem('uwh_token') || null;
 let pastVisible = false; // whether past events are shown
+let eventStream = null; // EventSource for the next upcoming event
+let shownTeamsEventId = null; // event whose saved teams are on screen
+let myRsvps = {}; // eventId -> my status, from /bootstrap
+let vapidPublicKey = null; // from /bootstrap
 
 // --- helper fetch with token if present
 async function api(path, options = {}) {
@@ -87,11 +91,13 @@ async function login() {
     currentUser = res.user;
     localStorage.setItem('uwh_token', currentToken);
     showLoggedIn(currentUser);
-    // ask backend for full profile (including isAdmin)
+    // ask backend for full profile (including isAdmin) plus my RSVPs
     try {
-      const me = await api('/auth/me', { method: 'GET' });
-      currentUser = me;
-      setAdminUI(!!me.isAdmin);
+      const boot = await api('/bootstrap', { method: 'GET' });
+      currentUser = boot.user || currentUser;
+      myRsvps = boot.myRsvps || {};
+      vapidPublicKey = boot.vapidPublicKey || vapidPublicKey;
+      setAdminUI(!!(boot.user && boot.user.isAdmin));
     } catch (e) {
       setAdminUI(false);
     }
@@ -132,7 +138,8 @@ function createEventDiv(ev) {
   div.className = 'event-item';
   const when = ev.startTime ? formatStart(ev.startTime) : '(no time)';
   const location = ev.location ? ' — ' + ev.location : '';
-  div.innerHTML = `<strong>${ev.title}</strong> — ${when}${location}`;
+  const going = ev.rsvpCounts ? ` — <span id="going-${ev.id}">${ev.rsvpCounts.yes}</span> going` : '';
+  div.innerHTML = `<strong>${ev.title}</strong> — ${when}${location}${going}`;
   div.appendChild(document.createElement('br'));
 
   // --- RSVP button group (larger, spaced, selectable)
@@ -177,6 +184,14 @@ function createEventDiv(ev) {
     });
   };
 
+  // reflect the RSVP I already gave
+  const mine = myRsvps[ev.id];
+  if (mine === 'yes' || mine === 'no') {
+    const btn = mine === 'yes' ? yesBtn : noBtn;
+    btn.classList.add('selected');
+    btn.setAttribute('aria-pressed', 'true');
+  }
+
   rsvpGroup.appendChild(yesBtn);
   rsvpGroup.appendChild(noBtn);
   div.appendChild(rsvpGroup);
@@ -245,7 +260,26 @@ function togglePast() {
 // --- events UI
 async function fetchEvents() {
   try {
-    const events = await api('/events', { method: 'GET' }) || [];
+    // upcoming comes from the server's cached window
+    const [upcomingEvents, pastEvents] = await Promise.all([
+      api('/events', { method: 'GET' }),
+      fetchPastEvents()
+    ]);
+    renderEvents((upcomingEvents || []).concat(pastEvents || []));
+  } catch (e) {
+    console.error('fetchEvents', e);
+  }
+}
+
+// past events are limited to the last ~6 months
+async function fetchPastEvents() {
+  const pastFrom = new Date(Date.now() - 180 * 24 * 3600 * 1000).toISOString();
+  const to = new Date().toISOString();
+  return await api(`/events?from=${encodeURIComponent(pastFrom)}&to=${encodeURIComponent(to)}&limit=200`, { method: 'GET' }) || [];
+}
+
+function renderEvents(events) {
+  try {
     const upcomingList = document.getElementById('upcoming-events-list');
     const pastList = document.getElementById('past-events-list');
     const select = document.getElementById('event-select');
@@ -289,6 +323,8 @@ async function fetchEvents() {
 
     });
 
+    if (upcoming.length > 0) watchEvent(upcoming[0].id);
+
     // render past
     past.forEach(ev => {
       const div = createEventDiv(ev);
@@ -311,10 +347,33 @@ async function fetchEvents() {
     }
 
   } catch (e) {
-    console.error('fetchEvents', e);
+    console.error('renderEvents', e);
   }
 }
 
+// --- live updates: server pushes rsvp/teams/event deltas for one event, so no polling
+function watchEvent(eventId) {
+  if (!('EventSource' in window)) return;
+  if (eventStream && eventStream.eventId === eventId) return;
+  if (eventStream) eventStream.close();
+  eventStream = new EventSource(`/events/${eventId}/stream`);
+  eventStream.eventId = eventId;
+
+  eventStream.addEventListener('rsvp', e => {
+    const data = JSON.parse(e.data);
+    const span = document.getElementById('going-' + eventId);
+    if (span && data.counts) span.innerText = data.counts.yes;
+  });
+  eventStream.addEventListener('teams', () => {
+    if (shownTeamsEventId === eventId) showSavedTeams(eventId);
+  });
+  eventStream.addEventListener('skills', () => {
+    if (shownTeamsEventId === eventId) showSavedTeams(eventId);
+  });
+  eventStream.addEventListener('event', () => fetchEvents());
+  eventStream.addEventListener('deleted', () => fetchEvents());
+}
+
 // --- create event (admin-only)
 async function createEventPrompt() {
   if (!currentUser || !currentUser.isAdmin) {
@@ -355,6 +414,7 @@ async function rsvp(eventId, status) {
   if (!currentUser) { alert('Log in first'); return; }
   try {
     await api(`/events/${eventId}/rsvp`, { method: 'POST', body: JSON.stringify({ userId: currentUser.id, status }) });
+    myRsvps[eventId] = status;
     alert('RSVP saved');
   } catch (e) {
     alert('RSVP failed: ' + e.message);
@@ -524,11 +584,10 @@ async function showSavedTeams(eventId) {
       return;
     }
 
-    // clear previous contents
-    c.innerHTML = '';
-
     // handle empty response
     if (!teams || teams.length === 0) {
+      c.innerHTML = '';
+      shownTeamsEventId = Number(eventId);
       const emptyDiv = document.createElement('div');
       emptyDiv.className = 'card';
       emptyDiv.innerText = 'No saved teams for this event';
@@ -537,6 +596,30 @@ async function showSavedTeams(eventId) {
       return;
     }
 
+    renderSavedTeams(eventId, teams);
+
+    // select the event in the team-select dropdown (nice UX)
+    const select = document.getElementById('event-select');
+    if (select) select.value = String(eventId);
+
+    // scroll into view a little so user sees results
+    c.scrollIntoView({ behavior: 'smooth', block: 'start' });
+
+  } catch (e) {
+    console.error('showSavedTeams error', e);
+    // unwrap error message where possible
+    const msg = (e && e.message) ? e.message : String(e);
+    alert('Failed to load teams: ' + msg);
+  }
+}
+
+// draw saved teams into the teams container (no alerts, no scrolling)
+function renderSavedTeams(eventId, teams) {
+    const c = document.getElementById('teams-container');
+    if (!c) return;
+    c.innerHTML = '';
+    shownTeamsEventId = Number(eventId);
+
     // determine whether current viewer is an admin
     const isAdmin = !!(currentUser && currentUser.isAdmin);
 
@@ -599,20 +682,6 @@ async function showSavedTeams(eventId) {
 
     // ensure admin teams panel is visible
     setVisible('teams-card', true);
-
-    // select the event in the team-select dropdown (nice UX)
-    const select = document.getElementById('event-select');
-    if (select) select.value = String(eventId);
-
-    // scroll into view a little so user sees results
-    c.scrollIntoView({ behavior: 'smooth', block: 'start' });
-
-  } catch (e) {
-    console.error('showSavedTeams error', e);
-    // unwrap error message where possible
-    const msg = (e && e.message) ? e.message : String(e);
-    alert('Failed to load teams: ' + msg);
-  }
 }
 
 async function subscribeUser(publicVapidKeyBase64Url) {
@@ -654,10 +723,8 @@ function urlBase64ToUint8Array(base64String) {
 // after showing logged-in user, request public key and subscribe
 async function ensureSubscribed() {
   try {
-    const res = await fetch('/api/push/vapidPublicKey');
-    if (!res.ok) return;
-    const data = await res.json();
-    const publicKey = data.publicKey;
+    const publicKey = await getVapidPublicKey();
+    if (!publicKey) return;
     await subscribeUser(publicKey);
     console.log('Subscribed to push service');
   } catch (e) {
@@ -665,6 +732,15 @@ async function ensureSubscribed() {
   }
 }
 
+// VAPID key normally arrives with /bootstrap; fetch it only if that failed
+async function getVapidPublicKey() {
+  if (vapidPublicKey) return vapidPublicKey;
+  const res = await fetch('/api/push/vapidPublicKey');
+  if (!res.ok) return null;
+  vapidPublicKey = (await res.json()).publicKey;
+  return vapidPublicKey;
+}
+
 // call to adjust skill for each player on a team by delta (admin-only)
 async function adminAdjustTeamSkill(eventId, teamIndex, delta) {
   if (!currentUser || !currentUser.isAdmin) { alert('Admin only'); return; }
@@ -738,12 +814,11 @@ async function subscribeToPush() {
     }
 
     // Use your VAPID key (you already use this pattern elsewhere)
-    const publicKeyResp = await fetch('/api/push/vapidPublicKey');
-    if (!publicKeyResp.ok) {
+    const publicKey = await getVapidPublicKey();
+    if (!publicKey) {
       console.warn('Could not fetch VAPID public key');
       return;
     }
-    const { publicKey } = await publicKeyResp.json();
 
     const subscription = await registration.pushManager.subscribe({
       userVisibleOnly: true,
@@ -776,36 +851,50 @@ async function subscribeToPush() {
 
 
 
-// On load: if token present, try to fetch /auth/me
+// On load: one /bootstrap call returns user, upcoming events, my RSVPs, next event's teams and the VAPID key
 (async function init() {
   // hide admin pieces by default until we know user's role
   setAdminUI(false);
 
-  if (currentToken) {
-    try {
-      const res = await api('/auth/me', { method: 'GET' });
-      currentUser = res;
-      if (res.isAdmin) {
-        setAdminUI(true);
-      } else {
-        setAdminUI(false);
-      }
-      showLoggedIn(currentUser);
-      // call when user logs in or when page init sees user is logged in
-      if (currentUser) {
-        ensureSubscribed().catch(err => console.warn('subscribe failed', err));
-      }
-    } catch (e) {
-      // invalid token
-      localStorage.removeItem('uwh_token');
-      currentToken = null;
-      currentUser = null;
-      showLoggedOut();
-      setAdminUI(false);
-    }
+  let boot = null;
+  try {
+    boot = await api('/bootstrap', { method: 'GET' });
+  } catch (e) {
+    console.warn('bootstrap failed', e);
+  }
+  if (!boot) {
+    showLoggedOut();
+    await fetchEvents();
+    return;
+  }
+
+  vapidPublicKey = boot.vapidPublicKey || null;
+  myRsvps = boot.myRsvps || {};
+
+  if (currentToken && boot.user) {
+    currentUser = boot.user;
+    setAdminUI(!!currentUser.isAdmin);
+    showLoggedIn(currentUser);
+    // call when user logs in or when page init sees user is logged in
+    ensureSubscribed().catch(err => console.warn('subscribe failed', err));
   } else {
+    // invalid or missing token
+    if (currentToken) localStorage.removeItem('uwh_token');
+    currentToken = null;
+    currentUser = null;
     showLoggedOut();
     setAdminUI(false);
   }
-  await fetchEvents();
+
+  // first paint with upcoming events only; past events fill in afterwards
+  const upcoming = boot.events || [];
+  renderEvents(upcoming);
+  if (boot.nextEventTeams && boot.nextEventTeams.teams && boot.nextEventTeams.teams.length > 0) {
+    renderSavedTeams(boot.nextEventTeams.eventId, boot.nextEventTeams.teams);
+  }
+  try {
+    renderEvents(upcoming.concat(await fetchPastEvents()));
+  } catch (e) {
+    console.error('fetchPastEvents', e);
+  }
 })();
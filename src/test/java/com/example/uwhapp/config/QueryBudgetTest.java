@@ -0,0 +1,197 @@
+package com.example.uwhapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.example.uwhapp.model.Event;
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.repository.EventRepository;
+import com.example.uwhapp.repository.UserRepository;
+import com.example.uwhapp.service.AuthService;
+import com.example.uwhapp.service.EventService;
+import com.example.uwhapp.service.RecurrenceMaterializer;
+import com.example.uwhapp.service.RsvpService;
+import com.example.uwhapp.service.ScheduledPushSender;
+import com.example.uwhapp.service.TeamService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Drives the real controllers against H2 seeded with a few hundred users and events and
+ * checks the SQL statements each endpoint and scheduled job issues against its QueryBudgets
+ * entry. A new N+1 shows up here as a failed build rather than a log line in dev.
+ *
+ * Each endpoint's first call is the one measured, so second-level and in-memory caches are
+ * cold for it as far as this class is concerned.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTest {
+
+    private static final int USERS = 300;
+    private static final int EVENTS = 200;
+    private static final int ATTENDEES = 40;
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired QueryBudgets budgets;
+    @Autowired UserRepository userRepo;
+    @Autowired EventRepository eventRepo;
+    @Autowired EventService eventService;
+    @Autowired RsvpService rsvpService;
+    @Autowired TeamService teamService;
+    @Autowired AuthService authService;
+    @Autowired RecurrenceMaterializer materializer;
+    @Autowired ScheduledPushSender pushSender;
+
+    private Long eventId;
+    private String adminToken;
+    private String userToken;
+
+    @BeforeAll
+    void seed() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User u = new User("Player " + i, "player" + i, i % 100);
+            u.setPasswordHash(authService.hash("password"));
+            users.add(u);
+        }
+        users = userRepo.saveAll(users);
+
+        // one event an hour out (so checkAndSend has hour-before work), the rest spread over the year
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MINUTES);
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            Event e = new Event();
+            e.setTitle("Session " + i);
+            e.setLocation("Pool");
+            e.setStartTime(i == 0 ? now.plus(60, ChronoUnit.MINUTES) : now.plus(i, ChronoUnit.DAYS));
+            events.add(e);
+        }
+        events = eventRepo.saveAll(events);
+        eventService.refreshWindow();
+        eventId = events.get(0).getId();
+
+        Map<Long, String> rsvps = new LinkedHashMap<>();
+        for (int i = 0; i < ATTENDEES; i++) rsvps.put(users.get(i).getId(), "yes");
+        for (int i = ATTENDEES; i < USERS; i += 3) rsvps.put(users.get(i).getId(), "no");
+        rsvpService.upsertAll(eventId, rsvps);
+        teamService.generateAndSaveTeams(eventId, "balanced");
+
+        adminToken = login("theo");
+        userToken = login("player1");
+    }
+
+    @Test
+    void listEvents() throws Exception {
+        assertWithinBudget("GET /events", get("/events"));
+    }
+
+    @Test
+    void listEventsWindow() throws Exception {
+        assertWithinBudget("GET /events",
+                get("/events").param("from", Instant.now().toString()).param("limit", "50"));
+    }
+
+    @Test
+    void me() throws Exception {
+        assertWithinBudget("GET /auth/me", get("/auth/me").header("X-Auth-Token", userToken));
+    }
+
+    @Test
+    void bootstrap() throws Exception {
+        assertWithinBudget("GET /bootstrap", get("/bootstrap").header("X-Auth-Token", userToken));
+    }
+
+    @Test
+    void attendees() throws Exception {
+        assertWithinBudget("GET /events/{eventId}/attendees", get("/events/{id}/attendees", eventId));
+    }
+
+    @Test
+    void teams() throws Exception {
+        assertWithinBudget("GET /events/{eventId}/teams", get("/events/{id}/teams", eventId));
+    }
+
+    @Test
+    void summary() throws Exception {
+        assertWithinBudget("GET /events/{eventId}/summary", get("/events/{id}/summary", eventId));
+    }
+
+    @Test
+    void rsvp() throws Exception {
+        Long userId = userRepo.findByUsername("player5").orElseThrow().getId();
+        assertWithinBudget("POST /events/{eventId}/rsvp", post("/events/{id}/rsvp", eventId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\":" + userId + ",\"status\":\"maybe\"}"));
+    }
+
+    @Test
+    void generateTeams() throws Exception {
+        assertWithinBudget("POST /events/{eventId}/generate-teams", post("/events/{id}/generate-teams", eventId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"method\":\"balanced\"}"));
+    }
+
+    @Test
+    void adminUsers() throws Exception {
+        assertWithinBudget("GET /admin/users", get("/admin/users").header("X-Auth-Token", adminToken));
+    }
+
+    @Test
+    void adminRsvps() throws Exception {
+        assertWithinBudget("GET /admin/events/{eventId}/rsvps",
+                get("/admin/events/{id}/rsvps", eventId).header("X-Auth-Token", adminToken));
+    }
+
+    @Test
+    void materializeEvents() {
+        int statements = budgets.measure("SCHEDULED materializeEvents", materializer::materialize);
+        assertThat(statements).as("SCHEDULED materializeEvents").isLessThanOrEqualTo(budgets.budgetFor("SCHEDULED materializeEvents"));
+    }
+
+    @Test
+    void checkAndSend() {
+        // runs inline on this thread (lease claim is plain JDBC, so only the job's own statements count)
+        QueryCounter.reset();
+        pushSender.checkAndSend();
+        assertThat(QueryCounter.count()).as("SCHEDULED checkAndSend")
+                .isLessThanOrEqualTo(budgets.budgetFor("SCHEDULED checkAndSend"));
+    }
+
+    private void assertWithinBudget(String label, MockHttpServletRequestBuilder request) throws Exception {
+        QueryCounter.reset();
+        mvc.perform(request).andExpect(status().is2xxSuccessful());
+        int statements = QueryCounter.count();
+        assertThat(statements).as(label + " statements").isLessThanOrEqualTo(budgets.budgetFor(label));
+    }
+
+    private String login(String username) throws Exception {
+        String body = mvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"password\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("token").asText();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.uwhapp.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.repository.UserRepository;
+import com.example.uwhapp.service.AuthService;
+
+/** PUT /admin/users/{id}/admin changes what the user's existing tokens may do, without logging them out. */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AdminPromotionTest {
+
+    @Autowired MockMvc mvc;
+    @Autowired AuthService authService;
+    @Autowired UserRepository userRepo;
+    @Autowired JdbcTemplate jdbc;
+
+    private final List<Long> userIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (Long id : userIds) jdbc.update("delete from users where id = ?", id);
+    }
+
+    @Test
+    void promotedAndDemotedUsersKeepTheirSession() throws Exception {
+        String adminToken = login("promoter", true);
+        String token = login("promoted", false);
+        Long id = userIds.get(1);
+        mvc.perform(get("/admin/users").header("X-Auth-Token", token)).andExpect(status().isForbidden());
+
+        setAdmin(adminToken, id, true);
+
+        // the token issued before the promotion now has admin rights
+        mvc.perform(get("/admin/users").header("X-Auth-Token", token)).andExpect(status().isOk());
+        mvc.perform(get("/auth/me").header("X-Auth-Token", token)).andExpect(status().isOk());
+
+        setAdmin(adminToken, id, false);
+
+        // and loses them again on demotion, still logged in
+        mvc.perform(get("/admin/users").header("X-Auth-Token", token)).andExpect(status().isForbidden());
+        mvc.perform(get("/auth/me").header("X-Auth-Token", token)).andExpect(status().isOk());
+    }
+
+    private void setAdmin(String adminToken, Long id, boolean admin) throws Exception {
+        mvc.perform(put("/admin/users/{id}/admin", id)
+                        .header("X-Auth-Token", adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"isAdmin\":" + admin + "}"))
+                .andExpect(status().isOk());
+    }
+
+    private String login(String name, boolean admin) {
+        String username = name + "-" + System.nanoTime();
+        User u = authService.register(name, username, "password");
+        userIds.add(u.getId());
+        if (admin) {
+            u.setIsAdmin(true);
+            userRepo.save(u);
+        }
+        return authService.login(username, "password");
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.uwhapp.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.uwhapp.model.Event;
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.repository.EventRepository;
+import com.example.uwhapp.repository.UserRepository;
+import com.example.uwhapp.service.RsvpService;
+
+/** POST /events/{id}/generate-teams with constraints that cannot all hold. */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class GenerateTeamsConstraintsTest {
+
+    @Autowired MockMvc mvc;
+    @Autowired UserRepository userRepo;
+    @Autowired EventRepository eventRepo;
+    @Autowired RsvpService rsvpService;
+    @Autowired JdbcTemplate jdbc;
+
+    private Long eventId;
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        Event e = new Event();
+        e.setTitle("Constraints");
+        e.setLocation("Pool");
+        e.setStartTime(Instant.now().plus(3, ChronoUnit.DAYS));
+        eventId = eventRepo.save(e).getId();
+        Map<Long, String> yes = new LinkedHashMap<>();
+        for (int i = 0; i < 8; i++) {
+            User u = userRepo.save(new User("Constrained " + i, "constrained" + i + "-" + eventId, 40 + i));
+            userIds.add(u.getId());
+            yes.put(u.getId(), "yes");
+        }
+        rsvpService.upsertAll(eventId, yes);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbc.update("delete from rsvps where event_id = ?", eventId);
+        jdbc.update("delete from events where id = ?", eventId);
+        for (Long id : userIds) jdbc.update("delete from users where id = ?", id);
+    }
+
+    @Test
+    void playersBothTogetherAndApartAreABadRequest() throws Exception {
+        Long a = userIds.get(0);
+        Long b = userIds.get(1);
+        mvc.perform(post("/events/{id}/generate-teams", eventId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"method\":\"balanced\",\"together\":[[" + a + "," + b + "]],\"apart\":[[" + a + "," + b + "]]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", Matchers.containsString("both together and apart")));
+    }
+
+    @Test
+    void infeasibleApartIsABadRequest() throws Exception {
+        mvc.perform(post("/events/{id}/generate-teams", eventId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"teams\":2,\"apart\":[[" + userIds.get(0) + "," + userIds.get(1) + "," + userIds.get(2) + "]]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("no team split satisfies the together/apart constraints"));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.uwhapp.perf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.service.GenerationOptions;
+import com.example.uwhapp.service.GenerationProgress;
+import com.example.uwhapp.service.impl.ConstrainedTeamGenerator;
+
+/**
+ * "constrained" generation for pools of 20, 40 and 60 players with n/3 together pairs and
+ * n/3 apart pairs, 50 random instances per size, at the default 250ms cap. Constraints are
+ * drawn from a hidden split whose team sizes are within one, so every instance is feasible.
+ * Prints the median and worst time to the first complete split and to the answer, how many
+ * instances ran into the cap, and the median and worst spread between team totals.
+ *
+ * Off by default; run with {@code mvn test -Dperf=true -Dtest=ConstrainedBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "perf", matches = "true")
+class ConstrainedBenchmark {
+
+    private static final int INSTANCES = 50;
+    private static final long TIME_LIMIT_MS = 250;
+
+    @Test
+    void rosterSizes() {
+        ConstrainedTeamGenerator generator = new ConstrainedTeamGenerator(TIME_LIMIT_MS);
+        // warm up the search on a throwaway instance of each size
+        for (int n : new int[] {20, 40, 60}) run(generator, n, new Random(-n));
+
+        for (int n : new int[] {20, 40, 60}) {
+            Random rnd = new Random(n);
+            long[] first = new long[INSTANCES];
+            long[] done = new long[INSTANCES];
+            long[] spread = new long[INSTANCES];
+            int capped = 0;
+            for (int i = 0; i < INSTANCES; i++) {
+                Result r = run(generator, n, rnd);
+                first[i] = r.firstNanos;
+                done[i] = r.doneNanos;
+                spread[i] = r.spread;
+                if (r.doneNanos >= TIME_LIMIT_MS * 1_000_000L) capped++;
+            }
+            Arrays.sort(first);
+            Arrays.sort(done);
+            Arrays.sort(spread);
+            System.out.printf("%d players, %d teams: first split median %.2f ms / max %.2f ms, answer median %.2f ms"
+                            + " / max %.2f ms, %d of %d at the cap, spread median %d / max %d%n",
+                    n, teams(n), first[INSTANCES / 2] / 1e6, first[INSTANCES - 1] / 1e6,
+                    done[INSTANCES / 2] / 1e6, done[INSTANCES - 1] / 1e6, capped, INSTANCES,
+                    spread[INSTANCES / 2], spread[INSTANCES - 1]);
+        }
+    }
+
+    private record Result(long firstNanos, long doneNanos, long spread) {}
+
+    private static Result run(ConstrainedTeamGenerator generator, int n, Random rnd) {
+        int k = teams(n);
+        List<User> pool = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            User u = new User("P" + i, "p" + i, 20 + rnd.nextInt(80));
+            u.setId((long) i + 1);
+            pool.add(u);
+        }
+        List<List<Long>> hidden = new ArrayList<>();
+        for (int t = 0; t < k; t++) hidden.add(new ArrayList<>());
+        List<User> shuffled = new ArrayList<>(pool);
+        Collections.shuffle(shuffled, rnd);
+        for (int i = 0; i < n; i++) hidden.get(i % k).add(shuffled.get(i).getId());
+        List<List<Long>> together = new ArrayList<>();
+        List<List<Long>> apart = new ArrayList<>();
+        for (int c = 0; c < n / 3; c++) {
+            List<Long> team = hidden.get(rnd.nextInt(k));
+            int x = rnd.nextInt(team.size());
+            int y = (x + 1 + rnd.nextInt(team.size() - 1)) % team.size();
+            together.add(List.of(team.get(x), team.get(y)));
+            int a = rnd.nextInt(k);
+            int b = (a + 1 + rnd.nextInt(k - 1)) % k;
+            apart.add(List.of(hidden.get(a).get(rnd.nextInt(hidden.get(a).size())),
+                    hidden.get(b).get(rnd.nextInt(hidden.get(b).size()))));
+        }
+
+        long started = System.nanoTime();
+        long[] firstReport = {0};
+        GenerationProgress progress = new GenerationProgress() {
+            @Override
+            public void report(double fraction, long bestScore) {
+                if (firstReport[0] == 0) firstReport[0] = System.nanoTime();
+            }
+
+            @Override
+            public boolean cancelled() {
+                return false;
+            }
+        };
+        List<List<User>> result = generator.makeTeams(pool, 1,
+                new GenerationOptions(together, apart, null, 1, null, k, progress));
+        long done = System.nanoTime() - started;
+        long[] totals = result.stream().mapToLong(team -> team.stream().mapToLong(User::getSkill).sum()).toArray();
+        long spread = Arrays.stream(totals).max().getAsLong() - Arrays.stream(totals).min().getAsLong();
+        return new Result(firstReport[0] - started, done, spread);
+    }
+
+    // teams of about six, as the default team size gives
+    private static int teams(int n) {
+        return (n + 5) / 6;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.uwhapp.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.uwhapp.model.Event;
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.repository.EventRepository;
+import com.example.uwhapp.repository.UserRepository;
+import com.example.uwhapp.service.RsvpService;
+
+/**
+ * 3,000 GET /events/{id}/attendees (29 attendees) from 200 concurrent clients, on platform
+ * or virtual request threads behind the connection bulkhead. Run once per mode and compare:
+ *
+ * <pre>
+ * mvn test -Dperf=true -Dtest=LoadComparisonBenchmark -Dspring.threads.virtual.enabled=false
+ * mvn test -Dperf=true -Dtest=LoadComparisonBenchmark -Dspring.threads.virtual.enabled=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "perf", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class LoadComparisonBenchmark {
+
+    private static final int ATTENDEES = 29;
+    private static final int CLIENTS = 200;
+    private static final int REQUESTS = 3_000;
+
+    @LocalServerPort int port;
+    @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads;
+    @Autowired EventRepository eventRepo;
+    @Autowired UserRepository userRepo;
+    @Autowired RsvpService rsvpService;
+
+    @Test
+    void attendees() throws Exception {
+        Event event = new Event();
+        event.setTitle("Load");
+        event.setStartTime(Instant.now().plus(1, ChronoUnit.DAYS));
+        Long eventId = eventRepo.save(event).getId();
+        Map<Long, String> yes = new HashMap<>();
+        for (int i = 0; i < ATTENDEES; i++) {
+            yes.put(userRepo.save(new User("Load " + i, "load-" + i + "-" + System.nanoTime(), i)).getId(), "yes");
+        }
+        rsvpService.upsertAll(eventId, yes);
+
+        URI uri = URI.create("http://localhost:" + port + "/events/" + eventId + "/attendees");
+        // warm-up pass so both modes are measured with JIT and caches settled
+        LoadDriver.run("warm-up", CLIENTS, REQUESTS / 3, i -> HttpRequest.newBuilder(uri).GET().build());
+        LoadDriver.Result r = LoadDriver.run(virtualThreads ? "virtual threads" : "platform threads", CLIENTS, REQUESTS,
+                i -> HttpRequest.newBuilder(uri).GET().build());
+        System.out.println(r);
+
+        assertThat(r.ok()).isEqualTo(REQUESTS);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.uwhapp.perf;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Fires {@code requests} HTTP requests from {@code clients} concurrent client threads and
+ * reports throughput and latency percentiles. Used by the perf tests only.
+ */
+final class LoadDriver {
+
+    record Result(String label, int requests, int ok, long elapsedMillis, long p50Millis, long p99Millis) {
+        double perSecond() {
+            return requests * 1000.0 / Math.max(1, elapsedMillis);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d requests (%d ok) in %.2fs, %.0f req/s, p50 %dms, p99 %dms",
+                    label, requests, ok, elapsedMillis / 1000.0, perSecond(), p50Millis, p99Millis);
+        }
+    }
+
+    private LoadDriver() {}
+
+    static Result run(String label, int clients, int requests, IntFunction<HttpRequest> request) throws Exception {
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger ok = new AtomicInteger();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(requests));
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                workers.add(pool.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                        long t = System.nanoTime();
+                        HttpResponse<Void> r = http.send(request.apply(i), HttpResponse.BodyHandlers.discarding());
+                        latencies.add((System.nanoTime() - t) / 1_000_000);
+                        if (r.statusCode() / 100 == 2) ok.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> w : workers) w.get();
+        } finally {
+            pool.shutdownNow();
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return new Result(label, requests, ok.get(), elapsed, percentile(sorted, 50), percentile(sorted, 99));
+    }
+
+    private static long percentile(List<Long> sorted, int p) {
+        if (sorted.isEmpty()) return 0;
+        return sorted.get(Math.min(sorted.size() - 1, (int) Math.ceil(p / 100.0 * sorted.size()) - 1));
+    }
+}
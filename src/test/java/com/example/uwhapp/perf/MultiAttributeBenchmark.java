@@ -0,0 +1,90 @@
+package com.example.uwhapp.perf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.service.impl.MultiAttributeTeamGenerator;
+
+/**
+ * "multi-balanced" generation for pools of 20, 40 and 60 players with all four attributes
+ * set, against the 50ms budget for 40 players. Prints the first (cold) call, the median,
+ * p99 and worst warm call, how far apart the teams' skill and experience totals end up (as a
+ * share of the mean), and the largest gap in forwards or women between two teams.
+ *
+ * Off by default; run with {@code mvn test -Dperf=true -Dtest=MultiAttributeBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "perf", matches = "true")
+class MultiAttributeBenchmark {
+
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 2_000;
+    private static final String[] POSITIONS = {"forward", "back"};
+    private static final String[] GENDERS = {"f", "m"};
+
+    @Test
+    void rosterSizes() {
+        MultiAttributeTeamGenerator generator = new MultiAttributeTeamGenerator(1.0, 0.5, 0.5, 0.5);
+        for (int n : new int[] {20, 40, 60}) {
+            List<User> pool = pool(n, new Random(n));
+
+            long t = System.nanoTime();
+            List<List<User>> teams = generator.makeTeams(pool, 6);
+            double coldMs = (System.nanoTime() - t) / 1e6;
+
+            for (int i = 0; i < WARMUP; i++) generator.makeTeams(pool, 6);
+            long[] nanos = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                t = System.nanoTime();
+                generator.makeTeams(pool, 6);
+                nanos[i] = System.nanoTime() - t;
+            }
+            Arrays.sort(nanos);
+            System.out.printf("%d players, %d teams: cold %.2f ms, median %.3f ms, p99 %.3f ms, max %.3f ms;"
+                            + " skill spread %.1f%%, experience spread %.1f%%, forwards gap %d, women gap %d%n",
+                    n, teams.size(), coldMs, nanos[ITERATIONS / 2] / 1e6, nanos[ITERATIONS * 99 / 100] / 1e6,
+                    nanos[ITERATIONS - 1] / 1e6,
+                    spread(teams, User::getSkill) * 100, spread(teams, User::getExperience) * 100,
+                    gap(teams, u -> "forward".equals(u.getPosition()) ? 1 : 0),
+                    gap(teams, u -> "f".equals(u.getGender()) ? 1 : 0));
+        }
+    }
+
+    private static List<User> pool(int n, Random rnd) {
+        List<User> pool = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            User u = new User("P" + i, "p" + i, 20 + rnd.nextInt(80));
+            u.setId((long) i + 1);
+            u.setExperience(rnd.nextInt(15));
+            u.setPosition(POSITIONS[rnd.nextInt(POSITIONS.length)]);
+            u.setGender(GENDERS[rnd.nextInt(GENDERS.length)]);
+            pool.add(u);
+        }
+        return pool;
+    }
+
+    // (max - min) / mean of the teams' totals
+    private static double spread(List<List<User>> teams, ToIntFunction<User> column) {
+        int[] totals = totals(teams, column);
+        double mean = Arrays.stream(totals).average().orElse(0);
+        return mean == 0 ? 0 : gap(totals) / mean;
+    }
+
+    private static int gap(List<List<User>> teams, ToIntFunction<User> column) {
+        return gap(totals(teams, column));
+    }
+
+    private static int gap(int[] totals) {
+        return Arrays.stream(totals).max().orElse(0) - Arrays.stream(totals).min().orElse(0);
+    }
+
+    private static int[] totals(List<List<User>> teams, ToIntFunction<User> column) {
+        return teams.stream().mapToInt(team -> team.stream().mapToInt(column).sum()).toArray();
+    }
+}
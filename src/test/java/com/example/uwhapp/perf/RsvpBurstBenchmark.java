@@ -0,0 +1,75 @@
+package com.example.uwhapp.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.uwhapp.model.Event;
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.repository.EventRepository;
+import com.example.uwhapp.repository.UserRepository;
+import com.example.uwhapp.service.RsvpService;
+import com.example.uwhapp.service.RsvpWriteBuffer;
+
+/**
+ * The post-notification burst: 1,000 RSVPs from 1,000 players to one event, sent by 50
+ * concurrent clients over HTTP. Run once per mode and compare:
+ *
+ * <pre>
+ * mvn test -Dperf=true -Dtest=RsvpBurstBenchmark -Drsvp.write-behind.enabled=false
+ * mvn test -Dperf=true -Dtest=RsvpBurstBenchmark -Drsvp.write-behind.enabled=true
+ * </pre>
+ *
+ * Against in-memory H2 the client side dominates; point SPRING_DATASOURCE_URL at a Postgres
+ * to see the pool effect the write-behind buffer is for.
+ */
+@EnabledIfSystemProperty(named = "perf", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class RsvpBurstBenchmark {
+
+    private static final int PLAYERS = 1_000;
+    private static final int CLIENTS = 50;
+
+    @LocalServerPort int port;
+    @Autowired EventRepository eventRepo;
+    @Autowired UserRepository userRepo;
+    @Autowired RsvpService rsvpService;
+    @Autowired RsvpWriteBuffer writeBuffer;
+
+    @Test
+    void burst() throws Exception {
+        Event event = new Event();
+        event.setTitle("Burst");
+        event.setStartTime(Instant.now().plus(1, ChronoUnit.DAYS));
+        Long eventId = eventRepo.save(event).getId();
+        List<User> players = new ArrayList<>();
+        for (int i = 0; i < PLAYERS; i++) players.add(new User("Burst " + i, "burst-" + i + "-" + System.nanoTime(), 50));
+        List<Long> ids = userRepo.saveAll(players).stream().map(User::getId).toList();
+        String[] statuses = {"yes", "yes", "no", "maybe"};
+
+        URI uri = URI.create("http://localhost:" + port + "/events/" + eventId + "/rsvp");
+        LoadDriver.Result r = LoadDriver.run(writeBuffer.isEnabled() ? "write-behind" : "synchronous", CLIENTS, PLAYERS,
+                i -> HttpRequest.newBuilder(uri).header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"userId\":" + ids.get(i) + ",\"status\":\"" + statuses[i % statuses.length] + "\"}"))
+                        .build());
+        writeBuffer.flush();
+        System.out.println(r);
+
+        assertThat(r.ok()).isEqualTo(PLAYERS);
+        assertThat(rsvpService.findForEvent(eventId)).hasSize(PLAYERS);
+    }
+}
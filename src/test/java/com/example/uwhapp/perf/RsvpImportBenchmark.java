@@ -0,0 +1,95 @@
+package com.example.uwhapp.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.uwhapp.dto.RsvpBatchResultDto;
+import com.example.uwhapp.model.Event;
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.repository.EventRepository;
+import com.example.uwhapp.repository.UserRepository;
+import com.example.uwhapp.service.RsvpImport;
+
+/**
+ * The bulk RSVP import for 1,000, 5,000 and 10,000 rows (the default cap), as JSON and as CSV,
+ * straight through RsvpImport: parse, one id lookup, one batched upsert. Each size runs 10
+ * times against the same event, so after the first round every row is an update. Prints the
+ * median and worst time per import and the rows per second at the median.
+ *
+ * Off by default; run with {@code mvn test -Dperf=true -Dtest=RsvpImportBenchmark}. Against
+ * in-memory H2 this is mostly parsing and the JDBC batch; point SPRING_DATASOURCE_URL at a
+ * Postgres to include the network round trips.
+ */
+@EnabledIfSystemProperty(named = "perf", matches = "true")
+@SpringBootTest
+@ActiveProfiles("test")
+class RsvpImportBenchmark {
+
+    private static final int ROUNDS = 10;
+    private static final String[] STATUSES = {"yes", "present", "no", "absent", "maybe"};
+
+    @Autowired RsvpImport rsvpImport;
+    @Autowired EventRepository eventRepo;
+    @Autowired UserRepository userRepo;
+
+    @Test
+    void importSizes() {
+        List<User> players = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) players.add(new User("Import " + i, "import-" + i + "-" + System.nanoTime(), 50));
+        List<Long> ids = userRepo.saveAll(players).stream().map(User::getId).toList();
+
+        for (int rows : new int[] {1_000, 5_000, 10_000}) {
+            for (boolean csv : new boolean[] {false, true}) {
+                Event event = new Event();
+                event.setTitle("Import " + rows);
+                event.setStartTime(Instant.now().plus(1, ChronoUnit.DAYS));
+                Long eventId = eventRepo.save(event).getId();
+                byte[] body = (csv ? csv(ids, rows) : json(ids, rows)).getBytes(StandardCharsets.UTF_8);
+
+                // one untimed import to warm up and insert; the timed rounds update
+                rsvpImport.importRsvps(eventId, new ByteArrayInputStream(body), csv);
+                long[] nanos = new long[ROUNDS];
+                for (int r = 0; r < ROUNDS; r++) {
+                    long started = System.nanoTime();
+                    RsvpBatchResultDto result = rsvpImport.importRsvps(eventId, new ByteArrayInputStream(body), csv);
+                    nanos[r] = System.nanoTime() - started;
+                    assertThat(result.applied()).isEqualTo(rows);
+                    assertThat(result.errors()).isEmpty();
+                }
+                Arrays.sort(nanos);
+                System.out.printf("%,d rows %s (%,d bytes): median %.1f ms / max %.1f ms, %,.0f rows/s%n",
+                        rows, csv ? "CSV " : "JSON", body.length, nanos[ROUNDS / 2] / 1e6, nanos[ROUNDS - 1] / 1e6,
+                        rows / (nanos[ROUNDS / 2] / 1e9));
+            }
+        }
+    }
+
+    private static String json(List<Long> ids, int rows) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) sb.append(",\n");
+            sb.append("{\"userId\": ").append(ids.get(i)).append(", \"status\": \"")
+                    .append(STATUSES[i % STATUSES.length]).append("\"}");
+        }
+        return sb.append("]").toString();
+    }
+
+    private static String csv(List<Long> ids, int rows) {
+        StringBuilder sb = new StringBuilder("userId,status\n");
+        for (int i = 0; i < rows; i++) sb.append(ids.get(i)).append(',').append(STATUSES[i % STATUSES.length]).append('\n');
+        return sb.toString();
+    }
+}
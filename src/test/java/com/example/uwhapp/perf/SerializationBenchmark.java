@@ -0,0 +1,69 @@
+package com.example.uwhapp.perf;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.example.uwhapp.dto.EventDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * GET /events body (50 events with RSVP counts) serialized two ways: the maps the
+ * controllers built before the record DTOs, and the record DTOs themselves. Both go through
+ * a mapper configured like Boot's, with plain reflective access.
+ *
+ * Off by default; run with {@code mvn test -Dperf=true -Dtest=SerializationBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "perf", matches = "true")
+class SerializationBenchmark {
+
+    private static final int EVENTS = 50;
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    @Test
+    void eventList() throws Exception {
+        Instant start = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        List<EventDto> records = new ArrayList<>();
+        List<Map<String, Object>> maps = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            EventDto e = new EventDto((long) i, "Session " + i, "Pool", start.plus(i, ChronoUnit.DAYS), 1L, start,
+                    new EventDto.RsvpCountsDto(20 + i % 10, 3, 2));
+            records.add(e);
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("id", e.id());
+            m.put("title", e.title());
+            m.put("location", e.location());
+            m.put("startTime", e.startTime());
+            m.put("createdBy", e.createdBy());
+            m.put("createdAt", e.createdAt());
+            m.put("rsvpCounts", Map.of("yes", e.rsvpCounts().yes(), "no", e.rsvpCounts().no(),
+                    "maybe", e.rsvpCounts().maybe()));
+            maps.add(m);
+        }
+
+        ObjectMapper mapper = JsonMapper.builder().addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        System.out.println(measure("maps", mapper, maps));
+        System.out.println(measure("records", mapper, records));
+    }
+
+    private static String measure(String label, ObjectMapper mapper, Object body) throws Exception {
+        long bytes = 0;
+        for (int i = 0; i < WARMUP; i++) bytes += mapper.writeValueAsBytes(body).length;
+        long t = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) bytes += mapper.writeValueAsBytes(body).length;
+        long nanos = System.nanoTime() - t;
+        return String.format("%-28s %7.1f us/op (%d bytes)", label, nanos / 1000.0 / ITERATIONS,
+                bytes / (WARMUP + ITERATIONS));
+    }
+}
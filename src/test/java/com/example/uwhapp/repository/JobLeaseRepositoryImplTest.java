@@ -0,0 +1,78 @@
+package com.example.uwhapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.uwhapp.model.JobLease;
+
+/**
+ * The lease claim on H2 (the MERGE ... USING path): of two nodes claiming at once exactly one
+ * wins, the holder can renew, and anyone can take an expired lease.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class JobLeaseRepositoryImplTest {
+
+    private static final int ROUNDS = 50;
+
+    @Autowired JobLeaseRepository repo;
+
+    @Test
+    void twoContendersClaimingAtOnceExactlyOneWins() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                String job = "race-" + round + "-" + System.nanoTime();
+                Instant now = Instant.now();
+                CyclicBarrier start = new CyclicBarrier(2);
+                List<Future<Boolean>> claims = new ArrayList<>();
+                for (String node : List.of("node-a", "node-b")) {
+                    claims.add(pool.submit(() -> {
+                        start.await();
+                        return repo.tryClaim(job, node, now, now.plusSeconds(60));
+                    }));
+                }
+                boolean a = claims.get(0).get(30, TimeUnit.SECONDS);
+                boolean b = claims.get(1).get(30, TimeUnit.SECONDS);
+
+                assertThat(a ^ b).as("round %d: exactly one claim wins (a=%s, b=%s)", round, a, b).isTrue();
+                assertThat(repo.findById(job)).get().extracting(JobLease::getOwner).isEqualTo(a ? "node-a" : "node-b");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void holderRenewsWhileOthersWaitForExpiry() {
+        String job = "renew-" + System.nanoTime();
+        Instant t0 = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+        assertThat(repo.tryClaim(job, "node-a", t0, t0.plusSeconds(60))).isTrue();
+        assertThat(repo.tryClaim(job, "node-b", t0.plusSeconds(10), t0.plusSeconds(70))).isFalse();
+        // the holder extends its own live lease
+        assertThat(repo.tryClaim(job, "node-a", t0.plusSeconds(30), t0.plusSeconds(90))).isTrue();
+        assertThat(repo.findById(job)).get().extracting(JobLease::getExpiresAt).isEqualTo(t0.plusSeconds(90));
+        // still held at the old expiry
+        assertThat(repo.tryClaim(job, "node-b", t0.plusSeconds(61), t0.plusSeconds(121))).isFalse();
+
+        // once it lapses, another node takes it over and the old holder is the one shut out
+        assertThat(repo.tryClaim(job, "node-b", t0.plusSeconds(90), t0.plusSeconds(150))).isTrue();
+        assertThat(repo.findById(job)).get().extracting(JobLease::getOwner).isEqualTo("node-b");
+        assertThat(repo.tryClaim(job, "node-a", t0.plusSeconds(100), t0.plusSeconds(160))).isFalse();
+    }
+}
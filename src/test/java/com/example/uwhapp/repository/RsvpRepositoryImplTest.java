@@ -0,0 +1,103 @@
+package com.example.uwhapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.uwhapp.model.Event;
+import com.example.uwhapp.model.Rsvp;
+import com.example.uwhapp.model.User;
+
+/**
+ * The native upsert under contention: many threads writing the same (event, user) pair at
+ * once must neither hit the unique constraint nor leave more than one row behind.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RsvpRepositoryImplTest {
+
+    private static final int THREADS = 16;
+    private static final int WRITES_PER_THREAD = 25;
+    private static final String[] STATUSES = {"yes", "no", "maybe"};
+
+    @Autowired RsvpRepository rsvpRepo;
+    @Autowired EventRepository eventRepo;
+    @Autowired UserRepository userRepo;
+
+    @Test
+    void concurrentUpsertsOfOnePairLeaveOneRowWithTheLastWrite() throws Exception {
+        Event event = new Event();
+        event.setTitle("Upsert race");
+        event.setStartTime(Instant.now().plus(2, ChronoUnit.DAYS));
+        Long eventId = eventRepo.save(event).getId();
+        Long userId = userRepo.save(new User("Racer", "racer-" + System.nanoTime(), 5)).getId();
+
+        // each write gets its own responded_at, so the stored row identifies the write it came from
+        Instant base = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        List<Rsvp> lastWrites = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            lastWrites.add(write(eventId, userId, base, t, WRITES_PER_THREAD - 1));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < WRITES_PER_THREAD; i++) {
+                        Rsvp w = write(eventId, userId, base, thread, i);
+                        Rsvp stored = rsvpRepo.upsert(eventId, userId, w.getStatus(), w.getRespondedAt());
+                        assertThat(stored.getStatus()).isEqualTo(w.getStatus());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            // get() rethrows anything a writer threw, constraint violations included
+            for (Future<?> f : results) f.get(60, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<Rsvp> rows = rsvpRepo.findByEventId(eventId);
+        assertThat(rows).hasSize(1);
+        Rsvp row = rows.get(0);
+        assertThat(row.getUserId()).isEqualTo(userId);
+        // every thread's earlier writes committed before its final one, so whichever write
+        // committed last overall is some thread's final write, stored whole (status and time together)
+        assertThat(lastWrites).anySatisfy(w -> {
+            assertThat(row.getStatus()).isEqualTo(w.getStatus());
+            assertThat(row.getRespondedAt()).isEqualTo(w.getRespondedAt());
+        });
+
+        // and once the writers are done, a plain write replaces it
+        Instant later = base.plus(1, ChronoUnit.HOURS);
+        rsvpRepo.upsert(eventId, userId, "maybe", later);
+        rows = rsvpRepo.findByEventId(eventId);
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getStatus()).isEqualTo("maybe");
+        assertThat(rows.get(0).getRespondedAt()).isEqualTo(later);
+    }
+
+    private static Rsvp write(Long eventId, Long userId, Instant base, int thread, int i) {
+        Rsvp r = new Rsvp(eventId, userId, STATUSES[(thread + i) % STATUSES.length]);
+        r.setRespondedAt(base.plusMillis(thread * 1000L + i));
+        return r;
+    }
+}
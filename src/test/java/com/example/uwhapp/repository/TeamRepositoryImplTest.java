@@ -0,0 +1,53 @@
+package com.example.uwhapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.uwhapp.model.Event;
+import com.example.uwhapp.model.Team;
+import com.example.uwhapp.model.TeamMember;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TeamRepositoryImplTest {
+
+    @Autowired TeamRepository teamRepo;
+    @Autowired TeamMemberRepository memberRepo;
+    @Autowired EventRepository eventRepo;
+    @Autowired TransactionTemplate tx;
+
+    @Test
+    void insertsTeamsInOrderWithTheirMembers() {
+        Event e = new Event();
+        e.setTitle("Batch teams");
+        e.setStartTime(Instant.now());
+        Long eventId = eventRepo.save(e).getId();
+
+        teamRepo.insertAll(eventId, 42L, 3, List.of(List.of(1L, 2L, 3L), List.of(4L, 5L), List.of(6L)));
+
+        List<Team> teams = teamRepo.findByEventIdOrderByTeamIndex(eventId);
+        assertThat(teams).extracting(Team::getTeamIndex).containsExactly(1, 2, 3);
+        assertThat(teams).allSatisfy(t -> {
+            assertThat(t.getSeed()).isEqualTo(42L);
+            assertThat(t.getDraws()).isEqualTo(3);
+            assertThat(t.getCreatedAt()).isNotNull();
+        });
+        assertThat(memberRepo.findByTeamId(teams.get(0).getId())).extracting(TeamMember::getUserId).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(memberRepo.findByTeamId(teams.get(1).getId())).extracting(TeamMember::getUserId).containsExactlyInAnyOrder(4L, 5L);
+        assertThat(memberRepo.findByTeamId(teams.get(2).getId())).extracting(TeamMember::getUserId).containsExactly(6L);
+
+        tx.executeWithoutResult(s -> {
+            memberRepo.deleteByTeamIds(teams.stream().map(Team::getId).toList());
+            teamRepo.deleteByEventId(eventId);
+        });
+        assertThat(teamRepo.findByEventIdOrderByTeamIndex(eventId)).isEmpty();
+    }
+}
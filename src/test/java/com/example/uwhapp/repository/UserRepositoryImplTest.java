@@ -0,0 +1,42 @@
+package com.example.uwhapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.uwhapp.config.QueryCounter;
+import com.example.uwhapp.model.User;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserRepositoryImplTest {
+
+    @Autowired UserRepository userRepo;
+
+    @Test
+    void warmRosterLoadIssuesNoSql() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 20; i++) users.add(new User("Cached " + i, "cached-" + i + "-" + System.nanoTime(), i));
+        List<Long> ids = userRepo.saveAll(users).stream().map(User::getId).toList();
+
+        // first load fills the users region; each call runs in its own persistence context
+        assertThat(userRepo.findAllById(ids)).hasSize(ids.size());
+
+        QueryCounter.reset();
+        List<User> warm = userRepo.findAllById(ids);
+        assertThat(QueryCounter.count()).as("statements for a warm roster load").isZero();
+        assertThat(warm).extracting(User::getId).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void missingIdsAreOmitted() {
+        Long id = userRepo.save(new User("Present", "present-" + System.nanoTime(), 1)).getId();
+        assertThat(userRepo.findAllById(List.of(id, Long.MAX_VALUE))).extracting(User::getId).containsExactly(id);
+    }
+}
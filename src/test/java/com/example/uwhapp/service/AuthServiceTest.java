@@ -0,0 +1,96 @@
+package com.example.uwhapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.repository.UserRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthServiceTest {
+
+    @Autowired AuthService authService;
+    @Autowired UserRepository userRepo;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired SessionTokens sessionTokens;
+    @Autowired PlatformTransactionManager txManager;
+
+    @Test
+    void revocationWrittenBehindTheL2CacheIsHonoured() {
+        String username = "revoked-" + System.nanoTime();
+        User u = authService.register("Revoked", username, "password");
+        String token = authService.login(username, "password");
+        assertThat(authService.findByToken(token)).isPresent();
+
+        // warm the users L2 region, then revoke the way another node would: straight in the
+        // table, so this node's cached entity still carries the old version
+        userRepo.findById(u.getId());
+        jdbc.update("update users set token_version = token_version + 1 where id = ?", u.getId());
+        // stands in for the per-node user cache TTL running out
+        authService.evictUser(u.getId());
+
+        assertThat(authService.findByToken(token)).isEmpty();
+        assertThat(authService.findByToken(authService.login(username, "password"))).isPresent();
+    }
+
+    @Test
+    void loggingInLeavesTheLegacyTokenWorking() {
+        String username = "legacy-" + System.nanoTime();
+        User u = authService.register("Legacy", username, "password");
+        String legacy = legacyToken(u);
+        assertThat(authService.findByToken(legacy)).isPresent();
+
+        // a login on a new device does not log out the one still holding the UUID token
+        String signed = authService.login(username, "password");
+        authService.evictUser(u.getId());
+
+        assertThat(authService.findByToken(legacy)).map(AuthPrincipal::id).contains(u.getId());
+        assertThat(authService.findByToken(signed)).isPresent();
+        assertThat(jdbc.queryForObject("select token from users where id = ?", String.class, u.getId())).isEqualTo(legacy);
+    }
+
+    @Test
+    void legacyTokensAreRefusedOnceTheRolloverEnds() {
+        String username = "expired-" + System.nanoTime();
+        User u = authService.register("Expired", username, "password");
+        String legacy = legacyToken(u);
+        AuthService ended = new AuthService(userRepo, sessionTokens, txManager, mock(NodeFanout.class), 300, 1000,
+                "2000-01-01T00:00:00Z");
+
+        assertThat(ended.findByToken(legacy)).isEmpty();
+        // signed tokens are unaffected
+        assertThat(ended.findByToken(ended.login(username, "password"))).isPresent();
+        assertThat(authService.findByToken(legacy)).isPresent();
+    }
+
+    @Test
+    void adminFlagIsReadFromTheUserNotTheToken() {
+        String username = "promoted-" + System.nanoTime();
+        User u = authService.register("Promoted", username, "password");
+        String token = authService.login(username, "password");
+        assertThat(authService.findByToken(token)).map(AuthPrincipal::admin).contains(false);
+
+        u.setIsAdmin(true);
+        userRepo.save(u);
+        authService.evictUser(u.getId());
+
+        assertThat(authService.findByToken(token)).map(AuthPrincipal::admin).contains(true);
+    }
+
+    // a pre-rollover session: a UUID stored in users.token
+    private String legacyToken(User u) {
+        String token = UUID.randomUUID().toString();
+        jdbc.update("update users set token = ? where id = ?", token, u.getId());
+        return token;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.uwhapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.uwhapp.model.NodeMessage;
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.repository.NodeMessageRepository;
+import com.example.uwhapp.repository.UserRepository;
+import com.github.benmanes.caffeine.jcache.configuration.TypesafeConfigurator;
+import com.typesafe.config.ConfigFactory;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * A user changed through another node (written straight into the table, with the node's
+ * message in node_messages) is dropped from this node's second-level cache; a change made
+ * here is announced to the others.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EntityCacheFanoutTest {
+
+    @Autowired UserRepository userRepo;
+    @Autowired NodeFanout fanout;
+    @Autowired NodeMessageRepository messages;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired EntityManagerFactory emf;
+
+    // test contexts share the JVM's cache manager and the H2 database; another context that
+    // recreated the tables can leave entries behind under ids this test is about to reuse
+    @BeforeEach
+    void clearSecondLevelCache() {
+        emf.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void otherNodesWriteEvictsTheCachedUser() {
+        Long id = userRepo.save(new User("Elsewhere", "elsewhere-" + System.nanoTime(), 10)).getId();
+        assertThat(skillOf(id)).isEqualTo(10);
+
+        jdbc.update("update users set skill = 70 where id = ?", id);
+        // still the cached copy: nothing has told this node yet
+        assertThat(skillOf(id)).isEqualTo(10);
+
+        messages.insertAll(List.of(new NodeMessage("other-node", null, "l2-evict",
+                "{\"region\":\"users\",\"ids\":[" + id + "]}")));
+        fanout.exchange();
+
+        assertThat(skillOf(id)).isEqualTo(70);
+    }
+
+    @Test
+    void localWritesAreAnnounced() {
+        long before = messages.maxId();
+        User u = userRepo.save(new User("Announced", "announced-" + System.nanoTime(), 10));
+        u.setSkill(11);
+        userRepo.save(u);
+
+        fanout.exchange();
+
+        assertThat(messages.findTop500ByIdGreaterThanOrderByIdAsc(before))
+                .filteredOn(m -> m.getKind().equals("l2-evict") && m.getPayload().contains("\"users\""))
+                .extracting(NodeMessage::getPayload)
+                .anySatisfy(p -> assertThat(p).contains(String.valueOf(u.getId())));
+    }
+
+    @Test
+    void updateTimestampsRegionNeverExpires() {
+        var config = TypesafeConfigurator.from(ConfigFactory.load(), "default-update-timestamps-region").orElseThrow();
+        assertThat(config.getExpireAfterWrite()).isEmpty();
+        assertThat(config.getExpireAfterAccess()).isEmpty();
+        assertThat(config.getMaximumSize()).isEmpty();
+        // while the entity regions keep theirs
+        assertThat(TypesafeConfigurator.from(ConfigFactory.load(), "users").orElseThrow().getExpireAfterWrite()).isPresent();
+    }
+
+    private int skillOf(Long id) {
+        return userRepo.findAllById(List.of(id)).get(0).getSkill();
+    }
+}
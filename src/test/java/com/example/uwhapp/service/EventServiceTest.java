@@ -0,0 +1,73 @@
+package com.example.uwhapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import com.example.uwhapp.model.Event;
+import com.example.uwhapp.repository.EventRepository;
+
+class EventServiceTest {
+
+    private final EventRepository repo = mock(EventRepository.class);
+    private final PlatformTransactionManager txManager = mock(PlatformTransactionManager.class);
+
+    private EventService service(long ttlSeconds) {
+        return new EventService(repo, mock(RsvpCounts.class), mock(EventVersions.class), mock(EventStreamHub.class),
+                txManager, 50, ttlSeconds);
+    }
+
+    private static Event event(long id, Instant start) {
+        Event e = new Event();
+        e.setId(id);
+        e.setTitle("Session " + id);
+        e.setStartTime(start);
+        return e;
+    }
+
+    @Test
+    void windowIsLoadedInItsOwnReadWriteTransaction() {
+        when(repo.findPageAfter(any(), anyLong(), any(), any(Pageable.class))).thenReturn(List.of());
+
+        service(30).list(null, null, 10, null);
+
+        ArgumentCaptor<TransactionDefinition> tx = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(txManager).getTransaction(tx.capture());
+        assertThat(tx.getValue().isReadOnly()).isFalse();
+        assertThat(tx.getValue().getPropagationBehavior()).isEqualTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Test
+    void staleWindowIsReloaded() {
+        Instant soon = Instant.now().plus(1, ChronoUnit.DAYS);
+        Event first = event(1, soon);
+        Event addedElsewhere = event(2, soon.plusSeconds(60));
+        when(repo.findPageAfter(any(), anyLong(), any(), any(Pageable.class)))
+                .thenReturn(List.of(first), List.of(first, addedElsewhere));
+
+        EventService fresh = service(3600);
+        assertThat(fresh.list(null, null, 10, null).events()).containsExactly(first);
+        assertThat(fresh.list(null, null, 10, null).events()).containsExactly(first);
+        verify(repo, times(1)).findPageAfter(any(), anyLong(), any(), any(Pageable.class));
+
+        EventService expiring = service(0);
+        when(repo.findPageAfter(any(), anyLong(), any(), any(Pageable.class)))
+                .thenReturn(List.of(first), List.of(first, addedElsewhere));
+        assertThat(expiring.list(null, null, 10, null).events()).containsExactly(first);
+        assertThat(expiring.list(null, null, 10, null).events()).containsExactly(first, addedElsewhere);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.uwhapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+
+class EventVersionsTest {
+
+    private static EventVersions onNode(String nodeId) {
+        JobLeases leases = mock(JobLeases.class);
+        when(leases.nodeId()).thenReturn(nodeId);
+        return new EventVersions(leases, mock(NodeFanout.class));
+    }
+
+    @Test
+    void tagsMoveWithWrites() {
+        EventVersions v = onNode("a");
+        String teams = v.eventTag("teams", 1L);
+        String list = v.listTag("upcoming");
+        v.bump(1L);
+        assertThat(v.eventTag("teams", 1L)).isNotEqualTo(teams);
+        assertThat(v.listTag("upcoming")).isNotEqualTo(list);
+
+        String other = v.eventTag("teams", 2L);
+        v.bumpAll();
+        assertThat(v.eventTag("teams", 2L)).isNotEqualTo(other);
+    }
+
+    @Test
+    void tagsNeverMatchAcrossNodesOrRestarts() {
+        assertThat(onNode("a").eventTag("teams", 1L)).isNotEqualTo(onNode("b").eventTag("teams", 1L));
+        // same configured node id, new process: counters start again from zero
+        assertThat(onNode("a").listTag("upcoming")).isNotEqualTo(onNode("a").listTag("upcoming"));
+        assertThat(onNode("host-1").eventTag("teams", 1L)).doesNotContain("host-1");
+    }
+}
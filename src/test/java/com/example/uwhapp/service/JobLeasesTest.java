@@ -0,0 +1,54 @@
+package com.example.uwhapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.uwhapp.repository.JobLeaseRepository;
+
+class JobLeasesTest {
+
+    private static final String JOB = "leaseLoggingTestJob";
+
+    @Test
+    void runsOnlyWhenClaimedAndLogsOnlyWhenTheLeaseChangesHands() {
+        JobLeaseRepository repo = mock(JobLeaseRepository.class);
+        // lost, lost, lost, won, won, lost
+        when(repo.tryClaim(eq(JOB), eq("me"), any(), any())).thenReturn(false, false, false, true, true, false);
+        JobLeases leases = new JobLeases(repo, "me");
+        AtomicInteger runs = new AtomicInteger();
+
+        String log = captureStdout(() -> {
+            for (int i = 0; i < 6; i++) leases.runExclusively(JOB, Duration.ofSeconds(50), runs::incrementAndGet);
+        });
+
+        assertThat(runs).hasValue(2);
+        // scheduled jobs of other test contexts may print meanwhile; only this job's lines count
+        assertThat(log.lines().filter(l -> l.startsWith(JOB))).containsExactly(
+                JOB + " skipped: lease held by another node",
+                JOB + ": lease taken by this node (me)",
+                JOB + " skipped: lease held by another node");
+    }
+
+    private static String captureStdout(Runnable r) {
+        PrintStream original = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+        try {
+            r.run();
+        } finally {
+            System.setOut(original);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
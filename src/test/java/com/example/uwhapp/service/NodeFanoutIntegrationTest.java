@@ -0,0 +1,58 @@
+package com.example.uwhapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.uwhapp.model.NodeMessage;
+import com.example.uwhapp.repository.NodeMessageRepository;
+
+/**
+ * Another node's changes, written straight into node_messages, reach this node's counts and
+ * ETag versions; this node's own changes end up in the table for the others.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class NodeFanoutIntegrationTest {
+
+    private static final long EVENT = 9_000_001L;
+
+    @Autowired NodeFanout fanout;
+    @Autowired NodeMessageRepository repo;
+    @Autowired RsvpCounts counts;
+    @Autowired EventVersions versions;
+
+    @Test
+    void otherNodesRsvpsMoveLocalCountsAndTags() {
+        String tag = versions.eventTag("attendees", EVENT);
+        repo.insertAll(List.of(
+                new NodeMessage("other-node", EVENT, "counts", "{\"statuses\":{\"1\":\"yes\",\"2\":\"yes\",\"3\":\"no\"}}"),
+                new NodeMessage("other-node", EVENT, "version", "{}")));
+
+        fanout.exchange();
+
+        RsvpCounts.Summary s = counts.summary(EVENT);
+        assertThat(s.yes()).isEqualTo(2);
+        assertThat(s.no()).isEqualTo(1);
+        assertThat(versions.eventTag("attendees", EVENT)).isNotEqualTo(tag);
+    }
+
+    @Test
+    void localChangesAreWrittenForOtherNodes() {
+        long before = repo.maxId();
+        counts.record(EVENT + 1, 5L, "maybe");
+        versions.bump(EVENT + 1);
+
+        fanout.exchange();
+
+        assertThat(repo.findTop500ByIdGreaterThanOrderByIdAsc(before))
+                .filteredOn(m -> m.getEventId() != null && m.getEventId() == EVENT + 1)
+                .extracting(NodeMessage::getKind)
+                .contains("counts", "version");
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.uwhapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.uwhapp.model.NodeMessage;
+import com.example.uwhapp.repository.NodeMessageRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class NodeFanoutTest {
+
+    private final NodeMessageRepository repo = mock(NodeMessageRepository.class);
+    private final JobLeases leases = mock(JobLeases.class);
+    // the table: rows become visible ("commit") when added here
+    private final List<NodeMessage> table = new ArrayList<>();
+    private final List<Long> applied = new ArrayList<>();
+
+    private NodeFanout fanout(long gapWaitMillis) {
+        return fanout(gapWaitMillis, 0);
+    }
+
+    private NodeFanout fanout(long gapWaitMillis, long idleIntervalMillis) {
+        when(leases.nodeId()).thenReturn("me");
+        when(repo.maxId()).thenReturn(0L);
+        when(repo.findTop500ByIdGreaterThanOrderByIdAsc(anyLong())).thenAnswer(inv -> {
+            long after = inv.getArgument(0);
+            return table.stream().filter(m -> m.getId() > after)
+                    .sorted((a, b) -> Long.compare(a.getId(), b.getId())).collect(Collectors.toList());
+        });
+        NodeFanout f = new NodeFanout(repo, new ObjectMapper(), leases, mock(PlatformTransactionManager.class), 10, gapWaitMillis,
+                idleIntervalMillis);
+        f.init();
+        f.on("version", (eventId, data) -> applied.add(eventId));
+        return f;
+    }
+
+    private void commit(long id, String origin) {
+        NodeMessage m = new NodeMessage(origin, id * 10, "version", "{}");
+        m.setId(id);
+        table.add(m);
+    }
+
+    @Test
+    void appliesOtherNodesMessagesOnceAndSkipsOwn() {
+        NodeFanout f = fanout(5000);
+        commit(1, "other");
+        commit(2, "me");
+        commit(3, "other");
+        f.exchange();
+        f.exchange();
+        assertThat(applied).containsExactly(10L, 30L);
+    }
+
+    @Test
+    void lateCommittingLowerIdIsStillApplied() {
+        NodeFanout f = fanout(60_000);
+        commit(1, "other");
+        commit(3, "other");
+        f.exchange();
+        assertThat(applied).containsExactly(10L, 30L);
+
+        // id 2 commits after 3 was read: the cursor waited at 1, so it is picked up
+        commit(2, "other");
+        f.exchange();
+        assertThat(applied).containsExactly(10L, 30L, 20L);
+    }
+
+    @Test
+    void gapThatNeverFillsIsSkippedAfterTheWait() {
+        NodeFanout f = fanout(0);
+        commit(1, "other");
+        commit(3, "other");
+        f.exchange();
+        f.exchange();
+        commit(4, "other");
+        f.exchange();
+        assertThat(applied).containsExactly(10L, 30L, 40L);
+    }
+
+    @Test
+    void sentMessagesAreWrittenAsOneBatch() {
+        NodeFanout f = fanout(5000);
+        List<List<NodeMessage>> batches = new ArrayList<>();
+        doAnswer(inv -> batches.add(new ArrayList<>(inv.<List<NodeMessage>>getArgument(0)))).when(repo).insertAll(anyList());
+
+        f.send(1L, "version", Map.of());
+        f.send(2L, "counts", Map.of("statuses", Map.of(7L, "yes")));
+        f.exchange();
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).extracting(NodeMessage::getKind).containsExactly("version", "counts");
+        assertThat(batches.get(0).get(1).getPayload()).isEqualTo("{\"statuses\":{\"7\":\"yes\"}}");
+        assertThat(batches.get(0)).allSatisfy(m -> assertThat(m.getOrigin()).isEqualTo("me"));
+    }
+
+    @Test
+    void idleNodeReadsLessOftenUntilItSendsOrReceives() {
+        NodeFanout f = fanout(5000, 60_000);
+        f.poll();
+        verify(repo, times(1)).findTop500ByIdGreaterThanOrderByIdAsc(anyLong());
+
+        // the last read found nothing: the next ticks skip the read
+        clearInvocations(repo);
+        f.poll();
+        f.poll();
+        verify(repo, never()).findTop500ByIdGreaterThanOrderByIdAsc(anyLong());
+
+        // a local send goes out on the next tick and reads in the same pass
+        f.send(1L, "version", Map.of());
+        commit(1, "other");
+        f.poll();
+        verify(repo, times(1)).findTop500ByIdGreaterThanOrderByIdAsc(anyLong());
+        assertThat(applied).containsExactly(10L);
+
+        // that read found a row, so the node keeps reading every tick
+        clearInvocations(repo);
+        f.poll();
+        verify(repo, times(1)).findTop500ByIdGreaterThanOrderByIdAsc(anyLong());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.uwhapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+
+class RRuleTest {
+
+    private static final LocalDate MON = LocalDate.of(2026, 1, 5);
+
+    @Test
+    void parsesTheSupportedParts() {
+        RRule r = RRule.parse("RRULE:freq=weekly;interval=2;byday=TU,TH;byhour=19;byminute=30;until=20260331T000000Z;wkst=MO");
+        assertThat(r.weekly()).isTrue();
+        assertThat(r.interval()).isEqualTo(2);
+        assertThat(r.byDay()).containsExactlyInAnyOrder(DayOfWeek.TUESDAY, DayOfWeek.THURSDAY);
+        assertThat(r.time()).isEqualTo(LocalTime.of(19, 30));
+        assertThat(r.until()).isEqualTo(LocalDate.of(2026, 3, 31));
+    }
+
+    @Test
+    void rejectsWhatItDoesNotSupport() {
+        assertThatThrownBy(() -> RRule.parse("FREQ=MONTHLY")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RRule.parse("FREQ=WEEKLY;INTERVAL=0")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RRule.parse("FREQ=WEEKLY;BYDAY=1MO")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RRule.parse("FREQ=WEEKLY;COUNT=4")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RRule.parse(" ")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void weeklyIntervalCountsWeeksFromTheAnchor() {
+        RRule r = RRule.parse("FREQ=WEEKLY;INTERVAL=2;BYDAY=TU,TH");
+        assertThat(r.dates(MON, MON, LocalDate.of(2026, 2, 1))).containsExactly(
+                LocalDate.of(2026, 1, 6), LocalDate.of(2026, 1, 8),
+                LocalDate.of(2026, 1, 20), LocalDate.of(2026, 1, 22));
+        // a window starting mid-way keeps the anchor's fortnight, not its own
+        assertThat(r.dates(MON, LocalDate.of(2026, 1, 12), LocalDate.of(2026, 1, 25)))
+                .containsExactly(LocalDate.of(2026, 1, 20), LocalDate.of(2026, 1, 22));
+    }
+
+    @Test
+    void weeklyWithoutByDayUsesTheAnchorsWeekday() {
+        RRule r = RRule.parse("FREQ=WEEKLY");
+        LocalDate thu = LocalDate.of(2026, 1, 1);
+        assertThat(r.dates(thu, thu, LocalDate.of(2026, 1, 22)))
+                .containsExactly(thu, thu.plusWeeks(1), thu.plusWeeks(2), thu.plusWeeks(3));
+    }
+
+    @Test
+    void untilIsInclusiveAndNothingFallsBeforeTheAnchor() {
+        RRule r = RRule.parse("FREQ=WEEKLY;BYDAY=TH;UNTIL=20260115");
+        LocalDate thu = LocalDate.of(2026, 1, 1);
+        assertThat(r.dates(thu, thu.minusWeeks(3), thu.plusWeeks(8)))
+                .containsExactly(thu, LocalDate.of(2026, 1, 8), LocalDate.of(2026, 1, 15));
+        assertThat(r.dates(thu, LocalDate.of(2026, 1, 16), LocalDate.of(2026, 2, 28))).isEmpty();
+    }
+
+    @Test
+    void dailyIntervalAndByDayFilter() {
+        LocalDate anchor = LocalDate.of(2026, 1, 1);
+        assertThat(RRule.parse("FREQ=DAILY;INTERVAL=3").dates(anchor, anchor, LocalDate.of(2026, 1, 10)))
+                .containsExactly(anchor, LocalDate.of(2026, 1, 4), LocalDate.of(2026, 1, 7), LocalDate.of(2026, 1, 10));
+        // every day, weekends only
+        assertThat(RRule.parse("FREQ=DAILY;BYDAY=SA,SU").dates(anchor, anchor, LocalDate.of(2026, 1, 11)))
+                .containsExactly(LocalDate.of(2026, 1, 3), LocalDate.of(2026, 1, 4),
+                        LocalDate.of(2026, 1, 10), LocalDate.of(2026, 1, 11));
+    }
+}
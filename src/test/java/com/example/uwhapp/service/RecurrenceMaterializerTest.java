@@ -0,0 +1,177 @@
+package com.example.uwhapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.uwhapp.config.QueryBudgets;
+import com.example.uwhapp.config.QueryCounter;
+import com.example.uwhapp.model.Event;
+import com.example.uwhapp.model.RecurrenceRule;
+import com.example.uwhapp.repository.EventRepository;
+import com.example.uwhapp.repository.RecurrenceRuleRepository;
+
+/**
+ * Materialising rules in Pacific/Auckland across both daylight-saving changes, the statement
+ * count for a year of sessions from many rules, and the duplicate-occurrence guard.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RecurrenceMaterializerTest {
+
+    private static final ZoneId AUCKLAND = ZoneId.of("Pacific/Auckland");
+    private static final String[] DAYS = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+
+    @Autowired RecurrenceMaterializer materializer;
+    @Autowired RecurrenceRuleRepository ruleRepo;
+    @Autowired EventRepository eventRepo;
+    @Autowired EventVersions versions;
+    @Autowired QueryBudgets budgets;
+    @Autowired JdbcTemplate jdbc;
+
+    private final List<Long> ruleIds = new ArrayList<>();
+
+    @AfterEach
+    void removeRules() {
+        for (Long id : ruleIds) {
+            jdbc.update("delete from events where recurrence_rule_id = ?", id);
+            jdbc.update("delete from recurrence_rules where id = ?", id);
+        }
+    }
+
+    @Test
+    void aprilOverlapKeepsTheFirstOfTheRepeatedHour() {
+        // 2026-04-05 03:00 NZDT goes back to 02:00 NZST, so 02:30 happens twice
+        Instant start = RecurrenceMaterializer.startOf(LocalDate.of(2026, 4, 5), LocalTime.of(2, 30), AUCKLAND);
+        assertThat(start).isEqualTo(OffsetDateTime.of(2026, 4, 5, 2, 30, 0, 0, ZoneOffset.ofHours(13)).toInstant());
+    }
+
+    @Test
+    void septemberGapMovesForwardByTheGap() {
+        // 2026-09-27 02:00 NZST jumps to 03:00 NZDT, so 02:30 never happens
+        Instant start = RecurrenceMaterializer.startOf(LocalDate.of(2026, 9, 27), LocalTime.of(2, 30), AUCKLAND);
+        assertThat(start).isEqualTo(OffsetDateTime.of(2026, 9, 27, 3, 30, 0, 0, ZoneOffset.ofHours(13)).toInstant());
+    }
+
+    @Test
+    void wallClockTimeIsKeptAcrossBothChanges() {
+        assertThat(RecurrenceMaterializer.startOf(LocalDate.of(2026, 4, 2), LocalTime.of(19, 30), AUCKLAND))
+                .isEqualTo(Instant.parse("2026-04-02T06:30:00Z"));
+        assertThat(RecurrenceMaterializer.startOf(LocalDate.of(2026, 4, 9), LocalTime.of(19, 30), AUCKLAND))
+                .isEqualTo(Instant.parse("2026-04-09T07:30:00Z"));
+        assertThat(RecurrenceMaterializer.startOf(LocalDate.of(2026, 9, 24), LocalTime.of(19, 30), AUCKLAND))
+                .isEqualTo(Instant.parse("2026-09-24T07:30:00Z"));
+        assertThat(RecurrenceMaterializer.startOf(LocalDate.of(2026, 10, 1), LocalTime.of(19, 30), AUCKLAND))
+                .isEqualTo(Instant.parse("2026-10-01T06:30:00Z"));
+    }
+
+    @Test
+    void aYearOfSessionsCrossesBothChangesOnce() {
+        // Sunday 02:30: inside the repeated hour in April and the skipped one in September
+        Long id = rule("Small hours", "FREQ=WEEKLY;BYDAY=SU;BYHOUR=2;BYMINUTE=30");
+        materializer.materialize(366);
+
+        List<Event> events = eventsOf(id);
+        LocalDate today = LocalDate.now(AUCKLAND);
+        assertThat(events).hasSizeBetween(52, 53);
+        assertThat(events).extracting(Event::getOccurrenceDate).doesNotHaveDuplicates();
+
+        Instant from = Instant.now();
+        Instant to = from.plus(366, ChronoUnit.DAYS);
+        int changes = 0;
+        for (ZoneOffsetTransition t = AUCKLAND.getRules().nextTransition(from);
+                t != null && t.getInstant().isBefore(to); t = AUCKLAND.getRules().nextTransition(t.getInstant())) {
+            LocalDate sunday = t.getDateTimeBefore().toLocalDate();
+            assertThat(sunday.getDayOfWeek()).isEqualTo(DayOfWeek.SUNDAY);
+            if (sunday.isBefore(today)) continue;
+            Event e = events.stream().filter(ev -> ev.getOccurrenceDate().equals(sunday)).findFirst().orElseThrow();
+            assertThat(e.getStartTime()).isEqualTo(RecurrenceMaterializer.startOf(sunday, LocalTime.of(2, 30), AUCKLAND));
+            changes++;
+        }
+        assertThat(changes).isGreaterThanOrEqualTo(1);
+        // every other week is at 02:30 local, whichever offset applies
+        assertThat(events).filteredOn(e -> e.getStartTime().atZone(AUCKLAND).toLocalTime().equals(LocalTime.of(2, 30)))
+                .hasSizeGreaterThanOrEqualTo(events.size() - 1);
+    }
+
+    @Test
+    void aYearOfManyRulesTakesAFixedNumberOfStatements() {
+        for (int i = 0; i < 40; i++) {
+            rule("Rule " + i, "FREQ=WEEKLY;BYDAY=" + DAYS[i % 7] + "," + DAYS[(i + 3) % 7] + ";BYHOUR=" + (6 + i % 14));
+        }
+        String listTag = versions.listTag("all");
+
+        QueryCounter.reset();
+        RecurrenceMaterializer.Result first = materializer.materialize(366);
+        int statements = QueryCounter.count();
+
+        assertThat(first.created()).isGreaterThanOrEqualTo(40 * 2 * 52);
+        assertThat(statements).as("statements for a year of 40 rules")
+                .isLessThanOrEqualTo(budgets.budgetFor("SCHEDULED materializeEvents"));
+        assertThat(versions.listTag("all")).isNotEqualTo(listTag);
+
+        // a second run finds everything in place
+        QueryCounter.reset();
+        RecurrenceMaterializer.Result again = materializer.materialize(366);
+        assertThat(again.created()).isZero();
+        assertThat(QueryCounter.count()).isLessThanOrEqualTo(budgets.budgetFor("SCHEDULED materializeEvents"));
+    }
+
+    @Test
+    void insertAllSkipsAnOccurrenceThatAlreadyExists() {
+        Long id = rule("Moved", "FREQ=WEEKLY;BYDAY=TH;BYHOUR=19;BYMINUTE=30");
+        LocalDate date = LocalDate.now(AUCKLAND).plusWeeks(2).with(TemporalAdjusters.nextOrSame(DayOfWeek.THURSDAY));
+        Instant moved = RecurrenceMaterializer.startOf(date, LocalTime.of(20, 0), AUCKLAND);
+        eventRepo.insertAll(List.of(occurrence(id, date, moved)));
+
+        // the same (rule, date) again, as a racing node would write it, plus a new one
+        Instant regular = RecurrenceMaterializer.startOf(date, LocalTime.of(19, 30), AUCKLAND);
+        eventRepo.insertAll(List.of(occurrence(id, date, regular), occurrence(id, date.plusWeeks(1), regular.plus(7, ChronoUnit.DAYS))));
+
+        List<Event> events = eventsOf(id);
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0).getStartTime()).isEqualTo(moved);
+    }
+
+    private Long rule(String title, String rrule) {
+        RecurrenceRule r = ruleRepo.save(new RecurrenceRule(title, "Pool", rrule, LocalDate.now(AUCKLAND)));
+        ruleIds.add(r.getId());
+        return r.getId();
+    }
+
+    // ids read with plain JDBC: the batch insert does not touch the query cache findAll is served from
+    private List<Event> eventsOf(Long ruleId) {
+        List<Long> ids = jdbc.queryForList("select id from events where recurrence_rule_id = ?", Long.class, ruleId);
+        return eventRepo.findAllById(ids).stream()
+                .sorted((a, b) -> a.getOccurrenceDate().compareTo(b.getOccurrenceDate()))
+                .toList();
+    }
+
+    private static Event occurrence(Long ruleId, LocalDate date, Instant start) {
+        Event e = new Event();
+        e.setTitle("Moved");
+        e.setLocation("Pool");
+        e.setStartTime(start);
+        e.setRecurrenceRuleId(ruleId);
+        e.setOccurrenceDate(date);
+        return e;
+    }
+}
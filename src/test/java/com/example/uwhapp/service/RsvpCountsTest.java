@@ -0,0 +1,90 @@
+package com.example.uwhapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.uwhapp.model.Rsvp;
+import com.example.uwhapp.repository.EventRepository;
+import com.example.uwhapp.repository.RsvpRepository;
+
+class RsvpCountsTest {
+
+    private final RsvpRepository rsvps = mock(RsvpRepository.class);
+    private final EventRepository events = mock(EventRepository.class);
+    private final RsvpCounts counts = new RsvpCounts(rsvps, events, mock(NodeFanout.class), 24);
+
+    private static Object[] status(long eventId, long userId, String status) {
+        return new Object[] {eventId, userId, status};
+    }
+
+    private static Object[] total(long eventId, String status, long n) {
+        return new Object[] {eventId, status, n};
+    }
+
+    @Test
+    void rebuildKeepsChangesRecordedBeforeTheAppWasReady() {
+        counts.record(1L, 10L, "no");
+        when(rsvps.findStatusesForEventsSince(any())).thenReturn(List.of(
+                status(1L, 10L, "yes"), status(1L, 11L, "yes"), status(2L, 12L, "maybe")));
+
+        counts.rebuild();
+
+        // user 10's stored "yes" is older than the "no" recorded here
+        assertThat(counts.summary(1L)).isEqualTo(new RsvpCounts.Summary(1L, 1, 1, 0));
+        assertThat(counts.summary(2L)).isEqualTo(new RsvpCounts.Summary(2L, 0, 0, 1));
+    }
+
+    @Test
+    void pastEventsAreLoadedAsTotalsOnly() {
+        when(rsvps.countStatusesForEventsBefore(any())).thenReturn(List.of(
+                total(5L, "yes", 14), total(5L, "no", 3)));
+
+        counts.rebuild();
+
+        assertThat(counts.summary(5L)).isEqualTo(new RsvpCounts.Summary(5L, 14, 3, 0));
+        verify(rsvps, never()).findByEventId(5L);
+    }
+
+    @Test
+    void settledEventKeepsItsCountsAndReopensFromTheTableOnAChange() {
+        counts.record(1L, 10L, "yes");
+        counts.record(1L, 11L, "yes");
+        counts.record(2L, 12L, "no");
+        when(events.findIdsStartedBefore(anyCollection(), any())).thenReturn(List.of(1L));
+
+        counts.settle();
+
+        assertThat(counts.summary(1L)).isEqualTo(new RsvpCounts.Summary(1L, 2, 0, 0));
+        assertThat(counts.summary(2L)).isEqualTo(new RsvpCounts.Summary(2L, 0, 1, 0));
+
+        // user 11 changes their answer after the session: the stored rows come back first
+        when(rsvps.findByEventId(1L)).thenReturn(List.of(new Rsvp(1L, 10L, "yes"), new Rsvp(1L, 11L, "yes")));
+        counts.record(1L, 11L, "no");
+
+        assertThat(counts.summary(1L)).isEqualTo(new RsvpCounts.Summary(1L, 1, 1, 0));
+    }
+
+    @Test
+    void removedUserLowersOpenAndSettledCounts() {
+        counts.record(1L, 10L, "yes");
+        counts.record(1L, 11L, "maybe");
+        counts.record(2L, 10L, "no");
+        when(events.findIdsStartedBefore(anyCollection(), any())).thenReturn(List.of(1L));
+        counts.settle();
+
+        counts.removeUser(10L, Map.of(1L, "yes", 2L, "no"));
+
+        assertThat(counts.summary(1L)).isEqualTo(new RsvpCounts.Summary(1L, 0, 0, 1));
+        assertThat(counts.summary(2L)).isEqualTo(new RsvpCounts.Summary(2L, 0, 0, 0));
+    }
+}
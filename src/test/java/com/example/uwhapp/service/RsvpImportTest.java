@@ -0,0 +1,162 @@
+package com.example.uwhapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.example.uwhapp.dto.RsvpBatchResultDto;
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class RsvpImportTest {
+
+    private static final Long EVENT = 3L;
+    // users 1..100 exist
+    private static final long KNOWN = 100;
+
+    private final UserRepository userRepo = mock(UserRepository.class);
+    private final RsvpService rsvpService = mock(RsvpService.class);
+    private final RsvpImport rsvpImport = new RsvpImport(new ObjectMapper(), userRepo, rsvpService, 50);
+
+    RsvpImportTest() {
+        when(userRepo.findAllById(any())).thenAnswer(inv -> {
+            List<User> found = new ArrayList<>();
+            for (Long id : inv.<Iterable<Long>>getArgument(0)) {
+                if (id >= 1 && id <= KNOWN) {
+                    User u = new User("P" + id, "p" + id, 50);
+                    u.setId(id);
+                    found.add(u);
+                }
+            }
+            return found;
+        });
+    }
+
+    @Test
+    void jsonRowsAreImported() {
+        RsvpBatchResultDto result = importJson("""
+                [{"userId": 1, "status": "yes"}, {"status": "present", "userId": "2", "note": {"x": [1]}},
+                 {"userId": 3, "status": "Absent"}, {"userId": 4, "status": "maybe"}]""");
+
+        assertThat(result.rows()).isEqualTo(4);
+        assertThat(result.applied()).isEqualTo(4);
+        assertThat(result.errors()).isEmpty();
+        assertThat(written()).containsExactly(Map.entry(1L, "yes"), Map.entry(2L, "yes"), Map.entry(3L, "no"),
+                Map.entry(4L, "maybe"));
+    }
+
+    @Test
+    void csvRowsAreImported() {
+        RsvpBatchResultDto result = importCsv("1,yes\n\n 2 , attended \n\"3\",\"no\"\n");
+
+        // blank lines are not rows
+        assertThat(result.rows()).isEqualTo(3);
+        assertThat(result.errors()).isEmpty();
+        assertThat(written()).containsExactly(Map.entry(1L, "yes"), Map.entry(2L, "yes"), Map.entry(3L, "no"));
+    }
+
+    @Test
+    void csvHeaderNamesTheColumnsInAnyOrder() {
+        RsvpBatchResultDto result = importCsv("Attendance,Name,User_Id\npresent,Ann,5\nabsent,Bob,6\n");
+
+        assertThat(result.rows()).isEqualTo(2);
+        assertThat(written()).containsExactly(Map.entry(5L, "yes"), Map.entry(6L, "no"));
+    }
+
+    @Test
+    void csvHeaderWithoutTheColumnsIsRejected() {
+        assertThatThrownBy(() -> importCsv("name,status\nAnn,yes\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("userId and status");
+    }
+
+    @Test
+    void badRowsAreReportedByNumberAndTheRestGoIn() {
+        RsvpBatchResultDto json = importJson("""
+                [{"userId": 1, "status": "yes"}, "oops", {"userId": "x", "status": "yes"},
+                 {"userId": 2, "status": "later"}, {"userId": 999, "status": "no"}, {"status": "no"}, {"userId": 3, "status": "no"}]""");
+
+        assertThat(json.rows()).isEqualTo(7);
+        assertThat(json.applied()).isEqualTo(2);
+        assertThat(json.errors()).extracting(RsvpBatchResultDto.RowError::row).containsExactly(2, 3, 4, 5, 6);
+        assertThat(json.errors().get(0).error()).isEqualTo("expected an object");
+        assertThat(json.errors().get(1).error()).startsWith("userId missing or not a number");
+        assertThat(json.errors().get(2).error()).startsWith("status must be yes, no or maybe");
+        assertThat(json.errors().get(3).error()).isEqualTo("no user with id 999");
+
+        // CSV rows are numbered by line, header and blank lines included
+        RsvpBatchResultDto csv = importCsv("userId,status\n1,yes\n\n7\n8,nope\n9,no\n");
+        assertThat(csv.rows()).isEqualTo(4);
+        assertThat(csv.errors()).extracting(RsvpBatchResultDto.RowError::row).containsExactly(4, 5);
+        assertThat(csv.errors().get(0).error()).isEqualTo("expected userId and status");
+    }
+
+    @Test
+    void laterRowForTheSameUserWins() {
+        RsvpBatchResultDto result = importCsv("1,yes\n2,yes\n1,no\n3,maybe\n2,bogus\n");
+
+        // the last good row counts, in the order it came; a bad later row does not undo it
+        assertThat(result.applied()).isEqualTo(3);
+        assertThat(result.errors()).extracting(RsvpBatchResultDto.RowError::row).containsExactly(5);
+        assertThat(written()).containsExactly(Map.entry(2L, "yes"), Map.entry(1L, "no"), Map.entry(3L, "maybe"));
+    }
+
+    @Test
+    void moreThanMaxRowsIsRejectedWhole() {
+        StringBuilder csv = new StringBuilder("userId,status\n");
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 1; i <= 50; i++) {
+            csv.append(i).append(",yes\n");
+            json.append(i > 1 ? "," : "").append("{\"userId\":").append(i).append(",\"status\":\"yes\"}");
+        }
+        // exactly the cap is fine
+        assertThat(importCsv(csv.toString()).applied()).isEqualTo(50);
+        assertThat(importJson(json + "]").applied()).isEqualTo(50);
+
+        assertThatThrownBy(() -> importCsv(csv + "51,yes\n"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("more than 50 rows");
+        assertThatThrownBy(() -> importJson(json + ",{\"userId\":51,\"status\":\"yes\"}]"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("more than 50 rows");
+        verify(rsvpService, times(2)).upsertAll(eq(EVENT), any());
+    }
+
+    @Test
+    void unreadableJsonIsRejectedWhole() {
+        assertThatThrownBy(() -> importJson("{\"userId\": 1}"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("expected a JSON array");
+        assertThatThrownBy(() -> importJson("[{\"userId\": 1, \"status\": \"yes\"}"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> importJson("[{\"userId\": 1, \"status\": yes}]"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageStartingWith("malformed JSON");
+    }
+
+    private RsvpBatchResultDto importJson(String body) {
+        return rsvpImport.importRsvps(EVENT, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), false);
+    }
+
+    private RsvpBatchResultDto importCsv(String body) {
+        return rsvpImport.importRsvps(EVENT, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, String> written() {
+        ArgumentCaptor<Map<Long, String>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(rsvpService).upsertAll(eq(EVENT), captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.uwhapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.uwhapp.model.Rsvp;
+import com.example.uwhapp.repository.RsvpRepository;
+
+class RsvpWriteBufferTest {
+
+    private final RsvpRepository repo = mock(RsvpRepository.class);
+    private final RsvpWriteBuffer buffer = new RsvpWriteBuffer(repo, true, 1000);
+
+    @Test
+    void entriesStayVisibleUntilTheyAreWritten() {
+        buffer.put(1L, 10L, "yes");
+        List<Integer> visibleDuringWrite = new ArrayList<>();
+        doAnswer(inv -> {
+            visibleDuringWrite.add(buffer.pendingForEvent(1L).size());
+            return null;
+        }).when(repo).upsertAll(anyList());
+
+        buffer.flush();
+
+        assertThat(visibleDuringWrite).containsExactly(1);
+        assertThat(buffer.pendingForEvent(1L)).isEmpty();
+    }
+
+    @Test
+    void newerRsvpDuringFlushIsKept() {
+        buffer.put(1L, 10L, "yes");
+        doAnswer(inv -> {
+            buffer.put(1L, 10L, "no");
+            return null;
+        }).when(repo).upsertAll(anyList());
+
+        buffer.flush();
+
+        assertThat(buffer.pendingForEvent(1L)).singleElement()
+                .satisfies(r -> assertThat(r.getStatus()).isEqualTo("no"));
+    }
+
+    @Test
+    void failedBatchIsRetriedRowByRowAndBadRowsAreDropped() {
+        buffer.put(1L, 10L, "yes");
+        buffer.put(1L, 11L, "no");
+        buffer.put(1L, 12L, "maybe");
+        List<Long> written = new ArrayList<>();
+        doAnswer(inv -> {
+            List<Rsvp> rows = inv.getArgument(0);
+            if (rows.size() > 1 || rows.get(0).getUserId() == 11L) throw new IllegalStateException("fk violation");
+            written.add(rows.get(0).getUserId());
+            return null;
+        }).when(repo).upsertAll(anyList());
+
+        buffer.flush();
+
+        assertThat(written).containsExactlyInAnyOrder(10L, 12L);
+        assertThat(buffer.pendingForEvent(1L)).isEmpty();
+        // the dropped row does not come back on the next flush
+        buffer.flush();
+        verify(repo, times(4)).upsertAll(anyList());
+    }
+
+    @Test
+    void droppedUserIsNotWrittenByTheNextFlush() {
+        buffer.put(1L, 10L, "yes");
+        buffer.put(2L, 10L, "no");
+        buffer.put(1L, 11L, "maybe");
+        List<Long> written = new ArrayList<>();
+        doAnswer(inv -> {
+            List<Rsvp> rows = inv.getArgument(0);
+            rows.forEach(r -> written.add(r.getUserId()));
+            return null;
+        }).when(repo).upsertAll(anyList());
+
+        buffer.dropForUser(10L);
+        buffer.flush();
+
+        assertThat(written).containsExactly(11L);
+        assertThat(buffer.pendingForUser(10L)).isEmpty();
+    }
+
+    @Test
+    void dropWaitsForAFlushAlreadyWritingTheUser() throws Exception {
+        buffer.put(1L, 10L, "yes");
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(repo).upsertAll(anyList());
+
+        CompletableFuture<Void> flush = CompletableFuture.runAsync(buffer::flush);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Void> drop = CompletableFuture.runAsync(() -> buffer.dropForUser(10L));
+        Thread.sleep(100);
+        // still blocked behind the flush, so the caller cannot delete the stored rows yet
+        assertThat(drop).isNotDone();
+
+        release.countDown();
+        flush.get(5, TimeUnit.SECONDS);
+        drop.get(5, TimeUnit.SECONDS);
+        assertThat(buffer.pendingForUser(10L)).isEmpty();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.uwhapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+class SessionTokensTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    @Test
+    void blankSecretFailsOutsideDev() {
+        MockEnvironment prod = new MockEnvironment();
+        prod.setActiveProfiles("prod");
+        assertThatThrownBy(() -> new SessionTokens("", 720, prod))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("auth.token.secret");
+        assertThatThrownBy(() -> new SessionTokens(null, 720, new MockEnvironment()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void blankSecretInDevUsesARandomKey() {
+        MockEnvironment dev = new MockEnvironment();
+        dev.setActiveProfiles("dev");
+        SessionTokens tokens = new SessionTokens(" ", 720, dev);
+        assertThat(tokens.verify(tokens.issue(7, false, 0))).isPresent();
+    }
+
+    @Test
+    void shortSecretFailsEverywhere() {
+        MockEnvironment dev = new MockEnvironment();
+        dev.setActiveProfiles("dev");
+        assertThatThrownBy(() -> new SessionTokens(SECRET.substring(1), 720, dev))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("at least 32 bytes");
+    }
+
+    @Test
+    void tokensVerifyOnlyWithTheSameSecret() {
+        MockEnvironment prod = new MockEnvironment();
+        SessionTokens a = new SessionTokens(SECRET, 720, prod);
+        SessionTokens b = new SessionTokens(SECRET.toUpperCase(), 720, prod);
+        String token = a.issue(42, true, 3);
+        assertThat(a.verify(token)).hasValueSatisfying(c -> {
+            assertThat(c.userId()).isEqualTo(42);
+            assertThat(c.admin()).isTrue();
+            assertThat(c.version()).isEqualTo(3);
+        });
+        assertThat(b.verify(token)).isEmpty();
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.uwhapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.uwhapp.model.User;
+
+class TeamGenerationJobsTest {
+
+    private static final Long EVENT = 7L;
+
+    private final TeamService teamService = mock(TeamService.class);
+    private final EventStreamHub streamHub = mock(EventStreamHub.class);
+    // one teams slot: a second job stays queued while the first runs
+    private final Workloads workloads = new Workloads(1, 10, 1, 10, 1, 10);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<User> attendees = new ArrayList<>();
+
+    TeamGenerationJobsTest() {
+        for (long id = 1; id <= 4; id++) {
+            User u = new User("P" + id, "p" + id, 50);
+            u.setId(id);
+            attendees.add(u);
+        }
+        when(teamService.attendees(EVENT)).thenReturn(attendees);
+        // runs until released, or until its job is cancelled, as the generators do
+        when(teamService.generateAndSave(anyString(), eq(EVENT), anyString(), any(), any())).thenAnswer(inv -> {
+            GenerationOptions options = inv.getArgument(4);
+            while (!release.await(5, TimeUnit.MILLISECONDS)) {
+                if (options.progress().cancelled()) throw new CancellationException();
+            }
+            return new TeamService.GeneratedTeams(List.of(attendees.subList(0, 2), attendees.subList(2, 4)), options.seed());
+        });
+    }
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        workloads.shutdown();
+    }
+
+    private TeamGenerationJobs jobs(long retentionMinutes) {
+        return new TeamGenerationJobs(teamService, workloads, streamHub, retentionMinutes);
+    }
+
+    @Test
+    void sameUnfinishedRequestSharesOneJob() throws Exception {
+        TeamGenerationJobs jobs = jobs(10);
+        GenerationOptions seeded = new GenerationOptions(null, null, 5L, 1, null, null, null);
+
+        TeamGenerationJobs.Job first = jobs.submit(EVENT, "random", GenerationOptions.NONE);
+        assertThat(jobs.submit(EVENT, "random", GenerationOptions.NONE)).isSameAs(first);
+        // anything in the key that differs is a different request
+        TeamGenerationJobs.Job other = jobs.submit(EVENT, "balanced", GenerationOptions.NONE);
+        TeamGenerationJobs.Job withSeed = jobs.submit(EVENT, "random", seeded);
+        assertThat(other).isNotSameAs(first);
+        assertThat(withSeed).isNotSameAs(first).isNotSameAs(other);
+        assertThat(jobs.submit(EVENT, "random", seeded)).isSameAs(withSeed);
+
+        release.countDown();
+        awaitFinished(first, other, withSeed);
+        assertThat(first.getState()).isEqualTo(TeamGenerationJobs.State.DONE);
+        assertThat(first.getResult()).hasSize(2);
+
+        // once finished, the same request starts a new job
+        TeamGenerationJobs.Job again = jobs.submit(EVENT, "random", GenerationOptions.NONE);
+        assertThat(again).isNotSameAs(first);
+        awaitFinished(again);
+        verify(teamService, times(4)).generateAndSave(anyString(), eq(EVENT), anyString(), any(), any());
+    }
+
+    @Test
+    void cancellingAQueuedJobDropsItBeforeItRuns() throws Exception {
+        TeamGenerationJobs jobs = jobs(10);
+        TeamGenerationJobs.Job running = jobs.submit(EVENT, "random", GenerationOptions.NONE);
+        awaitState(running, TeamGenerationJobs.State.RUNNING);
+        TeamGenerationJobs.Job queued = jobs.submit(EVENT, "balanced", GenerationOptions.NONE);
+        assertThat(queued.getState()).isEqualTo(TeamGenerationJobs.State.QUEUED);
+
+        assertThat(jobs.cancel(queued.getId())).isTrue();
+
+        // cancelled at once, without waiting for the slot
+        assertThat(queued.getState()).isEqualTo(TeamGenerationJobs.State.CANCELLED);
+        assertThat(queued.getStartedAt()).isNull();
+        assertThat(jobs.cancel(queued.getId())).isFalse();
+        // its key is free again
+        TeamGenerationJobs.Job resubmitted = jobs.submit(EVENT, "balanced", GenerationOptions.NONE);
+        assertThat(resubmitted).isNotSameAs(queued);
+
+        release.countDown();
+        awaitFinished(running, resubmitted);
+        assertThat(queued.getState()).isEqualTo(TeamGenerationJobs.State.CANCELLED);
+        verify(teamService, times(1)).generateAndSave(anyString(), eq(EVENT), eq("balanced"), any(), any());
+    }
+
+    @Test
+    void cancellingARunningJobStopsTheGeneration() throws Exception {
+        TeamGenerationJobs jobs = jobs(10);
+        TeamGenerationJobs.Job job = jobs.submit(EVENT, "random", GenerationOptions.NONE);
+        awaitState(job, TeamGenerationJobs.State.RUNNING);
+
+        assertThat(jobs.cancel(job.getId())).isTrue();
+
+        // stops at the generator's next check, without the release
+        awaitFinished(job);
+        assertThat(job.getState()).isEqualTo(TeamGenerationJobs.State.CANCELLED);
+        assertThat(job.getResult()).isNull();
+        assertThat(jobs.cancel(job.getId())).isFalse();
+        assertThat(jobs.submit(EVENT, "random", GenerationOptions.NONE)).isNotSameAs(job);
+    }
+
+    @Test
+    void finishedJobsArePurgedAfterTheRetention() throws Exception {
+        TeamGenerationJobs kept = jobs(10);
+        TeamGenerationJobs purged = jobs(0);
+        TeamGenerationJobs.Job done = purged.submit(EVENT, "random", GenerationOptions.NONE);
+        TeamGenerationJobs.Job doneKept = kept.submit(EVENT, "balanced", GenerationOptions.NONE);
+        release.countDown();
+        awaitFinished(done, doneKept);
+        Thread.sleep(5);
+
+        // the scheduled sweep, with no submit in between
+        purged.purgeFinished();
+        kept.purgeFinished();
+
+        assertThat(purged.get(done.getId())).isNull();
+        assertThat(kept.get(doneKept.getId())).isSameAs(doneKept);
+    }
+
+    @Test
+    void unfinishedJobsAreNeverPurged() throws Exception {
+        TeamGenerationJobs jobs = jobs(0);
+        TeamGenerationJobs.Job running = jobs.submit(EVENT, "random", GenerationOptions.NONE);
+        TeamGenerationJobs.Job queued = jobs.submit(EVENT, "balanced", GenerationOptions.NONE);
+        awaitState(running, TeamGenerationJobs.State.RUNNING);
+        Thread.sleep(5);
+
+        jobs.purgeFinished();
+
+        assertThat(jobs.get(running.getId())).isSameAs(running);
+        assertThat(jobs.get(queued.getId())).isSameAs(queued);
+    }
+
+    private static void awaitState(TeamGenerationJobs.Job job, TeamGenerationJobs.State state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (job.getState() != state && System.nanoTime() < deadline) Thread.sleep(5);
+        assertThat(job.getState()).isEqualTo(state);
+    }
+
+    private static void awaitFinished(TeamGenerationJobs.Job... jobs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (TeamGenerationJobs.Job job : jobs) {
+            while (!job.finished() && System.nanoTime() < deadline) Thread.sleep(5);
+            assertThat(job.finished()).as("job %s finished", job.getId()).isTrue();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.uwhapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.uwhapp.model.Event;
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.repository.EventRepository;
+import com.example.uwhapp.repository.UserRepository;
+
+/**
+ * Synchronous generate-teams calls and an async job for the same request, all at once,
+ * share one generation and one save.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TeamServiceSingleFlightTest {
+
+    private static final int CALLERS = 12;
+
+    @SpyBean TeamService teamService;
+    @Autowired TeamGenerationJobs jobs;
+    @Autowired RsvpService rsvpService;
+    @Autowired EventRepository eventRepo;
+    @Autowired UserRepository userRepo;
+
+    @Test
+    void concurrentSyncAndAsyncCallsSaveOnce() throws Exception {
+        Event event = new Event();
+        event.setTitle("Single flight");
+        event.setStartTime(Instant.now().plus(3, ChronoUnit.DAYS));
+        Long eventId = eventRepo.save(event).getId();
+        Map<Long, String> yes = new HashMap<>();
+        for (int i = 0; i < 24; i++) {
+            yes.put(userRepo.save(new User("Flyer " + i, "flyer-" + i + "-" + System.nanoTime(), i * 4)).getId(), "yes");
+        }
+        rsvpService.upsertAll(eventId, yes);
+
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Long> seeds = ConcurrentHashMap.newKeySet();
+        List<Future<?>> calls = new ArrayList<>();
+        try {
+            for (int i = 0; i < CALLERS; i++) {
+                boolean async = i % 2 == 1;
+                calls.add(pool.submit(() -> {
+                    start.await();
+                    if (async) {
+                        TeamGenerationJobs.Job job = jobs.submit(eventId, "random", GenerationOptions.NONE);
+                        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+                        while (!job.finished() && System.nanoTime() < deadline) Thread.sleep(10);
+                        assertThat(job.getState()).isEqualTo(TeamGenerationJobs.State.DONE);
+                        seeds.add(job.getSeed());
+                    } else {
+                        seeds.add(teamService.generateAndSaveTeams(eventId, "random").seed());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : calls) f.get(60, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        verify(teamService, times(1)).saveTeams(eq(eventId), any(), any(), any());
+        assertThat(seeds).hasSize(1);
+    }
+}
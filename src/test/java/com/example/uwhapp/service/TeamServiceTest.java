@@ -0,0 +1,61 @@
+package com.example.uwhapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.uwhapp.model.User;
+
+/** How many teams generate() makes, and the old generator name. */
+@SpringBootTest
+@ActiveProfiles("test")
+class TeamServiceTest {
+
+    @Autowired TeamService teamService;
+
+    @Test
+    void teamCountComesFromTheRequest() {
+        GenerationOptions three = new GenerationOptions(null, null, 1L, 1, null, 3, null);
+        assertThat(teamService.generate(players(9), "tiered", three)).hasSize(3);
+        assertThat(teamService.generate(players(9), "balanced", three)).hasSize(3);
+        assertThat(teamService.generate(players(9), "random", three)).hasSize(3);
+        // a count that no whole team size gives (nine players in threes would make three teams)
+        GenerationOptions four = new GenerationOptions(null, null, 1L, 1, null, 4, null);
+        assertThat(teamService.generate(players(9), "history-aware", four)).hasSize(4);
+        assertThat(teamService.generate(players(9), "multi-balanced", four)).hasSize(4);
+        // never more teams than players
+        GenerationOptions twelve = new GenerationOptions(null, null, 1L, 1, null, 12, null);
+        assertThat(teamService.generate(players(5), "tiered", twelve)).hasSize(5);
+    }
+
+    @Test
+    void defaultTeamCountIsConfigured() {
+        GenerationOptions seeded = GenerationOptions.NONE.withSeed();
+        assertThat(teamService.generate(players(19), "tiered", seeded)).hasSize(2);
+        assertThat(teamService.generate(players(20), "tiered", seeded)).hasSize(4);
+    }
+
+    @Test
+    void unevenBalancedIsTheTieredGenerator() {
+        GenerationOptions options = new GenerationOptions(null, null, 7L, 1, null, 4, null);
+        List<User> pool = players(22);
+        assertThat(teamService.generate(pool, "uneven-balanced", options))
+                .isEqualTo(teamService.generate(pool, "tiered", options));
+    }
+
+    private static List<User> players(int n) {
+        List<User> pool = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            User u = new User("P" + i, "p" + i, (i * 37) % 100);
+            u.setId(1000L + i);
+            pool.add(u);
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.uwhapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.example.uwhapp.repository.TeamMemberRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class TeammateHistoryTest {
+
+    private final TeamMemberRepository repo = mock(TeamMemberRepository.class);
+    private final NodeFanout fanout = mock(NodeFanout.class);
+    private final TeammateHistory history = new TeammateHistory(repo, fanout);
+
+    @Test
+    void indexPacksTheUpperTriangleRowByRow() {
+        for (int n = 2; n <= 12; n++) {
+            int expected = 0;
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    assertThat(TeammateHistory.index(i, j, n)).as("n=%d (%d,%d)", n, i, j).isEqualTo(expected++);
+                }
+            }
+            assertThat(expected).isEqualTo(n * (n - 1) / 2);
+        }
+    }
+
+    @Test
+    void recordAndForgetMoveOnlyTheTeamsPairs() {
+        history.recordTeams(List.of(List.of(1L, 2L, 3L), List.of(4L, 5L)));
+        history.recordTeams(List.of(List.of(2L, 1L), List.of(3L, 4L)));
+
+        assertThat(history.timesTogether(1, 2)).isEqualTo(2);
+        assertThat(history.timesTogether(2, 1)).isEqualTo(2);
+        assertThat(history.timesTogether(1, 3)).isEqualTo(1);
+        assertThat(history.timesTogether(3, 4)).isEqualTo(1);
+        assertThat(history.timesTogether(1, 4)).isZero();
+        assertThat(history.size()).isEqualTo(5);
+
+        history.forgetTeams(List.of(List.of(1L, 2L, 3L)));
+
+        assertThat(history.timesTogether(1, 2)).isEqualTo(1);
+        // pairs that drop to zero are removed, not kept as zero entries
+        assertThat(history.timesTogether(1, 3)).isZero();
+        assertThat(history.size()).isEqualTo(3);
+
+        // forgetting more than was recorded never goes negative
+        history.forgetTeams(List.of(List.of(4L, 5L), List.of(4L, 5L)));
+        assertThat(history.timesTogether(4, 5)).isZero();
+    }
+
+    @Test
+    void snapshotFollowsTheCallersOrder() {
+        history.recordTeams(List.of(List.of(10L, 20L), List.of(20L, 30L), List.of(20L, 30L)));
+
+        long[] ids = {30, 10, 20};
+        short[] snap = history.snapshot(ids);
+
+        assertThat(snap).hasSize(3);
+        assertThat(snap[TeammateHistory.index(0, 1, 3)]).isEqualTo((short) 0); // 30, 10
+        assertThat(snap[TeammateHistory.index(0, 2, 3)]).isEqualTo((short) 2); // 30, 20
+        assertThat(snap[TeammateHistory.index(1, 2, 3)]).isEqualTo((short) 1); // 10, 20
+        assertThat(history.snapshot(new long[] {99})).isEmpty();
+    }
+
+    @Test
+    void rebuildGroupsStoredMembersByTeam() {
+        history.recordTeams(List.of(List.of(7L, 8L)));
+        when(repo.findAllTeamUserIds()).thenReturn(List.of(
+                new Object[] {100L, 1L}, new Object[] {100L, 2L}, new Object[] {101L, 1L}, new Object[] {101L, 2L},
+                new Object[] {101L, 3L}));
+
+        history.rebuild();
+
+        assertThat(history.timesTogether(1, 2)).isEqualTo(2);
+        assertThat(history.timesTogether(2, 3)).isEqualTo(1);
+        assertThat(history.timesTogether(7, 8)).isZero();
+    }
+
+    @Test
+    void changesArePassedOnAndOtherNodesChangesApplied() throws Exception {
+        List<List<Long>> teams = List.of(List.of(1L, 2L), List.of(3L, 4L));
+        history.recordTeams(teams);
+        history.forgetTeams(List.of(List.of(3L, 4L)));
+        verify(fanout).send(null, "history-record", Map.of("teams", teams));
+        verify(fanout).send(null, "history-forget", Map.of("teams", List.of(List.of(3L, 4L))));
+
+        // another node's messages, as NodeFanout hands them over after a JSON round trip
+        Map<String, NodeFanout.Handler> handlers = handlers();
+        ObjectMapper json = new ObjectMapper();
+        TypeReference<Map<String, Object>> payload = new TypeReference<>() {};
+        handlers.get("history-record").apply(null,
+                json.readValue(json.writeValueAsString(Map.of("teams", List.of(List.of(1L, 2L, 5L)))), payload));
+        handlers.get("history-forget").apply(null,
+                json.readValue(json.writeValueAsString(Map.of("teams", List.of(List.of(1L, 2L)))), payload));
+
+        assertThat(history.timesTogether(1, 2)).isEqualTo(1);
+        assertThat(history.timesTogether(2, 5)).isEqualTo(1);
+        // applying them did not send anything back out
+        verify(fanout, never()).send(any(), eq("history-record"), eq(Map.of("teams", List.of(List.of(1L, 2L, 5L)))));
+    }
+
+    private Map<String, NodeFanout.Handler> handlers() {
+        ArgumentCaptor<String> kinds = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<NodeFanout.Handler> handlers = ArgumentCaptor.forClass(NodeFanout.Handler.class);
+        verify(fanout, atLeastOnce()).on(kinds.capture(), handlers.capture());
+        Map<String, NodeFanout.Handler> out = new HashMap<>();
+        for (int i = 0; i < kinds.getAllValues().size(); i++) out.put(kinds.getAllValues().get(i), handlers.getAllValues().get(i));
+        assertThat(out).containsOnlyKeys("history-record", "history-forget");
+        return out;
+    }
+}
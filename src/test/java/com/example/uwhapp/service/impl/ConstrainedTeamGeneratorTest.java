@@ -0,0 +1,179 @@
+package com.example.uwhapp.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.service.GenerationOptions;
+import com.example.uwhapp.service.GenerationProgress;
+
+class ConstrainedTeamGeneratorTest {
+
+    private final ConstrainedTeamGenerator generator = new ConstrainedTeamGenerator(1_000);
+
+    @Test
+    void togetherAndApartAlwaysHold() {
+        Random rnd = new Random(3);
+        // the default cap: the constraints hold whether or not the search finishes
+        ConstrainedTeamGenerator quick = new ConstrainedTeamGenerator(250);
+        for (int round = 0; round < 100; round++) {
+            int n = 6 + rnd.nextInt(35);
+            int k = 2 + rnd.nextInt(3);
+            List<User> pool = players(n, rnd);
+            List<List<Long>> together = new ArrayList<>();
+            List<List<Long>> apart = new ArrayList<>();
+            constraints(pool, k, rnd, together, apart);
+
+            List<List<User>> teams = quick.makeTeams(pool, 1, options(together, apart, k));
+
+            Map<Long, Integer> teamOf = teamOf(teams);
+            assertThat(teamOf).as("round %d", round).hasSize(n);
+            for (List<Long> group : together) {
+                assertThat(group.stream().map(teamOf::get).distinct()).as("round %d together %s", round, group).hasSize(1);
+            }
+            for (List<Long> group : apart) {
+                assertThat(group.stream().map(teamOf::get).distinct()).as("round %d apart %s", round, group)
+                        .hasSize(group.size());
+            }
+        }
+    }
+
+    @Test
+    void playersBothTogetherAndApartAreRejected() {
+        List<User> pool = players(8, new Random(1));
+        // 1 and 3 are joined through 2, then asked to be apart
+        GenerationOptions options = options(List.of(List.of(1L, 2L), List.of(2L, 3L)), List.of(List.of(1L, 3L)), 2);
+
+        assertThatThrownBy(() -> generator.makeTeams(pool, 4, options))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("both together and apart");
+    }
+
+    @Test
+    void moreMutuallyApartPlayersThanTeamsIsInfeasible() {
+        List<User> pool = players(8, new Random(1));
+        GenerationOptions options = options(List.of(), List.of(List.of(1L, 2L, 3L)), 2);
+
+        assertThatThrownBy(() -> generator.makeTeams(pool, 4, options))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("no team split satisfies the together/apart constraints");
+    }
+
+    @Test
+    void timeCapReturnsTheBestSplitFoundSoFar() {
+        Random rnd = new Random(11);
+        // skills in tens with a total that six teams cannot split evenly: the search's floor (a
+        // spread of 1) is out of reach, so it can only stop at the cap
+        List<User> pool = players(60, rnd);
+        pool.forEach(u -> u.setSkill(u.getSkill() / 10 * 10));
+        if (pool.stream().mapToInt(User::getSkill).sum() % 6 == 0) pool.get(0).setSkill(pool.get(0).getSkill() + 10);
+        List<List<Long>> together = new ArrayList<>();
+        List<List<Long>> apart = new ArrayList<>();
+        constraints(pool, 6, rnd, together, apart);
+        List<Long> reported = new ArrayList<>();
+        GenerationProgress progress = new GenerationProgress() {
+            @Override
+            public void report(double fraction, long bestScore) {
+                reported.add(bestScore);
+            }
+
+            @Override
+            public boolean cancelled() {
+                return false;
+            }
+        };
+        ConstrainedTeamGenerator capped = new ConstrainedTeamGenerator(5);
+
+        long started = System.nanoTime();
+        List<List<User>> teams = capped.makeTeams(pool, 1,
+                new GenerationOptions(together, apart, null, 1, null, 6, progress));
+        long tookMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(tookMillis).isBetween(5L, 1_000L);
+        assertThat(reported).isNotEmpty();
+        // what comes back is the last (best) split the search reported
+        assertThat(spread(teams)).isEqualTo(reported.get(reported.size() - 1));
+        assertThat(reported).isSortedAccordingTo(Collections.reverseOrder());
+    }
+
+    @Test
+    void timeoutBeforeAnySplitIsNotReportedAsInfeasible() {
+        // 21 together pairs into two teams: 21 + 21 cannot be made of pairs, so the even-size
+        // search has to exhaust every way of placing them before widening to 20 + 22
+        List<User> pool = players(42, new Random(5));
+        List<List<Long>> pairs = new ArrayList<>();
+        for (long id = 1; id <= 42; id += 2) pairs.add(List.of(id, id + 1));
+        GenerationOptions options = options(pairs, List.of(), 2);
+
+        assertThatThrownBy(() -> new ConstrainedTeamGenerator(0).makeTeams(pool, 21, options))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("was found within 0ms")
+                .hasMessageContaining("may still be satisfiable");
+
+        // given the time, the same constraints are satisfied
+        List<List<User>> teams = generator.makeTeams(pool, 21, options);
+        assertThat(teams).extracting(List::size).containsExactlyInAnyOrder(20, 22);
+    }
+
+    private static GenerationOptions options(List<List<Long>> together, List<List<Long>> apart, int teams) {
+        return new GenerationOptions(together, apart, null, 1, null, teams, null);
+    }
+
+    // hidden teams of sizes within one: together groups within a hidden team, apart groups across
+    // them, so a split that keeps sizes within one always exists
+    private static void constraints(List<User> pool, int k, Random rnd, List<List<Long>> together, List<List<Long>> apart) {
+        List<User> shuffled = new ArrayList<>(pool);
+        Collections.shuffle(shuffled, rnd);
+        List<List<Long>> hidden = new ArrayList<>();
+        for (int t = 0; t < k; t++) hidden.add(new ArrayList<>());
+        for (int i = 0; i < shuffled.size(); i++) hidden.get(i % k).add(shuffled.get(i).getId());
+        for (List<Long> team : hidden) {
+            if (team.size() >= 2 && rnd.nextBoolean()) together.add(List.of(team.get(0), team.get(1)));
+        }
+        for (int c = 0; c < 2 + rnd.nextInt(4); c++) {
+            List<Long> group = new ArrayList<>();
+            for (List<Long> team : hidden) {
+                if (group.size() < 2 + rnd.nextInt(k - 1)) group.add(team.get(rnd.nextInt(team.size())));
+            }
+            apart.add(group);
+        }
+    }
+
+    private static List<User> players(int n, Random rnd) {
+        List<User> pool = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            User u = new User("P" + i, "p" + i, rnd.nextInt(100));
+            u.setId((long) i + 1);
+            pool.add(u);
+        }
+        return pool;
+    }
+
+    private static Map<Long, Integer> teamOf(List<List<User>> teams) {
+        Map<Long, Integer> out = new HashMap<>();
+        for (int t = 0; t < teams.size(); t++) {
+            for (User u : teams.get(t)) out.put(u.getId(), t);
+        }
+        return out;
+    }
+
+    private static long spread(List<List<User>> teams) {
+        long max = Long.MIN_VALUE;
+        long min = Long.MAX_VALUE;
+        for (List<User> team : teams) {
+            long total = team.stream().mapToLong(User::getSkill).sum();
+            max = Math.max(max, total);
+            min = Math.min(min, total);
+        }
+        return max - min;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.uwhapp.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.uwhapp.model.User;
+
+class MultiAttributeTeamGeneratorTest {
+
+    private final MultiAttributeTeamGenerator generator = new MultiAttributeTeamGenerator(1.0, 0.5, 0.5, 0.5);
+
+    @Test
+    void swapDeltaMatchesAFullRecompute() {
+        Random rnd = new Random(42);
+        int n = 23;
+        int teams = 4;
+        int columns = 6;
+        double[][] x = new double[n][columns];
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < columns; k++) x[i][k] = k < 2 ? rnd.nextInt(100) : rnd.nextInt(2);
+        }
+        double[] w = {1.0, 0.3, 0.5, 0.5, 0.0, 2.0};
+        TeamSlots slots = TeamSlots.greedy(n, teams, new int[n]);
+
+        for (int round = 0; round < 500; round++) {
+            int p = rnd.nextInt(n);
+            int q = rnd.nextInt(n);
+            int tp = slots.team[p];
+            int tq = slots.team[q];
+            if (tp == tq) continue;
+            double[][] total = totals(slots, x, teams);
+            double before = cost(total, w);
+
+            double delta = MultiAttributeTeamGenerator.swapDelta(x, w, total, p, q, tp, tq);
+            slots.swap(p, q);
+
+            assertThat(cost(totals(slots, x, teams), w) - before).isCloseTo(delta, within(1e-6));
+        }
+    }
+
+    @Test
+    void balancesASecondAttributeWithoutUnbalancingSkill() {
+        // skills 120 down to 10; the skill-only greedy start puts players 0, 3, 4 and 7 together
+        int[] goalies = {0, 3, 4, 7};
+        List<User> pool = TieredTeamGeneratorTest.players(12);
+        for (int i : goalies) pool.get(i).setPosition("goalie");
+        int[] skill = pool.stream().mapToInt(User::getSkill).toArray();
+        TeamSlots greedy = TeamSlots.greedy(12, 2, skill);
+        for (int i : goalies) assertThat(greedy.team[i]).isZero();
+
+        List<List<User>> teams = generator.makeTeams(pool, 6);
+
+        assertThat(teams).hasSize(2);
+        for (List<User> team : teams) {
+            assertThat(team).hasSize(6);
+            assertThat(team).filteredOn(u -> "goalie".equals(u.getPosition())).hasSize(2);
+        }
+        int a = teams.get(0).stream().mapToInt(User::getSkill).sum();
+        int b = teams.get(1).stream().mapToInt(User::getSkill).sum();
+        assertThat(Math.abs(a - b)).isLessThanOrEqualTo(20);
+    }
+
+    @Test
+    void everyPlayerIsPlacedOnceAndSizesDifferByAtMostOne() {
+        Random rnd = new Random(7);
+        for (int n = 2; n <= 40; n += 3) {
+            List<User> pool = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                User u = new User("P" + i, "p" + i, rnd.nextInt(100));
+                u.setId((long) i + 1);
+                u.setExperience(rnd.nextInt(10));
+                u.setGender(rnd.nextBoolean() ? "f" : "m");
+                pool.add(u);
+            }
+            List<List<User>> teams = generator.makeTeams(pool, 5);
+
+            Set<User> placed = new HashSet<>();
+            teams.forEach(placed::addAll);
+            assertThat(placed).as("n=%d", n).hasSize(n);
+            int min = teams.stream().mapToInt(List::size).min().orElseThrow();
+            int max = teams.stream().mapToInt(List::size).max().orElseThrow();
+            assertThat(max - min).as("n=%d", n).isLessThanOrEqualTo(1);
+        }
+    }
+
+    private static double[][] totals(TeamSlots slots, double[][] x, int teams) {
+        double[][] total = new double[teams][x[0].length];
+        for (int i = 0; i < x.length; i++) {
+            for (int k = 0; k < x[i].length; k++) total[slots.team[i]][k] += x[i][k];
+        }
+        return total;
+    }
+
+    // the weighted squared deviation of team totals, from scratch
+    private static double cost(double[][] total, double[] w) {
+        double c = 0;
+        for (int k = 0; k < w.length; k++) {
+            double mean = 0;
+            for (double[] t : total) mean += t[k];
+            mean /= total.length;
+            for (double[] t : total) c += w[k] * (t[k] - mean) * (t[k] - mean);
+        }
+        return c;
+    }
+}
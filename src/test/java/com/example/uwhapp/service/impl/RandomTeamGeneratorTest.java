@@ -0,0 +1,150 @@
+package com.example.uwhapp.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.service.GenerationOptions;
+import com.example.uwhapp.service.GenerationProgress;
+import com.example.uwhapp.service.Workloads;
+
+class RandomTeamGeneratorTest {
+
+    private final List<Workloads> workloads = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        workloads.forEach(Workloads::shutdown);
+    }
+
+    // teams executor with the given concurrency, everything else as configured
+    private RandomTeamGenerator generator(int teamsConcurrency) {
+        Workloads w = new Workloads(4, 1000, teamsConcurrency, 20, 1, 10);
+        workloads.add(w);
+        return new RandomTeamGenerator(20_000, w);
+    }
+
+    @Test
+    void sameSeedGivesTheSameTeams() {
+        RandomTeamGenerator generator = generator(1);
+        List<User> pool = players(23, 37);
+        List<User> reversed = new ArrayList<>(pool);
+        Collections.reverse(reversed);
+
+        for (int draws : new int[] {1, 500}) {
+            List<List<User>> first = generator.makeTeams(pool, 6, options(42L, draws));
+            // the load order of the attendees does not matter either
+            assertThat(generator.makeTeams(reversed, 6, options(42L, draws))).as("draws=%d", draws).isEqualTo(first);
+            assertThat(generator.makeTeams(pool, 6, options(43L, draws))).as("draws=%d", draws).isNotEqualTo(first);
+        }
+    }
+
+    @Test
+    void resultDoesNotDependOnHowTheDrawsAreShared() {
+        List<User> pool = players(30, 37);
+        List<List<User>> two = generator(1).makeTeams(pool, 6, options(7L, 1_000));
+        assertThat(generator(2).makeTeams(pool, 6, options(7L, 1_000))).isEqualTo(two);
+        assertThat(generator(5).makeTeams(pool, 6, options(7L, 1_000))).isEqualTo(two);
+    }
+
+    @Test
+    void drawZeroIsTheSingleDrawAndTiesGoToTheLowestDraw() {
+        // equal skills: every draw ties at a spread of 0, so the lowest draw, draw 0, must win
+        List<User> pool = players(20, 0);
+        RandomTeamGenerator generator = generator(3);
+
+        List<List<User>> single = generator.makeTeams(pool, 5, options(99L, 1));
+
+        assertThat(generator.makeTeams(pool, 5, options(99L, 2))).isEqualTo(single);
+        assertThat(generator.makeTeams(pool, 5, options(99L, 1_000))).isEqualTo(single);
+    }
+
+    @Test
+    void moreDrawsNeverWidenTheSpread() {
+        List<User> pool = players(24, 37);
+        RandomTeamGenerator generator = generator(1);
+        long previous = Long.MAX_VALUE;
+        for (int draws : new int[] {1, 10, 100, 1_000}) {
+            // draws share a prefix: the first ten of a hundred are the ten draws
+            long spread = spread(generator.makeTeams(pool, 6, options(5L, draws)));
+            assertThat(spread).as("draws=%d", draws).isLessThanOrEqualTo(previous);
+            previous = spread;
+        }
+    }
+
+    @Test
+    void drawsRunOnTheTeamsExecutorNotTheCommonPool() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        GenerationProgress progress = new GenerationProgress() {
+            @Override
+            public void report(double fraction, long bestScore) {
+                threads.add(Thread.currentThread().getName());
+            }
+
+            @Override
+            public boolean cancelled() {
+                return false;
+            }
+        };
+
+        generator(1).makeTeams(players(40, 37), 6, new GenerationOptions(null, null, 1L, 20_000, null, null, progress));
+
+        assertThat(threads).noneMatch(name -> name.contains("ForkJoinPool"));
+        assertThat(threads).anyMatch(name -> name.startsWith("teams-"));
+    }
+
+    @Test
+    void drawsFromAJobAlreadyOnTheTeamsExecutorDoNotWaitOnIt() throws Exception {
+        Workloads w = new Workloads(4, 1000, 1, 20, 1, 10);
+        workloads.add(w);
+        RandomTeamGenerator generator = new RandomTeamGenerator(20_000, w);
+        FutureTask<List<List<User>>> job = new FutureTask<>(
+                () -> generator.makeTeams(players(30, 37), 6, options(3L, 5_000)));
+
+        // the job takes the executor's only slot, so its share of the draws can only queue
+        w.teams().execute(job);
+
+        assertThat(ids(job.get(10, TimeUnit.SECONDS)))
+                .isEqualTo(ids(generator(2).makeTeams(players(30, 37), 6, options(3L, 5_000))));
+    }
+
+    private static GenerationOptions options(long seed, int draws) {
+        return new GenerationOptions(null, null, seed, draws, null, null, null);
+    }
+
+    // skills step by the given amount (mod 100); 0 gives everyone the same skill
+    private static List<User> players(int n, int step) {
+        List<User> pool = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            User u = new User("P" + i, "p" + i, step == 0 ? 50 : (i * step) % 100);
+            u.setId(100L + i);
+            pool.add(u);
+        }
+        return pool;
+    }
+
+    private static List<List<Long>> ids(List<List<User>> teams) {
+        return teams.stream().map(team -> team.stream().map(User::getId).toList()).toList();
+    }
+
+    private static long spread(List<List<User>> teams) {
+        long max = Long.MIN_VALUE;
+        long min = Long.MAX_VALUE;
+        for (List<User> team : teams) {
+            long total = team.stream().mapToLong(User::getSkill).sum();
+            max = Math.max(max, total);
+            min = Math.min(min, total);
+        }
+        return max - min;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.uwhapp.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class TeamSlotsTest {
+
+    @Test
+    void greedySizesDifferByAtMostOne() {
+        for (int n = 1; n <= 40; n++) {
+            for (int k = 1; k <= Math.min(n, 8); k++) {
+                int[] score = new int[n];
+                for (int i = 0; i < n; i++) score[i] = (n - i) * 10;
+                TeamSlots s = TeamSlots.greedy(n, k, score);
+
+                int min = Integer.MAX_VALUE;
+                int max = 0;
+                for (int t = 0; t < k; t++) {
+                    min = Math.min(min, s.size[t]);
+                    max = Math.max(max, s.size[t]);
+                }
+                assertThat(max - min).as("n=%d k=%d", n, k).isLessThanOrEqualTo(1);
+                assertConsistent(s, n);
+            }
+        }
+    }
+
+    @Test
+    void greedyPutsEachPlayerOnTheWeakestTeamWithRoom() {
+        // 5 players into 2 teams: 50 -> A, 40 -> B, 30 -> B (40 < 50), 20 -> A (50 < 70),
+        // 10 -> A (70 = 70, and a tie goes to the first team)
+        TeamSlots s = TeamSlots.greedy(5, 2, new int[] {50, 40, 30, 20, 10});
+        assertThat(s.team).containsExactly(0, 1, 1, 0, 0);
+    }
+
+    @Test
+    void swapTradesTeamsAndKeepsSlotsConsistent() {
+        TeamSlots s = TeamSlots.greedy(7, 3, new int[] {70, 60, 50, 40, 30, 20, 10});
+        int[] sizes = s.size.clone();
+        int a = 0;
+        int b = -1;
+        for (int i = 1; i < 7 && b < 0; i++) if (s.team[i] != s.team[a]) b = i;
+        int ta = s.team[a];
+        int tb = s.team[b];
+
+        s.swap(a, b);
+
+        assertThat(s.team[a]).isEqualTo(tb);
+        assertThat(s.team[b]).isEqualTo(ta);
+        assertThat(s.size).containsExactly(sizes);
+        assertConsistent(s, 7);
+
+        // and back again, many times over, without losing anyone
+        for (int i = 0; i < 100; i++) {
+            int p = i % 7;
+            int q = (i * 3 + 1) % 7;
+            if (s.team[p] != s.team[q]) s.swap(p, q);
+        }
+        assertConsistent(s, 7);
+    }
+
+    @Test
+    void toTeamsFollowsTheMembers() {
+        TeamSlots s = TeamSlots.greedy(4, 2, new int[] {4, 3, 2, 1});
+        List<List<String>> teams = s.toTeams(List.of("a", "b", "c", "d"));
+        assertThat(teams).containsExactly(List.of("a", "d"), List.of("b", "c"));
+    }
+
+    // every player is on exactly one team, in the slot the member lists say
+    private static void assertConsistent(TeamSlots s, int players) {
+        Set<Integer> seen = new HashSet<>();
+        for (int t = 0; t < s.numTeams; t++) {
+            List<Integer> onTeam = new ArrayList<>();
+            for (int k = 0; k < s.size[t]; k++) onTeam.add(s.members[t][k]);
+            for (int p : onTeam) assertThat(s.team[p]).isEqualTo(t);
+            seen.addAll(onTeam);
+        }
+        assertThat(seen).hasSize(players);
+    }
+}
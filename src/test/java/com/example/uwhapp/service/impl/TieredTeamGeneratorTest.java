@@ -0,0 +1,97 @@
+package com.example.uwhapp.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.uwhapp.model.User;
+import com.example.uwhapp.service.GenerationOptions;
+
+class TieredTeamGeneratorTest {
+
+    private final TieredTeamGenerator generator = new TieredTeamGenerator();
+
+    @Test
+    void topTierPlaysTopTier() {
+        // skills 120, 110, ... 10: the six strongest must fill teams 1-2, the rest teams 3-4
+        List<User> pool = players(12);
+        List<List<User>> teams = generator.makeTeams(pool, 3, options(4, 2));
+
+        assertThat(teams).hasSize(4);
+        assertThat(skills(teams.get(0))).allMatch(s -> s > 60);
+        assertThat(skills(teams.get(1))).allMatch(s -> s > 60);
+        assertThat(skills(teams.get(2))).allMatch(s -> s <= 60);
+        assertThat(skills(teams.get(3))).allMatch(s -> s <= 60);
+        // and within a tier the two teams are as even as a greedy split gets
+        assertThat(Math.abs(total(teams.get(0)) - total(teams.get(1)))).isLessThanOrEqualTo(20);
+    }
+
+    @Test
+    void sizesDifferByAtMostOneForAnyRosterTeamsAndTiers() {
+        for (int n = 1; n <= 40; n++) {
+            for (int k = 1; k <= 8; k++) {
+                for (int t = 1; t <= k; t++) {
+                    List<User> pool = players(n);
+                    List<List<User>> teams = generator.makeTeams(pool, 1, options(k, t));
+
+                    assertThat(teams).as("n=%d k=%d t=%d", n, k, t).hasSize(Math.min(n, k));
+                    int min = teams.stream().mapToInt(List::size).min().orElseThrow();
+                    int max = teams.stream().mapToInt(List::size).max().orElseThrow();
+                    assertThat(max - min).as("n=%d k=%d t=%d", n, k, t).isLessThanOrEqualTo(1);
+                    Set<User> placed = new HashSet<>();
+                    teams.forEach(placed::addAll);
+                    assertThat(placed).as("n=%d k=%d t=%d", n, k, t).hasSize(n);
+                }
+            }
+        }
+    }
+
+    @Test
+    void largerTeamsGoToTheTopTier() {
+        List<List<User>> teams = generator.makeTeams(players(10), 3, options(4, 2));
+        assertThat(teams).extracting(List::size).containsExactly(3, 3, 2, 2);
+    }
+
+    @Test
+    void tierCountThatDoesNotDivideTheTeamsIsLowered() {
+        assertThat(TieredTeamGenerator.tiers(6, 4)).isEqualTo(3);
+        assertThat(TieredTeamGenerator.tiers(5, 2)).isEqualTo(1);
+        assertThat(TieredTeamGenerator.tiers(4, 9)).isEqualTo(4);
+        assertThat(TieredTeamGenerator.tiers(4, null)).isEqualTo(2);
+        assertThat(TieredTeamGenerator.tiers(6, null)).isEqualTo(3);
+        assertThat(TieredTeamGenerator.tiers(3, null)).isEqualTo(1);
+
+        // six teams asked for four tiers get three tiers of two
+        List<List<User>> teams = generator.makeTeams(players(18), 3, options(6, 4));
+        assertThat(skills(teams.get(0))).allMatch(s -> s > 120);
+        assertThat(skills(teams.get(5))).allMatch(s -> s <= 60);
+    }
+
+    private static GenerationOptions options(int teams, int tiers) {
+        return new GenerationOptions(null, null, null, 1, tiers, teams, null);
+    }
+
+    // distinct skills, strongest first: n * 10 down to 10
+    static List<User> players(int n) {
+        List<User> pool = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            User u = new User("P" + i, "p" + i, (n - i) * 10);
+            u.setId((long) i + 1);
+            pool.add(u);
+        }
+        return pool;
+    }
+
+    private static List<Integer> skills(List<User> team) {
+        return team.stream().map(User::getSkill).toList();
+    }
+
+    private static int total(List<User> team) {
+        return team.stream().mapToInt(User::getSkill).sum();
+    }
+}